@@ -71,8 +71,12 @@ if "%choice%"=="1" (
 ) else if "%choice%"=="2" (
     if not "%CLASSPATH_EXTRA%"=="" (
         java -cp ".;%CLASSPATH_EXTRA%" com.wipro.studentgrade.test.TestGradeSystem
+        java -cp ".;%CLASSPATH_EXTRA%" com.wipro.studentgrade.test.TestJsonReader
+        java -cp ".;%CLASSPATH_EXTRA%" com.wipro.studentgrade.test.TestStudentLog
     ) else (
         java com.wipro.studentgrade.test.TestGradeSystem
+        java com.wipro.studentgrade.test.TestJsonReader
+        java com.wipro.studentgrade.test.TestStudentLog
     )
 ) else (
     echo Invalid choice.
@@ -0,0 +1,26 @@
+@echo off
+echo ========================================
+echo Student Grade Generation System - Benchmarks
+echo ========================================
+echo.
+
+set CLASSPATH_EXTRA=
+if exist "sqlite-jdbc.jar" (
+    set CLASSPATH_EXTRA=../sqlite-jdbc.jar
+) else (
+    echo sqlite-jdbc.jar not found. Run download_sqlite.bat first.
+    exit /b 1
+)
+
+echo Compiling Java files...
+cd src
+javac -cp ".;%CLASSPATH_EXTRA%" com\wipro\studentgrade\bean\*.java com\wipro\studentgrade\util\*.java com\wipro\studentgrade\dao\*.java com\wipro\studentgrade\service\*.java com\wipro\studentgrade\bench\*.java
+if %ERRORLEVEL% NEQ 0 (
+    echo Compilation failed.
+    cd ..
+    exit /b 1
+)
+cd ..
+
+rem Pass extra options through, e.g. run_benchmarks.bat -Dbench.suites=dao,http -Dbench.measureMillis=10000
+java %* -cp "src;sqlite-jdbc.jar" com.wipro.studentgrade.bench.BenchmarkRunner
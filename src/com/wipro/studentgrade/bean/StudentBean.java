@@ -7,6 +7,7 @@ public class StudentBean {
     private int total;
     private int average;
     private String grade;
+    private int version;
     
     // Default constructor
     public StudentBean() {}
@@ -21,6 +22,21 @@ public class StudentBean {
         this.mark5 = mark5;
     }
     
+    // Copy constructor
+    public StudentBean(StudentBean other) {
+        this.studentId = other.studentId;
+        this.name = other.name;
+        this.mark1 = other.mark1;
+        this.mark2 = other.mark2;
+        this.mark3 = other.mark3;
+        this.mark4 = other.mark4;
+        this.mark5 = other.mark5;
+        this.total = other.total;
+        this.average = other.average;
+        this.grade = other.grade;
+        this.version = other.version;
+    }
+    
     // Getters and Setters
     public String getStudentId() {
         return studentId;
@@ -101,4 +117,12 @@ public class StudentBean {
     public void setGrade(String grade) {
         this.grade = grade;
     }
+    
+    public int getVersion() {
+        return version;
+    }
+    
+    public void setVersion(int version) {
+        this.version = version;
+    }
 }
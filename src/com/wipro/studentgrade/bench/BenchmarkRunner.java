@@ -0,0 +1,341 @@
+package com.wipro.studentgrade.bench;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.dao.LogStudentRepository;
+import com.wipro.studentgrade.dao.StudentCache;
+import com.wipro.studentgrade.dao.StudentDAO;
+import com.wipro.studentgrade.dao.StudentQuery;
+import com.wipro.studentgrade.dao.StudentRepository;
+import com.wipro.studentgrade.service.ColumnarGradeStore;
+import com.wipro.studentgrade.service.GradeProcessor;
+import com.wipro.studentgrade.service.HttpApiServer;
+import com.wipro.studentgrade.util.DatabaseUtil;
+import com.wipro.studentgrade.util.JsonWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Benchmark suite for grading, the DAO, JSON serialization and the HTTP API.
+ *
+ * Runs against a throwaway SQLite file (unless -Djdbc.url is given) and writes
+ * every result to bench-results/bench-&lt;timestamp&gt;.json so runs can be diffed.
+ *
+ * Options (system properties):
+ *   bench.suites        comma list of grade,dao,log,json,http,columnar (default: all)
+ *   bench.warmupMillis  warmup per benchmark (default 2000)
+ *   bench.measureMillis measurement per benchmark (default 5000)
+ *   bench.rows          students seeded for lookup/list/HTTP benchmarks (default 10000)
+ *   bench.http.threads  concurrent HTTP clients (default 8)
+ *   bench.columnar.rows students in the columnar analytics benchmarks (default 1000000)
+ *   bench.out           output directory (default bench-results)
+ */
+public class BenchmarkRunner {
+    private static final String[] NAMES = {
+        "Aarav Sharma", "Priya Nair", "Rahul Verma", "Sneha Iyer", "Vikram Rao",
+        "Ananya Gupta", "Karthik Reddy", "Meera Pillai", "Arjun Menon", "Divya Krishnan"
+    };
+
+    private final Harness harness;
+    private final List<Harness.Result> results = new ArrayList<>();
+    private final Random random = new Random(42);
+    private final int rows = Integer.getInteger("bench.rows", 10000);
+
+    public BenchmarkRunner(Harness harness) {
+        this.harness = harness;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dbFile = null;
+        if (System.getProperty("jdbc.url") == null) {
+            // Must be set before DatabaseUtil is first loaded
+            dbFile = Files.createTempFile("student-bench-", ".db");
+            System.setProperty("jdbc.url", "jdbc:sqlite:" + dbFile.toAbsolutePath());
+        }
+
+        List<String> suites = Arrays.asList(System.getProperty("bench.suites", "grade,dao,log,json,http,columnar").split(","));
+        BenchmarkRunner runner = new BenchmarkRunner(new Harness(
+                Long.getLong("bench.warmupMillis", 2000), Long.getLong("bench.measureMillis", 5000)));
+
+        try {
+            DatabaseUtil.initializeDatabase();
+            if (suites.contains("grade")) runner.gradeSuite();
+            if (suites.contains("dao")) runner.daoSuite();
+            if (suites.contains("log")) runner.logSuite();
+            if (suites.contains("json")) runner.jsonSuite();
+            if (suites.contains("http")) runner.httpSuite();
+            if (suites.contains("columnar")) runner.columnarSuite();
+
+            Path out = runner.writeResults(Paths.get(System.getProperty("bench.out", "bench-results")));
+            System.out.println("Results written to " + out);
+        } finally {
+            if (DatabaseUtil.getPool() != null) {
+                DatabaseUtil.getPool().close();
+            }
+            if (dbFile != null) {
+                for (String suffix : new String[] {"", "-wal", "-shm"}) {
+                    new File(dbFile.toAbsolutePath() + suffix).delete();
+                }
+            }
+        }
+    }
+
+    private void gradeSuite() throws Exception {
+        GradeProcessor processor = new GradeProcessor();
+        results.add(harness.run("GradeProcessor.calculateGrade", i -> {
+            StudentBean bean = randomStudent();
+            processor.calculateGrade(bean);
+            return bean.getGrade();
+        }));
+
+        InMemoryStudentDAO memory = new InMemoryStudentDAO();
+        GradeProcessor inMemory = new GradeProcessor(memory);
+        results.add(harness.run("GradeProcessor.generateGrade [in-memory DAO]", i -> {
+            if (memory.size() > 1_000_000) memory.clear();
+            return inMemory.generateGrade(randomStudent());
+        }));
+
+        results.add(harness.run("GradeProcessor.generateGrade [SQLite DAO]",
+                i -> processor.generateGrade(randomStudent())));
+
+        int batchRows = 5000;
+        results.add(harness.run("GradeProcessor.processBatch [in-memory DAO, " + batchRows + " rows/op]", i -> {
+            if (memory.size() > 1_000_000) memory.clear();
+            return inMemory.processBatch(randomStudents(batchRows)).getInserted();
+        }));
+        GradeProcessor.BatchResult[] last = new GradeProcessor.BatchResult[1];
+        results.add(harness.run("GradeProcessor.processBatch [SQLite DAO, " + batchRows + " rows/op]", i -> {
+            last[0] = processor.processBatch(randomStudents(batchRows));
+            return last[0].getInserted();
+        }));
+        System.out.println("  last SQLite batch: " + last[0]);
+    }
+
+    private void daoSuite() throws Exception {
+        StudentDAO dao = new StudentDAO();
+        GradeProcessor processor = new GradeProcessor(dao);
+
+        dao.clearAllStudents();
+        results.add(harness.run("StudentDAO.insertStudent", i -> dao.insertStudent(graded(processor, dao))));
+
+        int batchSize = StudentDAO.getDefaultBatchSize();
+        results.add(harness.run("StudentDAO.insertStudents [" + batchSize + " rows/op]", i -> {
+            List<StudentBean> batch = new ArrayList<>(batchSize);
+            for (int r = 0; r < batchSize; r++) {
+                batch.add(graded(processor, dao));
+            }
+            return dao.insertStudents(batch, batchSize);
+        }));
+
+        List<String> ids = seed(dao, processor);
+        StudentCache cache = StudentDAO.getCache();
+        results.add(harness.run("StudentDAO.getStudentById [cache hit]",
+                i -> dao.getStudentById(ids.get(i % 100))));
+        results.add(harness.run("StudentDAO.getStudentById [cache miss]", i -> {
+            String id = ids.get(random.nextInt(ids.size()));
+            if (cache != null) cache.invalidate(id);
+            return dao.getStudentById(id);
+        }));
+
+        results.add(harness.run("StudentDAO.streamStudents [limit 50]", i -> {
+            StudentQuery query = new StudentQuery();
+            query.setLimit(50);
+            int[] count = new int[1];
+            dao.streamStudents(query, s -> count[0]++);
+            return count[0];
+        }));
+        results.add(harness.run("StudentDAO.getAllStudents [" + ids.size() + " rows]",
+                i -> dao.getAllStudents().size()));
+    }
+
+    // The same operations on the embedded log engine, in a throwaway file
+    private void logSuite() throws Exception {
+        Path file = Files.createTempFile("student-bench-", ".log");
+        LogStudentRepository log = new LogStudentRepository(file, 20, false);
+        try {
+            GradeProcessor processor = new GradeProcessor(log);
+            results.add(harness.run("LogStudentRepository.insertStudent", i -> log.insertStudent(graded(processor, log))));
+
+            int batchSize = StudentDAO.getDefaultBatchSize();
+            results.add(harness.run("LogStudentRepository.insertStudents [" + batchSize + " rows/op]", i -> {
+                List<StudentBean> batch = new ArrayList<>(batchSize);
+                for (int r = 0; r < batchSize; r++) {
+                    batch.add(graded(processor, log));
+                }
+                return log.insertStudents(batch, batchSize);
+            }));
+
+            List<String> ids = seed(log, processor);
+            results.add(harness.run("LogStudentRepository.getStudentById",
+                    i -> log.getStudentById(ids.get(random.nextInt(ids.size())))));
+            results.add(harness.run("LogStudentRepository.streamStudents [limit 50]", i -> {
+                StudentQuery query = new StudentQuery();
+                query.setLimit(50);
+                int[] count = new int[1];
+                log.streamStudents(query, s -> count[0]++);
+                return count[0];
+            }));
+            results.add(harness.run("LogStudentRepository.getAllStudents [" + ids.size() + " rows]",
+                    i -> log.getAllStudents().size()));
+        } finally {
+            log.close();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void jsonSuite() throws Exception {
+        GradeProcessor processor = new GradeProcessor(new InMemoryStudentDAO());
+        List<StudentBean> page = new ArrayList<>();
+        for (int r = 0; r < 50; r++) {
+            StudentBean bean = randomStudent();
+            processor.calculateGrade(bean);
+            bean.setStudentId(String.format("BEN%03d", r));
+            page.add(bean);
+        }
+
+        results.add(harness.run("HttpApiServer.studentToJson", i -> HttpApiServer.studentToJson(page.get(i % 50))));
+        JsonWriter writer = new JsonWriter();
+        results.add(harness.run("HttpApiServer.writeStudent [page of 50, reused buffer]", i -> {
+            writer.reset();
+            writer.beginArray();
+            for (StudentBean bean : page) {
+                HttpApiServer.writeStudent(writer, bean);
+            }
+            writer.endArray();
+            return writer.size();
+        }));
+    }
+
+    private void httpSuite() throws Exception {
+        StudentDAO dao = new StudentDAO();
+        seed(dao, new GradeProcessor(dao));
+
+        HttpApiServer server = new HttpApiServer(0);
+        server.start();
+        try {
+            String base = "http://localhost:" + server.getPort();
+            HttpLoadTest load = new HttpLoadTest(Integer.getInteger("bench.http.threads", 8),
+                    Long.getLong("bench.warmupMillis", 2000), Long.getLong("bench.measureMillis", 5000));
+
+            results.add(load.run("GET /api/students?limit=50",
+                    n -> HttpLoadTest.get(base + "/api/students?limit=50")));
+            results.add(load.run("GET /api/students?limit=50&sort=total",
+                    n -> HttpLoadTest.get(base + "/api/students?limit=50&sort=total&order=desc")));
+            results.add(load.run("GET /api/students/top?n=10",
+                    n -> HttpLoadTest.get(base + "/api/students/top?n=10")));
+            results.add(load.run("GET /api/statistics",
+                    n -> HttpLoadTest.get(base + "/api/statistics")));
+            results.add(load.run("POST /api/students",
+                    n -> HttpLoadTest.postForm(base + "/api/students",
+                            "name=Load+Test+" + n + "&m1=70&m2=80&m3=90&m4=60&m5=85")));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // Analytics over many students: the columnar store against a List<StudentBean> stream
+    private void columnarSuite() throws Exception {
+        int count = Integer.getInteger("bench.columnar.rows", 1_000_000);
+        GradeProcessor processor = new GradeProcessor(new InMemoryStudentDAO());
+        ColumnarGradeStore store = new ColumnarGradeStore();
+        List<StudentBean> beans = new ArrayList<>(count);
+        for (int r = 0; r < count; r++) {
+            StudentBean bean = randomStudent();
+            processor.calculateGrade(bean);
+            bean.setStudentId(String.format("%s%03d", NAMES[r % NAMES.length].replaceAll("[^A-Z]", ""), r));
+            beans.add(bean);
+            store.studentInserted(bean);
+        }
+        System.out.printf(Locale.ROOT, "  columnar store: %d students, ~%d bytes/student%n",
+                store.size(), store.memoryBytes() / Math.max(1, store.size()));
+
+        results.add(harness.run("List<StudentBean> average of total [" + count + " rows]",
+                i -> beans.stream().mapToInt(StudentBean::getTotal).average().orElse(0)));
+        results.add(harness.run("ColumnarGradeStore.summarize(total) [" + count + " rows]",
+                i -> store.summarize(ColumnarGradeStore.TOTAL).mean));
+        results.add(harness.run("ColumnarGradeStore.gradeDistribution [" + count + " rows]",
+                i -> store.gradeDistribution().size()));
+        results.add(harness.run("ColumnarGradeStore.top(10, total) [" + count + " rows]",
+                i -> store.top(10, ColumnarGradeStore.TOTAL).size()));
+        results.add(harness.run("ColumnarGradeStore.rank(total) [" + count + " rows]",
+                i -> store.rank(beans.get(i % count).getStudentId(), ColumnarGradeStore.TOTAL)));
+    }
+
+    // Resets the table to bench.rows students and returns their IDs
+    private List<String> seed(StudentRepository dao, GradeProcessor processor) throws Exception {
+        dao.clearAllStudents();
+        List<StudentBean> beans = new ArrayList<>(rows);
+        for (int r = 0; r < rows; r++) {
+            beans.add(graded(processor, dao));
+        }
+        dao.insertStudents(beans);
+
+        List<String> ids = new ArrayList<>(rows);
+        for (StudentBean bean : beans) {
+            ids.add(bean.getStudentId());
+        }
+        return ids;
+    }
+
+    private StudentBean graded(GradeProcessor processor, StudentRepository dao) throws Exception {
+        StudentBean bean = randomStudent();
+        processor.calculateGrade(bean);
+        bean.setStudentId(dao.generateId(bean.getName()));
+        return bean;
+    }
+
+    private List<StudentBean> randomStudents(int count) {
+        List<StudentBean> beans = new ArrayList<>(count);
+        for (int r = 0; r < count; r++) {
+            beans.add(randomStudent());
+        }
+        return beans;
+    }
+
+    private StudentBean randomStudent() {
+        return new StudentBean(NAMES[random.nextInt(NAMES.length)],
+                random.nextInt(101), random.nextInt(101), random.nextInt(101),
+                random.nextInt(101), random.nextInt(101));
+    }
+
+    private Path writeResults(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path file = dir.resolve("bench-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("{\n");
+            out.write("  \"timestamp\": \"" + LocalDateTime.now() + "\",\n");
+            out.write("  \"java\": \"" + escape(System.getProperty("java.version")) + "\",\n");
+            out.write("  \"os\": \"" + escape(System.getProperty("os.name") + " " + System.getProperty("os.arch")) + "\",\n");
+            out.write("  \"cpus\": " + Runtime.getRuntime().availableProcessors() + ",\n");
+            out.write("  \"rows\": " + rows + ",\n");
+            out.write("  \"results\": [\n");
+            for (int i = 0; i < results.size(); i++) {
+                Harness.Result r = results.get(i);
+                out.write(String.format(Locale.ROOT,
+                        "    {\"name\": \"%s\", \"ops\": %d, \"errors\": %d, \"seconds\": %.3f, \"opsPerSecond\": %.2f, "
+                        + "\"meanMicros\": %.3f, \"p50Micros\": %.3f, \"p99Micros\": %.3f, \"p999Micros\": %.3f, \"maxMicros\": %.3f}%s\n",
+                        escape(r.name), r.ops, r.errors, r.seconds, r.opsPerSecond,
+                        r.meanMicros, r.p50Micros, r.p99Micros, r.p999Micros, r.maxMicros,
+                        i + 1 < results.size() ? "," : ""));
+            }
+            out.write("  ]\n}\n");
+        }
+        return file;
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,135 @@
+package com.wipro.studentgrade.bench;
+
+import java.util.Arrays;
+
+/**
+ * Minimal timing harness: warms an operation up for a fixed time, then runs it
+ * for a fixed time recording the latency of every call.
+ *
+ * Results are kept per benchmark in {@link Result}; throughput comes from the
+ * wall-clock time of the measurement phase, percentiles from the recorded
+ * per-call latencies (which include ~20-30ns of System.nanoTime overhead).
+ */
+public final class Harness {
+    private final long warmupNanos;
+    private final long measureNanos;
+
+    // Results are folded into this field so the JIT cannot drop unused work
+    private static volatile int sink;
+
+    /** One timed call; the return value is consumed so its computation is kept. */
+    public interface Op {
+        Object run(int iteration) throws Exception;
+    }
+
+    /** Growable list of latency samples in nanoseconds. */
+    public static final class Recorder {
+        private long[] samples = new long[1024];
+        private int size;
+        private long errors;
+
+        public void record(long nanos) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+        }
+
+        public void error() {
+            errors++;
+        }
+
+        public void addAll(Recorder other) {
+            for (int i = 0; i < other.size; i++) {
+                record(other.samples[i]);
+            }
+            errors += other.errors;
+        }
+    }
+
+    /** Summary of one benchmark run. */
+    public static final class Result {
+        public final String name;
+        public final long ops;
+        public final long errors;
+        public final double seconds;
+        public final double opsPerSecond;
+        public final double meanMicros;
+        public final double p50Micros;
+        public final double p99Micros;
+        public final double p999Micros;
+        public final double maxMicros;
+
+        public Result(String name, Recorder recorder, long elapsedNanos) {
+            long[] sorted = Arrays.copyOf(recorder.samples, recorder.size);
+            Arrays.sort(sorted);
+            long total = 0;
+            for (long s : sorted) {
+                total += s;
+            }
+            this.name = name;
+            this.ops = sorted.length;
+            this.errors = recorder.errors;
+            this.seconds = elapsedNanos / 1e9;
+            this.opsPerSecond = seconds > 0 ? ops / seconds : 0;
+            this.meanMicros = ops == 0 ? 0 : total / (double) ops / 1000.0;
+            this.p50Micros = percentile(sorted, 50.0) / 1000.0;
+            this.p99Micros = percentile(sorted, 99.0) / 1000.0;
+            this.p999Micros = percentile(sorted, 99.9) / 1000.0;
+            this.maxMicros = ops == 0 ? 0 : sorted[sorted.length - 1] / 1000.0;
+        }
+
+        // Nearest-rank percentile
+        private static long percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return 0;
+            int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+            return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-48s %12.1f ops/s  mean %9.2f us  p50 %9.2f  p99 %9.2f  p999 %9.2f us%s",
+                    name, opsPerSecond, meanMicros, p50Micros, p99Micros, p999Micros,
+                    errors > 0 ? "  errors " + errors : "");
+        }
+    }
+
+    public Harness(long warmupMillis, long measureMillis) {
+        this.warmupNanos = warmupMillis * 1_000_000L;
+        this.measureNanos = measureMillis * 1_000_000L;
+    }
+
+    /**
+     * Warms up, then measures an operation on the calling thread
+     * @param name Benchmark name used in the report
+     * @param op Operation to time
+     * @return Measured result
+     * @throws Exception if the operation fails
+     */
+    public Result run(String name, Op op) throws Exception {
+        int i = 0;
+        long warmupEnd = System.nanoTime() + warmupNanos;
+        while (System.nanoTime() < warmupEnd) {
+            consume(op.run(i++));
+        }
+
+        Recorder recorder = new Recorder();
+        long start = System.nanoTime();
+        long end = start + measureNanos;
+        long now = start;
+        while (now < end) {
+            Object value = op.run(i++);
+            long after = System.nanoTime();
+            recorder.record(after - now);
+            consume(value);
+            now = after;
+        }
+        Result result = new Result(name, recorder, now - start);
+        System.out.println(result);
+        return result;
+    }
+
+    static void consume(Object value) {
+        sink ^= value == null ? 0 : value.hashCode();
+    }
+}
@@ -0,0 +1,105 @@
+package com.wipro.studentgrade.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Closed-loop HTTP load generator: a fixed number of client threads each send
+ * a request, wait for the full response, and immediately send the next one.
+ * Non-2xx responses and I/O failures are counted as errors, not latencies.
+ */
+public class HttpLoadTest {
+    private final HttpClient client;
+    private final int threads;
+    private final long warmupMillis;
+    private final long measureMillis;
+
+    public HttpLoadTest(int threads, long warmupMillis, long measureMillis) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.threads = Math.max(1, threads);
+        this.warmupMillis = warmupMillis;
+        this.measureMillis = measureMillis;
+    }
+
+    public static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    public static HttpRequest postForm(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Runs one scenario against a live server
+     * @param name Scenario name used in the report
+     * @param requests Builds the request for a given sequence number
+     * @return Throughput and latency over all client threads
+     * @throws InterruptedException if interrupted while waiting for clients
+     */
+    public Harness.Result run(String name, IntFunction<HttpRequest> requests) throws InterruptedException {
+        drive(requests, warmupMillis, new AtomicInteger());
+
+        AtomicInteger sequence = new AtomicInteger();
+        long start = System.nanoTime();
+        List<Harness.Recorder> recorders = drive(requests, measureMillis, sequence);
+        long elapsed = System.nanoTime() - start;
+
+        Harness.Recorder all = new Harness.Recorder();
+        for (Harness.Recorder r : recorders) {
+            all.addAll(r);
+        }
+        Harness.Result result = new Harness.Result(name + " [" + threads + " clients]", all, elapsed);
+        System.out.println(result);
+        return result;
+    }
+
+    private List<Harness.Recorder> drive(IntFunction<HttpRequest> requests, long millis, AtomicInteger sequence)
+            throws InterruptedException {
+        long end = System.nanoTime() + millis * 1_000_000L;
+        List<Harness.Recorder> recorders = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            Harness.Recorder recorder = new Harness.Recorder();
+            recorders.add(recorder);
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    HttpRequest request = requests.apply(sequence.getAndIncrement());
+                    long begin = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        if (response.statusCode() / 100 == 2) {
+                            recorder.record(System.nanoTime() - begin);
+                        } else {
+                            recorder.error();
+                        }
+                    } catch (java.io.IOException e) {
+                        recorder.error();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }, "load-client-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return recorders;
+    }
+}
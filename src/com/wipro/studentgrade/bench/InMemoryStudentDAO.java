@@ -0,0 +1,52 @@
+package com.wipro.studentgrade.bench;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.dao.StudentDAO;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * StudentDAO stand-in that keeps students in a map, so GradeProcessor can be
+ * measured without database cost.
+ */
+public class InMemoryStudentDAO extends StudentDAO {
+    private final ConcurrentHashMap<String, StudentBean> students = new ConcurrentHashMap<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Override
+    public String generateId(String name) {
+        return String.format("MEM%06d", sequence.incrementAndGet());
+    }
+
+    @Override
+    public String insertStudent(StudentBean bean) {
+        students.put(bean.getStudentId(), new StudentBean(bean));
+        return "Student record inserted successfully with ID: " + bean.getStudentId();
+    }
+
+    @Override
+    public int[] insertStudents(List<StudentBean> beans, int batchSize) {
+        for (StudentBean bean : beans) {
+            students.put(bean.getStudentId(), new StudentBean(bean));
+        }
+        int[] results = new int[beans.size()];
+        Arrays.fill(results, 1);
+        return results;
+    }
+
+    @Override
+    public StudentBean getStudentById(String studentId) {
+        StudentBean student = students.get(studentId);
+        return student == null ? null : new StudentBean(student);
+    }
+
+    public int size() {
+        return students.size();
+    }
+
+    public void clear() {
+        students.clear();
+    }
+}
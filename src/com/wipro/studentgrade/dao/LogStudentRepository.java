@@ -0,0 +1,1433 @@
+package com.wipro.studentgrade.dao;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.util.ConcurrentUpdateException;
+import com.wipro.studentgrade.util.Metrics;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Embedded {@link StudentRepository} that keeps students in an append-only,
+ * memory-mapped record log instead of a SQL database.
+ *
+ * Every write appends a record (a student's full row, a delete, a clear or an
+ * ID sequence reservation) and never changes earlier bytes. An in-memory hash
+ * index maps each student ID to the offset of its latest row, so a lookup is
+ * one map probe and a read from the mapping, and an insert is one memory copy.
+ * Records carry a CRC-32C; on open the log is replayed to rebuild the index and
+ * replay stops at the first record that is incomplete or damaged. If nothing
+ * but that one torn write follows, a crash interrupted it and its bytes are
+ * cleared; if intact data follows, the log is damaged and is not opened, so
+ * later records are never silently dropped.
+ *
+ * Superseded rows accumulate as garbage. {@link #compact} copies the live rows
+ * to a new file and swaps it in atomically, and a background thread does so
+ * whenever garbage outgrows the live data. The mapping is limited to 2 GB.
+ *
+ * Writes append under a write lock and take their {@link StudentEvents} ticket
+ * there, so events publish in log order; reads share a read lock. Bytes reach
+ * the OS page cache as soon as they are copied, so they survive a process
+ * crash. With syncWrites each write is also forced to disk before it is
+ * acknowledged. The force runs after the locks are released, and it starts at
+ * the oldest byte not yet known to be on disk, so a write never becomes
+ * durable ahead of an earlier one.
+ */
+public class LogStudentRepository implements StudentRepository, Closeable {
+    private static final int MAGIC = 0x53474C47; // "SGLG"
+    // Version 2 added ROW_ID records; version 1 files are still read
+    private static final int FORMAT_VERSION = 2;
+    private static final int FILE_HEADER = 8;
+    // Payload length, CRC-32C of type and payload, type
+    private static final int RECORD_HEADER = 9;
+    // Row id, version, mark1..mark5, total, average; then student ID, name and grade
+    private static final int ROW_FIXED = 40;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+    private static final int INITIAL_MAP_BYTES = 16 << 20;
+    private static final int WRITE_CHUNK = 500;
+    private static final int READ_CHUNK = 1000;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte CLEAR = 3;
+    private static final byte SEQUENCE = 4;
+    private static final byte ROW_ID = 5;
+
+    // Same names as StudentDAO's, so the dao_* metrics cover either engine
+    private static final Metrics.Operation INSERT_ONE = Metrics.operation("insertStudent");
+    private static final Metrics.Operation INSERT_BATCH = Metrics.operation("insertStudents");
+    private static final Metrics.Operation GET_ALL = Metrics.operation("getAllStudents");
+    private static final Metrics.Operation STREAM = Metrics.operation("streamStudents");
+    private static final Metrics.Operation SCAN = Metrics.operation("scanRows");
+    private static final Metrics.Operation READ_ROWS = Metrics.operation("readRows");
+    private static final Metrics.Operation GET_BY_ID = Metrics.operation("getStudentById");
+    private static final Metrics.Operation COUNT = Metrics.operation("getStudentCount");
+    private static final Metrics.Operation UPDATE = Metrics.operation("updateStudent");
+    private static final Metrics.Operation UPDATE_GRADES = Metrics.operation("updateGrades");
+    private static final Metrics.Operation DELETE_ONE = Metrics.operation("deleteStudent");
+    private static final Metrics.Operation DELETE_BATCH = Metrics.operation("deleteStudents");
+    private static final Metrics.Operation CLEAR_ALL = Metrics.operation("clearAllStudents");
+
+    private final Path path;
+    private final int blockSize;
+    private final boolean syncWrites;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final HashMap<String, Slot> index = new HashMap<>();
+    private final HashMap<String, Integer> sequenceLimits = new HashMap<>();
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer scratch = ByteBuffer.allocate(4096);
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private int end;
+    private long liveBytes;
+    private long nextRowId = 1;
+    private boolean closed;
+
+    // Bytes of the current file below forcedTo are on disk; compaction starts a new generation
+    private final Object syncState = new Object();
+    private int forcedTo;
+    private int generation;
+
+    private final ConcurrentHashMap<String, Block> blocks = new ConcurrentHashMap<>();
+    private final LongAdder compactions = new LongAdder();
+    private ScheduledExecutorService compactor;
+
+    // Where a student's latest row is; the row id orders students by creation and survives updates
+    private static final class Slot {
+        int offset;
+        final long rowId;
+
+        Slot(int offset, long rowId) {
+            this.offset = offset;
+            this.rowId = rowId;
+        }
+    }
+
+    // ID sequence numbers reserved with one SEQUENCE record and handed out lock-free
+    private static final class Block {
+        final AtomicInteger next;
+        final int limit;
+
+        Block(int start, int limit) {
+            this.next = new AtomicInteger(start);
+            this.limit = limit;
+        }
+    }
+
+    // A range of the log captured under the write lock and forced to disk after it is released
+    private static final class PendingSync {
+        final MappedByteBuffer map;
+        final int generation;
+        final int from;
+        final int to;
+
+        PendingSync(MappedByteBuffer map, int generation, int from, int to) {
+            this.map = map;
+            this.generation = generation;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    // Sort key of one student while a page is being selected; text is the stored UTF-8
+    private static final class Key {
+        static final byte[] NO_TEXT = new byte[0];
+
+        final String id;
+        final long rowId;
+        final byte[] text;
+        final int number;
+
+        Key(String id, long rowId, byte[] text, int number) {
+            this.id = id;
+            this.rowId = rowId;
+            this.text = text;
+            this.number = number;
+        }
+    }
+
+    /**
+     * Opens the log, creating it if needed, and replays it into the index
+     * @param path Log file
+     * @param blockSize ID sequence numbers reserved per SEQUENCE record
+     * @param syncWrites Force every write to disk before returning
+     * @throws IOException if the file cannot be opened, is not a student log or is damaged before its end
+     */
+    public LogStudentRepository(Path path, int blockSize, boolean syncWrites) throws IOException {
+        this.path = path;
+        this.blockSize = Math.max(1, blockSize);
+        this.syncWrites = syncWrites;
+        Files.deleteIfExists(compactionPath());
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            open();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void open() throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException(path + " is larger than 2 GB");
+        }
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, INITIAL_MAP_BYTES));
+        if (size == 0) {
+            map.putInt(0, MAGIC);
+            map.putInt(4, FORMAT_VERSION);
+            end = FILE_HEADER;
+            map.force();
+            forcedTo = end;
+            return;
+        }
+        if (map.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a student log");
+        }
+        if (map.getInt(4) != FORMAT_VERSION && map.getInt(4) != 1) {
+            throw new IOException(path + " has unsupported format version " + map.getInt(4));
+        }
+
+        long start = System.nanoTime();
+        int records = 0;
+        int pos = FILE_HEADER;
+        CRC32C check = new CRC32C();
+        while (isRecord(pos, check)) {
+            replay(map.get(pos + 8), pos);
+            pos += RECORD_HEADER + map.getInt(pos);
+            records++;
+        }
+        end = pos;
+
+        if (hasBytesAfterEnd()) {
+            int intact = dataAfterTornRecord(check);
+            if (intact >= 0) {
+                throw new IOException("Student log " + path + " is damaged at offset " + end
+                        + " and intact data follows at offset " + intact + ", so this is not a write cut short by a crash."
+                        + " Refusing to open it rather than drop the later records: restore it from a backup, or keep"
+                        + " a copy and truncate it to " + end + " bytes to start from the " + records + " records before the damage");
+            }
+            // A write the crash cut short; clear it so new records are never read as its continuation
+            System.err.println("Student log " + path + ": discarding an incomplete record at offset " + end);
+            byte[] zeros = new byte[65536];
+            for (int p = end; p < map.capacity(); p += zeros.length) {
+                map.put(p, zeros, 0, Math.min(zeros.length, map.capacity() - p));
+            }
+            map.force();
+        }
+        forcedTo = end;
+        System.out.printf("Student log %s: %d students from %d records in %d ms%n",
+                path, index.size(), records, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // True if a whole record with a matching checksum starts at pos
+    private boolean isRecord(int pos, CRC32C check) {
+        if (pos + RECORD_HEADER > map.capacity()) {
+            return false;
+        }
+        int length = map.getInt(pos);
+        byte type = map.get(pos + 8);
+        if (type < PUT || type > ROW_ID || length < 0 || length > map.capacity() - pos - RECORD_HEADER) {
+            return false;
+        }
+        check.reset();
+        check.update(type);
+        check.update(map.slice(pos + RECORD_HEADER, length));
+        return (int) check.getValue() == map.getInt(pos + 4);
+    }
+
+    // A torn record is never longer than the largest row, which fits in three maximal strings
+    private int tornWindowEnd() {
+        return (int) Math.min(map.capacity(), (long) end + RECORD_HEADER + ROW_FIXED + 3 * (2 + MAX_STRING_BYTES));
+    }
+
+    private boolean hasBytesAfterEnd() {
+        for (int p = end; p < tornWindowEnd(); p++) {
+            if (map.get(p) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Looks past the record that stopped replay for data a single torn write
+     * cannot explain: a record that passes its checksum, or any byte beyond
+     * the longest possible record.
+     * @return Offset of that data, -1 if there is none
+     */
+    private int dataAfterTornRecord(CRC32C check) {
+        int window = tornWindowEnd();
+        for (int p = end + 1; p < window; p++) {
+            if (isRecord(p, check)) {
+                return p;
+            }
+        }
+        int p = window;
+        for (; p + 8 <= map.capacity(); p += 8) {
+            if (map.getLong(p) != 0) {
+                return p;
+            }
+        }
+        for (; p < map.capacity(); p++) {
+            if (map.get(p) != 0) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    private void replay(byte type, int pos) {
+        int p = pos + RECORD_HEADER;
+        switch (type) {
+            case PUT: {
+                long rowId = map.getLong(p);
+                putSlot(readString(p + ROW_FIXED), new Slot(pos, rowId));
+                nextRowId = Math.max(nextRowId, rowId + 1);
+                break;
+            }
+            case DELETE: {
+                int count = map.getInt(p);
+                p += 4;
+                for (int i = 0; i < count; i++) {
+                    removeSlot(readString(p));
+                    p += 2 + stringLength(p);
+                }
+                break;
+            }
+            case CLEAR:
+                index.clear();
+                sequenceLimits.clear();
+                liveBytes = 0;
+                break;
+            case SEQUENCE:
+                sequenceLimits.merge(readString(p), map.getInt(p + 2 + stringLength(p)), Math::max);
+                break;
+            case ROW_ID:
+                nextRowId = Math.max(nextRowId, map.getLong(p));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Compacts in the background whenever garbage exceeds both limits
+     * @param intervalSeconds How often to check
+     * @param minGarbageBytes Garbage below this is never worth a rewrite
+     * @param garbageRatio Garbage, as a multiple of the live data, that triggers a rewrite
+     */
+    public synchronized void startCompaction(long intervalSeconds, long minGarbageBytes, double garbageRatio) {
+        if (compactor != null || intervalSeconds <= 0) {
+            return;
+        }
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "student-log-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            long garbage = getGarbageBytes();
+            if (garbage >= minGarbageBytes && garbage > getLiveBytes() * garbageRatio) {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    System.err.println("Error compacting student log: " + e.getMessage());
+                }
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Rewrites the log with only the current row of each student, the ID
+     * sequences and the next row id (so row ids of dropped rows are never
+     * handed out again), then replaces the old file with it in one atomic rename.
+     * Writers wait meanwhile; the copy is of raw records, so it runs at memory speed.
+     * @throws IOException if the new file cannot be written (the old one stays in use)
+     */
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            List<Map.Entry<String, Slot>> live = new ArrayList<>(index.entrySet());
+            live.sort(Comparator.comparingLong(e -> e.getValue().rowId));
+            long needed = FILE_HEADER + RECORD_HEADER + 8 + liveBytes;
+            for (String prefix : sequenceLimits.keySet()) {
+                needed += RECORD_HEADER + 2 + utf8(prefix).length + 4;
+            }
+            int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(INITIAL_MAP_BYTES, needed + needed / 2));
+
+            Path target = compactionPath();
+            FileChannel next = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int[] offsets = new int[live.size()];
+            MappedByteBuffer nextMap;
+            int pos = FILE_HEADER;
+            try {
+                nextMap = next.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+                nextMap.putInt(0, MAGIC);
+                nextMap.putInt(4, FORMAT_VERSION);
+                pos = writeRecord(nextMap, pos, ROW_ID, scratch(8).putLong(nextRowId));
+                for (Map.Entry<String, Integer> e : sequenceLimits.entrySet()) {
+                    pos = writeRecord(nextMap, pos, SEQUENCE, encodeSequence(e.getKey(), e.getValue()));
+                }
+                for (int i = 0; i < offsets.length; i++) {
+                    int from = live.get(i).getValue().offset;
+                    int size = recordSize(from);
+                    nextMap.put(pos, map, from, size);
+                    offsets[i] = pos;
+                    pos += size;
+                }
+                nextMap.force();
+                try {
+                    Files.move(target, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(target, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException | RuntimeException e) {
+                next.close();
+                Files.deleteIfExists(target);
+                throw e;
+            }
+
+            channel.close();
+            channel = next;
+            map = nextMap;
+            end = pos;
+            synchronized (syncState) {
+                generation++;
+                forcedTo = end;
+            }
+            for (int i = 0; i < offsets.length; i++) {
+                live.get(i).getValue().offset = offsets[i];
+            }
+            compactions.increment();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Path compactionPath() {
+        return path.resolveSibling(path.getFileName() + ".compact");
+    }
+
+    /**
+     * Stops compaction, forces the log to disk and closes it
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (compactor != null) {
+                compactor.shutdownNow();
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            map.force();
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing student log: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String generateId(String name) {
+        String prefix = StudentIdAllocator.prefixOf(name);
+        while (true) {
+            Block block = blocks.get(prefix);
+            if (block != null) {
+                int value = block.next.getAndIncrement();
+                if (value < block.limit) {
+                    return StudentIdAllocator.format(prefix, value);
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                // Another thread may have refilled while we waited
+                if (blocks.get(prefix) == block) {
+                    checkOpen();
+                    Integer stored = sequenceLimits.get(prefix);
+                    int start = stored != null ? stored : highestStoredSequence(prefix) + 1;
+                    append(SEQUENCE, encodeSequence(prefix, start + blockSize));
+                    // Rare, and the block must be durable before any ID from it is handed out
+                    sync(pendingSync());
+                    sequenceLimits.put(prefix, start + blockSize);
+                    blocks.put(prefix, new Block(start, start + blockSize));
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not allocate student ID: " + e.getMessage(), e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // First use of a prefix: continue after any IDs already stored
+    private int highestStoredSequence(String prefix) {
+        int highest = 0;
+        for (String id : index.keySet()) {
+            if (id.startsWith(prefix)) {
+                String suffix = id.substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.length() < 10 && suffix.chars().allMatch(Character::isDigit)) {
+                    highest = Math.max(highest, Integer.parseInt(suffix));
+                }
+            }
+        }
+        return highest;
+    }
+
+    @Override
+    public String insertStudent(StudentBean bean) {
+        long start = System.nanoTime();
+        int rows = -1;
+        try {
+            boolean inserted;
+            PendingSync pending;
+            long ticket;
+            lock.writeLock().lock();
+            try {
+                checkOpen();
+                inserted = insert(bean);
+                pending = pendingSync();
+                ticket = StudentEvents.reserve();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            StudentBean stored = new StudentBean(bean);
+            syncAndPublish(pending, ticket, inserted ? () -> StudentEvents.fireInserted(stored) : null);
+            rows = inserted ? 1 : 0;
+            if (inserted) {
+                return "Student record inserted successfully with ID: " + bean.getStudentId();
+            }
+            return "Error inserting student record: student ID " + bean.getStudentId() + " already exists";
+        } catch (IOException | IllegalArgumentException e) {
+            return "Error inserting student record: " + e.getMessage();
+        } finally {
+            INSERT_ONE.record(start, rows);
+        }
+    }
+
+    @Override
+    public int[] insertStudents(List<StudentBean> beans) throws SQLException {
+        return insertStudents(beans, WRITE_CHUNK);
+    }
+
+    /**
+     * Appends students, holding the write lock for one batch at a time and
+     * forcing each batch to disk at once when syncWrites is set
+     * @throws SQLException if the log cannot be written (rows appended before the failure stay stored)
+     */
+    @Override
+    public int[] insertStudents(List<StudentBean> beans, int batchSize) throws SQLException {
+        int[] results = new int[beans.size()];
+        if (beans.isEmpty()) {
+            return results;
+        }
+        batchSize = Math.max(1, batchSize);
+        long start = System.nanoTime();
+        boolean failed = false;
+
+        try {
+            for (int from = 0; from < beans.size(); from += batchSize) {
+                int to = Math.min(beans.size(), from + batchSize);
+                IOException error = null;
+                PendingSync pending;
+                long ticket;
+                lock.writeLock().lock();
+                try {
+                    try {
+                        checkOpen();
+                        for (int i = from; i < to; i++) {
+                            try {
+                                results[i] = insert(beans.get(i)) ? 1 : 0;
+                            } catch (IllegalArgumentException e) {
+                                System.err.println("Error inserting student " + beans.get(i).getStudentId() + ": " + e.getMessage());
+                            }
+                        }
+                    } catch (IOException e) {
+                        error = e;
+                    }
+                    pending = pendingSync();
+                    ticket = StudentEvents.reserve();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                // Rows appended before a failure are stored, so they are still published
+                int batchFrom = from;
+                syncAndPublish(pending, ticket, () -> {
+                    for (int i = batchFrom; i < to; i++) {
+                        if (results[i] > 0) {
+                            StudentEvents.fireInserted(beans.get(i));
+                        }
+                    }
+                });
+                if (error != null) {
+                    throw error;
+                }
+            }
+        } catch (IOException e) {
+            failed = true;
+            throw new SQLException("Error writing student log: " + e.getMessage(), e);
+        } finally {
+            INSERT_BATCH.record(start, failed ? -1 : countOnes(results));
+        }
+        return results;
+    }
+
+    // Caller holds the write lock; false if the ID is taken
+    private boolean insert(StudentBean bean) throws IOException {
+        if (bean.getStudentId() == null || index.containsKey(bean.getStudentId())) {
+            return false;
+        }
+        long rowId = nextRowId;
+        int offset = append(PUT, encodeRow(bean, rowId));
+        nextRowId++;
+        putSlot(bean.getStudentId(), new Slot(offset, rowId));
+        return true;
+    }
+
+    @Override
+    public List<StudentBean> getAllStudents() {
+        List<StudentBean> students = new ArrayList<>();
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            scan(new StudentQuery(), s -> students.add(new StudentBean(s)));
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+            System.err.println("Error retrieving students: " + e.getMessage());
+        } finally {
+            GET_ALL.record(start, failed ? -1 : students.size());
+        }
+        return students;
+    }
+
+    /**
+     * Picks the page's students from the index under the read lock (a bounded
+     * heap when the query has a limit, a full sort otherwise) and then reads and
+     * visits them a chunk at a time, so a slow visitor never holds up writers.
+     * Students deleted or rewritten by compaction between chunks are skipped.
+     */
+    @Override
+    public int streamStudents(StudentQuery query, StudentVisitor visitor) throws SQLException, IOException {
+        long start = System.nanoTime();
+        int rows = -1;
+        try {
+            rows = scan(query, visitor);
+            return rows;
+        } finally {
+            STREAM.record(start, rows);
+        }
+    }
+
+    /**
+     * Takes the IDs and row ids under the read lock, then reads and visits the
+     * rows a chunk at a time like {@link #streamStudents}
+     */
+    @Override
+    public void scanRows(boolean versionsOnly, RowVisitor visitor) throws SQLException, IOException {
+        long start = System.nanoTime();
+        int rows = -1;
+        try {
+            String[] ids;
+            long[] rowIds;
+            lock.readLock().lock();
+            try {
+                checkOpen();
+                ids = new String[index.size()];
+                rowIds = new long[ids.length];
+                int i = 0;
+                for (Map.Entry<String, Slot> e : index.entrySet()) {
+                    ids[i] = e.getKey();
+                    rowIds[i++] = e.getValue().rowId;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            rows = visitRows(ids, rowIds, versionsOnly, visitor);
+        } finally {
+            SCAN.record(start, rows);
+        }
+    }
+
+    @Override
+    public void readRows(Collection<String> studentIds, RowVisitor visitor) throws SQLException, IOException {
+        long start = System.nanoTime();
+        int rows = -1;
+        try {
+            String[] ids = new String[studentIds.size()];
+            long[] rowIds = new long[ids.length];
+            int found = 0;
+            lock.readLock().lock();
+            try {
+                checkOpen();
+                for (String id : studentIds) {
+                    Slot slot = index.get(id);
+                    if (slot != null) {
+                        ids[found] = id;
+                        rowIds[found++] = slot.rowId;
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            rows = visitRows(Arrays.copyOf(ids, found), Arrays.copyOf(rowIds, found), false, visitor);
+        } finally {
+            READ_ROWS.record(start, rows);
+        }
+    }
+
+    // Visits the rows still stored under the same row id, holding the read lock one chunk at a time
+    private int visitRows(String[] ids, long[] rowIds, boolean versionsOnly, RowVisitor visitor) throws IOException {
+        StudentBean[] chunk = new StudentBean[Math.min(READ_CHUNK, ids.length)];
+        for (int i = 0; i < chunk.length; i++) {
+            chunk[i] = new StudentBean();
+        }
+        int visited = 0;
+        for (int from = 0; from < ids.length; from += READ_CHUNK) {
+            int to = Math.min(ids.length, from + READ_CHUNK);
+            boolean[] present = new boolean[to - from];
+            lock.readLock().lock();
+            try {
+                checkOpen();
+                for (int i = from; i < to; i++) {
+                    Slot slot = index.get(ids[i]);
+                    if (slot == null || slot.rowId != rowIds[i]) {
+                        continue;
+                    }
+                    StudentBean row = chunk[i - from];
+                    if (versionsOnly) {
+                        row.setStudentId(ids[i]);
+                        row.setVersion(map.getInt(slot.offset + RECORD_HEADER + 8));
+                    } else {
+                        read(slot.offset, row);
+                    }
+                    present[i - from] = true;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            for (int i = from; i < to; i++) {
+                if (present[i - from]) {
+                    visitor.visit(rowIds[i], chunk[i - from]);
+                    visited++;
+                }
+            }
+        }
+        return visited;
+    }
+
+    private int scan(StudentQuery query, StudentVisitor visitor) throws IOException {
+        StudentQuery.SortField sort = query.getSort();
+        Comparator<Key> order = keyOrder(sort, query.isDescending());
+        int direction = query.isDescending() ? -1 : 1;
+        Key after = null;
+        if (query.hasCursor()) {
+            after = sort.isNumeric()
+                    ? new Key(null, query.getAfterId(), null, query.getAfterNumber())
+                    : new Key(null, query.getAfterId(), query.getAfterValue().getBytes(StandardCharsets.UTF_8), 0);
+        }
+        byte[] grade = query.getGrade() == null || query.getGrade().isEmpty()
+                ? null : query.getGrade().getBytes(StandardCharsets.UTF_8);
+        String idPrefix = query.getIdPrefix() == null || query.getIdPrefix().isEmpty() ? null : query.getIdPrefix();
+        int limit = query.getLimit();
+        query.clearNextCursor();
+
+        // One extra key tells us whether there is a next page. Entries are compared in
+        // place against the cursor and the worst kept key; only survivors get a Key.
+        PriorityQueue<Key> best = limit > 0 ? new PriorityQueue<>(limit + 2, order.reversed()) : null;
+        List<Key> keys = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            for (Map.Entry<String, Slot> e : index.entrySet()) {
+                String id = e.getKey();
+                long rowId = e.getValue().rowId;
+                int p = e.getValue().offset + RECORD_HEADER;
+                if (idPrefix != null && !id.startsWith(idPrefix)) {
+                    continue;
+                }
+                if (grade != null && compareString(gradeOffset(p), grade) != 0) {
+                    continue;
+                }
+                if (after != null && direction * compareEntry(sort, p, rowId, after) <= 0) {
+                    continue;
+                }
+                if (best != null && best.size() > limit) {
+                    if (direction * compareEntry(sort, p, rowId, best.peek()) >= 0) {
+                        continue;
+                    }
+                    best.poll();
+                }
+                Key key = key(sort, id, rowId, p);
+                if (best == null) {
+                    keys.add(key);
+                } else {
+                    best.add(key);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (best != null) {
+            keys.addAll(best);
+        }
+        keys.sort(order);
+
+        int count = limit > 0 ? Math.min(limit, keys.size()) : keys.size();
+        StudentBean[] chunk = new StudentBean[Math.min(READ_CHUNK, count)];
+        for (int i = 0; i < chunk.length; i++) {
+            chunk[i] = new StudentBean();
+        }
+        int visited = 0;
+        for (int from = 0; from < count; from += READ_CHUNK) {
+            int to = Math.min(count, from + READ_CHUNK);
+            boolean[] present = new boolean[to - from];
+            lock.readLock().lock();
+            try {
+                checkOpen();
+                for (int i = from; i < to; i++) {
+                    Slot slot = index.get(keys.get(i).id);
+                    if (slot != null && slot.rowId == keys.get(i).rowId) {
+                        read(slot.offset, chunk[i - from]);
+                        present[i - from] = true;
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            for (int i = from; i < to; i++) {
+                if (present[i - from]) {
+                    visitor.visit(chunk[i - from]);
+                    visited++;
+                }
+            }
+        }
+        if (limit > 0 && keys.size() > limit) {
+            Key last = keys.get(limit - 1);
+            query.setNextCursor(sort.isNumeric()
+                    ? String.valueOf(last.number) : new String(last.text, StandardCharsets.UTF_8), last.rowId);
+        }
+        return visited;
+    }
+
+    // Ascending by sort value then row id, or the reverse; CREATED sorts by row id alone.
+    // Text compares as unsigned UTF-8 bytes, the order SQLite's BINARY collation uses.
+    private static Comparator<Key> keyOrder(StudentQuery.SortField sort, boolean descending) {
+        Comparator<Key> order;
+        if (sort == StudentQuery.SortField.CREATED) {
+            order = Comparator.comparingLong(k -> k.rowId);
+        } else if (sort.isNumeric()) {
+            order = Comparator.<Key>comparingInt(k -> k.number).thenComparingLong(k -> k.rowId);
+        } else {
+            order = Comparator.<Key, byte[]>comparing(k -> k.text, Arrays::compareUnsigned).thenComparingLong(k -> k.rowId);
+        }
+        return descending ? order.reversed() : order;
+    }
+
+    private Key key(StudentQuery.SortField sort, String id, long rowId, int p) {
+        switch (sort) {
+            case TOTAL: return new Key(id, rowId, null, map.getInt(p + 32));
+            case AVERAGE: return new Key(id, rowId, null, map.getInt(p + 36));
+            case CREATED: return new Key(id, rowId, Key.NO_TEXT, 0);
+            default:
+                int at = textOffset(sort, p);
+                byte[] text = new byte[stringLength(at)];
+                map.get(at + 2, text);
+                return new Key(id, rowId, text, 0);
+        }
+    }
+
+    // Ascending comparison of the mapped entry at p with a key, without building one
+    private int compareEntry(StudentQuery.SortField sort, int p, long rowId, Key key) {
+        int c;
+        switch (sort) {
+            case TOTAL: c = Integer.compare(map.getInt(p + 32), key.number); break;
+            case AVERAGE: c = Integer.compare(map.getInt(p + 36), key.number); break;
+            case CREATED: c = 0; break;
+            default: c = compareString(textOffset(sort, p), key.text);
+        }
+        return c != 0 ? c : Long.compare(rowId, key.rowId);
+    }
+
+    // p is the start of a PUT payload; sort is one of the text sorts
+    private int textOffset(StudentQuery.SortField sort, int p) {
+        int at = p + ROW_FIXED;
+        switch (sort) {
+            case NAME: return at + 2 + stringLength(at);
+            case GRADE: return gradeOffset(p);
+            default: return at;
+        }
+    }
+
+    // Signum of the stored string at `at` against UTF-8 bytes, in unsigned byte order
+    private int compareString(int at, byte[] bytes) {
+        int length = stringLength(at);
+        int n = Math.min(length, bytes.length);
+        for (int i = 0; i < n; i++) {
+            int c = Integer.compare(map.get(at + 2 + i) & 0xFF, bytes[i] & 0xFF);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(length, bytes.length);
+    }
+
+    @Override
+    public StudentBean getStudentById(String studentId) {
+        long start = System.nanoTime();
+        int rows = -1;
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            Slot slot = index.get(studentId);
+            rows = slot != null ? 1 : 0;
+            return slot != null ? read(slot.offset, new StudentBean()) : null;
+        } catch (IOException e) {
+            System.err.println("Error retrieving student: " + e.getMessage());
+            return null;
+        } finally {
+            lock.readLock().unlock();
+            GET_BY_ID.record(start, rows);
+        }
+    }
+
+    @Override
+    public int getStudentCount() {
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+            COUNT.record(start, 1);
+        }
+    }
+
+    @Override
+    public boolean updateStudent(StudentBean bean) throws ConcurrentUpdateException, SQLException {
+        long start = System.nanoTime();
+        int rows = -1;
+        try {
+            StudentBean before;
+            StudentBean after;
+            PendingSync pending;
+            long ticket;
+            lock.writeLock().lock();
+            try {
+                checkOpen();
+                rows = 0; // Missing rows and version conflicts are answers, not failures
+                Slot slot = index.get(bean.getStudentId());
+                if (slot == null) {
+                    return false;
+                }
+                before = read(slot.offset, new StudentBean());
+                if (before.getVersion() != bean.getVersion()) {
+                    throw new ConcurrentUpdateException(bean.getStudentId());
+                }
+                after = new StudentBean(bean);
+                after.setVersion(bean.getVersion() + 1);
+                replace(slot, after);
+                pending = pendingSync();
+                ticket = StudentEvents.reserve();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            bean.setVersion(after.getVersion());
+            syncAndPublish(pending, ticket, () -> StudentEvents.fireUpdated(before, after));
+            rows = 1;
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            rows = -1;
+            throw new SQLException("Error writing student log: " + e.getMessage(), e);
+        } finally {
+            UPDATE.record(start, rows);
+        }
+    }
+
+    @Override
+    public int[] updateGrades(List<StudentBean> beans) throws SQLException {
+        int[] results = new int[beans.size()];
+        long start = System.nanoTime();
+        boolean failed = true;
+
+        try {
+            for (int from = 0; from < beans.size(); from += WRITE_CHUNK) {
+                int to = Math.min(beans.size(), from + WRITE_CHUNK);
+                List<StudentBean[]> changes = new ArrayList<>();
+                IOException error = null;
+                PendingSync pending;
+                long ticket;
+                lock.writeLock().lock();
+                try {
+                    try {
+                        checkOpen();
+                        for (int i = from; i < to; i++) {
+                            StudentBean bean = beans.get(i);
+                            Slot slot = index.get(bean.getStudentId());
+                            if (slot == null) {
+                                continue;
+                            }
+                            StudentBean old = read(slot.offset, new StudentBean());
+                            if (old.getVersion() != bean.getVersion()) {
+                                continue;
+                            }
+                            StudentBean after = new StudentBean(old);
+                            after.setTotal(bean.getTotal());
+                            after.setAverage(bean.getAverage());
+                            after.setGrade(bean.getGrade());
+                            after.setVersion(old.getVersion() + 1);
+                            replace(slot, after);
+                            bean.setVersion(after.getVersion());
+                            results[i] = 1;
+                            changes.add(new StudentBean[] { old, after });
+                        }
+                    } catch (IOException e) {
+                        error = e;
+                    }
+                    pending = pendingSync();
+                    ticket = StudentEvents.reserve();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                syncAndPublish(pending, ticket, () -> {
+                    for (StudentBean[] change : changes) {
+                        StudentEvents.fireUpdated(change[0], change[1]);
+                    }
+                });
+                if (error != null) {
+                    throw error;
+                }
+            }
+            failed = false;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SQLException("Error writing student log: " + e.getMessage(), e);
+        } finally {
+            UPDATE_GRADES.record(start, failed ? -1 : countOnes(results));
+        }
+        return results;
+    }
+
+    // Caller holds the write lock
+    private void replace(Slot slot, StudentBean after) throws IOException {
+        int size = recordSize(slot.offset);
+        slot.offset = append(PUT, encodeRow(after, slot.rowId));
+        liveBytes += recordSize(slot.offset) - size;
+    }
+
+    @Override
+    public String deleteStudent(String studentId) {
+        long start = System.nanoTime();
+        int rows = -1;
+        try {
+            StudentBean existing;
+            PendingSync pending;
+            long ticket;
+            lock.writeLock().lock();
+            try {
+                checkOpen();
+                Slot slot = index.get(studentId);
+                existing = slot != null ? read(slot.offset, new StudentBean()) : null;
+                if (existing != null) {
+                    append(DELETE, encodeDelete(List.of(studentId)));
+                    removeSlot(studentId);
+                }
+                pending = pendingSync();
+                ticket = StudentEvents.reserve();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            syncAndPublish(pending, ticket, existing != null ? () -> StudentEvents.fireDeleted(existing) : null);
+            rows = existing != null ? 1 : 0;
+            if (existing != null) {
+                return "Student with ID " + studentId + " deleted successfully";
+            }
+            return "Student with ID " + studentId + " not found";
+        } catch (IOException | IllegalArgumentException e) {
+            return "Error deleting student: " + e.getMessage();
+        } finally {
+            DELETE_ONE.record(start, rows);
+        }
+    }
+
+    /**
+     * Deletes with a single DELETE record, so after a crash either all or none of the students are gone
+     */
+    @Override
+    public Map<String, Boolean> deleteStudents(Collection<String> studentIds) throws SQLException {
+        Map<String, Boolean> outcomes = new LinkedHashMap<>();
+        for (String id : studentIds) {
+            outcomes.put(id, Boolean.FALSE);
+        }
+        if (outcomes.isEmpty()) {
+            return outcomes;
+        }
+
+        List<StudentBean> deleted = new ArrayList<>();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            PendingSync pending;
+            long ticket;
+            lock.writeLock().lock();
+            try {
+                checkOpen();
+                List<String> existing = new ArrayList<>();
+                for (String id : outcomes.keySet()) {
+                    Slot slot = index.get(id);
+                    if (slot != null) {
+                        existing.add(id);
+                        deleted.add(read(slot.offset, new StudentBean()));
+                    }
+                }
+                if (!existing.isEmpty()) {
+                    append(DELETE, encodeDelete(existing));
+                    for (String id : existing) {
+                        removeSlot(id);
+                    }
+                }
+                pending = pendingSync();
+                ticket = StudentEvents.reserve();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            syncAndPublish(pending, ticket, () -> {
+                for (StudentBean student : deleted) {
+                    StudentEvents.fireDeleted(student);
+                }
+            });
+            for (StudentBean student : deleted) {
+                outcomes.put(student.getStudentId(), Boolean.TRUE);
+            }
+            failed = false;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SQLException("Error writing student log: " + e.getMessage(), e);
+        } finally {
+            DELETE_BATCH.record(start, failed ? -1 : deleted.size());
+        }
+        return outcomes;
+    }
+
+    @Override
+    public String clearAllStudents() {
+        long start = System.nanoTime();
+        int rows = -1;
+        try {
+            PendingSync pending;
+            long ticket;
+            lock.writeLock().lock();
+            try {
+                checkOpen();
+                append(CLEAR, scratch(0));
+                rows = index.size();
+                index.clear();
+                sequenceLimits.clear();
+                blocks.clear();
+                liveBytes = 0;
+                pending = pendingSync();
+                ticket = StudentEvents.reserve();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            syncAndPublish(pending, ticket, StudentEvents::fireCleared);
+            return rows + " student records deleted successfully";
+        } catch (IOException e) {
+            rows = -1;
+            return "Error clearing students: " + e.getMessage();
+        } finally {
+            CLEAR_ALL.record(start, rows);
+        }
+    }
+
+    /**
+     * @return Bytes of the log in use, live rows and garbage
+     */
+    public long getLogBytes() {
+        lock.readLock().lock();
+        try {
+            return end;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Bytes of the current row of every student
+     */
+    public long getLiveBytes() {
+        lock.readLock().lock();
+        try {
+            return liveBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Bytes the next compaction would reclaim
+     */
+    public long getGarbageBytes() {
+        lock.readLock().lock();
+        try {
+            return end - FILE_HEADER - liveBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Compactions completed since the log was opened. */
+    public long getCompactionCount() {
+        return compactions.sum();
+    }
+
+    // --- Index upkeep; callers hold the write lock (or are replaying) ---
+
+    private void putSlot(String id, Slot slot) {
+        Slot old = index.put(id, slot);
+        if (old != null) {
+            liveBytes -= recordSize(old.offset);
+        }
+        liveBytes += recordSize(slot.offset);
+    }
+
+    private void removeSlot(String id) {
+        Slot old = index.remove(id);
+        if (old != null) {
+            liveBytes -= recordSize(old.offset);
+        }
+    }
+
+    // --- Record encoding ---
+
+    private ByteBuffer encodeRow(StudentBean bean, long rowId) {
+        byte[] id = utf8(required(bean.getStudentId(), "student ID"));
+        byte[] name = utf8(required(bean.getName(), "name"));
+        byte[] grade = utf8(required(bean.getGrade(), "grade"));
+        ByteBuffer b = scratch(ROW_FIXED + 6 + id.length + name.length + grade.length);
+        b.putLong(rowId).putInt(bean.getVersion())
+         .putInt(bean.getMark1()).putInt(bean.getMark2()).putInt(bean.getMark3())
+         .putInt(bean.getMark4()).putInt(bean.getMark5())
+         .putInt(bean.getTotal()).putInt(bean.getAverage());
+        putString(b, id);
+        putString(b, name);
+        putString(b, grade);
+        return b;
+    }
+
+    private ByteBuffer encodeDelete(List<String> ids) {
+        List<byte[]> encoded = new ArrayList<>(ids.size());
+        int size = 4;
+        for (String id : ids) {
+            byte[] bytes = utf8(id);
+            encoded.add(bytes);
+            size += 2 + bytes.length;
+        }
+        ByteBuffer b = scratch(size);
+        b.putInt(encoded.size());
+        for (byte[] bytes : encoded) {
+            putString(b, bytes);
+        }
+        return b;
+    }
+
+    private ByteBuffer encodeSequence(String prefix, int limit) {
+        byte[] bytes = utf8(prefix);
+        ByteBuffer b = scratch(2 + bytes.length + 4);
+        putString(b, bytes);
+        b.putInt(limit);
+        return b;
+    }
+
+    private static String required(String value, String field) {
+        if (value == null) {
+            throw new IllegalArgumentException("Student " + field + " is required");
+        }
+        return value;
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Value longer than " + MAX_STRING_BYTES + " bytes");
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer b, byte[] bytes) {
+        b.putShort((short) bytes.length).put(bytes);
+    }
+
+    // The shared encode buffer, cleared and at least size bytes long; caller holds the write lock
+    private ByteBuffer scratch(int size) {
+        if (scratch.capacity() < size) {
+            scratch = ByteBuffer.allocate(Math.max(size, scratch.capacity() * 2));
+        }
+        scratch.clear();
+        return scratch;
+    }
+
+    // --- Log access ---
+
+    // Caller holds the write lock; returns the record's offset
+    private int append(byte type, ByteBuffer payload) throws IOException {
+        int size = RECORD_HEADER + payload.position();
+        if ((long) end + size > map.capacity()) {
+            grow(size);
+        }
+        int at = end;
+        end = writeRecord(map, at, type, payload);
+        return at;
+    }
+
+    private int writeRecord(MappedByteBuffer target, int at, byte type, ByteBuffer payload) {
+        int length = payload.position();
+        crc.reset();
+        crc.update(type);
+        crc.update(payload.array(), 0, length);
+        target.put(at + RECORD_HEADER, payload.array(), 0, length);
+        target.put(at + 8, type);
+        target.putInt(at + 4, (int) crc.getValue());
+        // Length last: until it is written, replay sees the end of the log here
+        target.putInt(at, length);
+        return at + RECORD_HEADER + length;
+    }
+
+    private void grow(int size) throws IOException {
+        long needed = (long) end + size;
+        if (needed > Integer.MAX_VALUE) {
+            throw new IOException("Student log is full (2 GB); compact it or move to the jdbc engine");
+        }
+        long capacity = Math.min(Integer.MAX_VALUE, Math.max(needed, (long) map.capacity() * 2));
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    // Caller holds the write lock; null if syncWrites is off or everything is on disk already
+    private PendingSync pendingSync() {
+        if (!syncWrites) {
+            return null;
+        }
+        synchronized (syncState) {
+            // From forcedTo, not from this write's start: an earlier write may still be forcing its bytes
+            return end > forcedTo ? new PendingSync(map, generation, forcedTo, end) : null;
+        }
+    }
+
+    private void sync(PendingSync pending) throws IOException {
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.map.force(pending.from, pending.to - pending.from);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        synchronized (syncState) {
+            if (pending.generation == generation) {
+                forcedTo = Math.max(forcedTo, pending.to);
+            }
+        }
+    }
+
+    /**
+     * Forces a write to disk and then publishes its events once every earlier
+     * write has published. Called with no lock held. The bytes are already in
+     * the index, so the events are published even if the force fails.
+     */
+    private void syncAndPublish(PendingSync pending, long ticket, Runnable events) throws IOException {
+        try {
+            sync(pending);
+        } finally {
+            StudentEvents.publish(ticket, events);
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Student log " + path + " is closed");
+        }
+    }
+
+    private int recordSize(int offset) {
+        return RECORD_HEADER + map.getInt(offset);
+    }
+
+    private int stringLength(int at) {
+        return map.getShort(at) & 0xFFFF;
+    }
+
+    private String readString(int at) {
+        byte[] bytes = new byte[stringLength(at)];
+        map.get(at + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // p is the start of a PUT payload
+    private int gradeOffset(int p) {
+        int at = p + ROW_FIXED;
+        at += 2 + stringLength(at);
+        return at + 2 + stringLength(at);
+    }
+
+    private StudentBean read(int offset, StudentBean bean) {
+        int p = offset + RECORD_HEADER;
+        bean.setVersion(map.getInt(p + 8));
+        bean.setMark1(map.getInt(p + 12));
+        bean.setMark2(map.getInt(p + 16));
+        bean.setMark3(map.getInt(p + 20));
+        bean.setMark4(map.getInt(p + 24));
+        bean.setMark5(map.getInt(p + 28));
+        bean.setTotal(map.getInt(p + 32));
+        bean.setAverage(map.getInt(p + 36));
+        int at = p + ROW_FIXED;
+        bean.setStudentId(readString(at));
+        at += 2 + stringLength(at);
+        bean.setName(readString(at));
+        at += 2 + stringLength(at);
+        bean.setGrade(readString(at));
+        return bean;
+    }
+
+    private static int countOnes(int[] results) {
+        int n = 0;
+        for (int r : results) {
+            n += r;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,141 @@
+package com.wipro.studentgrade.dao;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of students by ID with a time-to-live, used by
+ * {@link StudentDAO#getStudentById}.
+ *
+ * Entries are invalidated from the DAO's change events. A lookup that misses
+ * remembers the invalidation generation before it queries the database and
+ * its result is only cached if no write has been published since, so a slow
+ * read can never put back a value that a concurrent write already replaced.
+ */
+public class StudentCache implements StudentChangeListener {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    private static final class Entry {
+        final StudentBean student;
+        final long expiresAt;
+
+        Entry(StudentBean student, long expiresAt) {
+            this.student = student;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public StudentCache(int maxSize, long ttlSeconds) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.entries = new LinkedHashMap<String, Entry>(Math.min(this.maxSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > StudentCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param studentId Student ID
+     * @return Copy of the cached student, or null on a miss
+     */
+    public StudentBean get(String studentId) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(studentId);
+            if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.expiresAt > 0) {
+                entries.remove(studentId);
+                expirations.increment();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new StudentBean(entry.student);
+    }
+
+    /**
+     * @return Token to pass to {@link #put} after loading a missed entry
+     */
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a loaded student unless a write was published after the load started
+     * @param student Student read from the database
+     * @param loadGeneration Value of {@link #currentGeneration()} taken before the read
+     */
+    public void put(StudentBean student, long loadGeneration) {
+        StudentBean copy = new StudentBean(student);
+        synchronized (this) {
+            if (generation.get() != loadGeneration) {
+                return;
+            }
+            entries.put(copy.getStudentId(), new Entry(copy, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    public synchronized void invalidate(String studentId) {
+        generation.incrementAndGet();
+        entries.remove(studentId);
+    }
+
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    @Override
+    public void studentInserted(StudentBean student) {
+        invalidate(student.getStudentId());
+    }
+
+    @Override
+    public void studentUpdated(StudentBean before, StudentBean after) {
+        invalidate(before.getStudentId());
+        invalidate(after.getStudentId());
+    }
+
+    @Override
+    public void studentDeleted(StudentBean student) {
+        invalidate(student.getStudentId());
+    }
+
+    @Override
+    public void studentsCleared() {
+        invalidateAll();
+    }
+
+    public synchronized int size() { return entries.size(); }
+    public int getMaxSize() { return maxSize; }
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+    public long getExpirations() { return expirations.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("StudentCache[size=%d/%d, hits=%d, misses=%d, evictions=%d, expirations=%d]",
+                size(), maxSize, getHits(), getMisses(), getEvictions(), getExpirations());
+    }
+}
@@ -0,0 +1,22 @@
+package com.wipro.studentgrade.dao;
+
+import com.wipro.studentgrade.bean.StudentBean;
+
+/**
+ * Notified after a student write has been committed.
+ *
+ * Callbacks run on the writing thread, in commit order, while later commits
+ * wait to publish, so implementations must be quick and must not call back
+ * into the DAO.
+ * The beans passed in are private copies and may be kept.
+ */
+public interface StudentChangeListener {
+
+    void studentInserted(StudentBean student);
+
+    void studentUpdated(StudentBean before, StudentBean after);
+
+    void studentDeleted(StudentBean student);
+
+    void studentsCleared();
+}
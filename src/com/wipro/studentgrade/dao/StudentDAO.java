@@ -1,43 +1,90 @@
 package com.wipro.studentgrade.dao;
 
 import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.util.ConcurrentUpdateException;
 import com.wipro.studentgrade.util.DatabaseUtil;
+import com.wipro.studentgrade.util.Metrics;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
-public class StudentDAO {
-    private static Map<String, Integer> nameSequenceMap = new HashMap<>();
+/**
+ * JDBC implementation of {@link StudentRepository}, storing students in the
+ * database configured in db.properties.
+ */
+public class StudentDAO implements StudentRepository {
+    private static final StudentIdAllocator ID_ALLOCATOR =
+            new StudentIdAllocator(Integer.parseInt(DatabaseUtil.getProperty("id.blockSize", "20")));
+    private static final int DEFAULT_BATCH_SIZE = Integer.parseInt(DatabaseUtil.getProperty("jdbc.batchSize", "500"));
+    private static final StudentCache CACHE = createCache();
+    // IDs per ... WHERE student_id IN (...) statement
+    private static final int ID_CHUNK_SIZE = 500;
+    private static final String INSERT_SQL = """
+            INSERT INTO students (student_id, name, mark1, mark2, mark3, mark4, mark5, total, average, grade)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    
+    // Timing and row counts per method; a row count of -1 records a failure
+    private static final Metrics.Operation INSERT_ONE = Metrics.operation("insertStudent");
+    private static final Metrics.Operation INSERT_BATCH = Metrics.operation("insertStudents");
+    private static final Metrics.Operation GET_ALL = Metrics.operation("getAllStudents");
+    private static final Metrics.Operation STREAM = Metrics.operation("streamStudents");
+    private static final Metrics.Operation SCAN = Metrics.operation("scanRows");
+    private static final Metrics.Operation READ_ROWS = Metrics.operation("readRows");
+    private static final Metrics.Operation GET_BY_ID = Metrics.operation("getStudentById");
+    private static final Metrics.Operation COUNT = Metrics.operation("getStudentCount");
+    private static final Metrics.Operation UPDATE = Metrics.operation("updateStudent");
+    private static final Metrics.Operation UPDATE_GRADES = Metrics.operation("updateGrades");
+    private static final Metrics.Operation DELETE = Metrics.operation("deleteStudent");
+    private static final Metrics.Operation DELETE_BATCH = Metrics.operation("deleteStudents");
+    private static final Metrics.Operation CLEAR = Metrics.operation("clearAllStudents");
+    
+    private static StudentCache createCache() {
+        if (!Boolean.parseBoolean(DatabaseUtil.getProperty("cache.enabled", "true"))) {
+            return null;
+        }
+        StudentCache cache = new StudentCache(
+            Integer.parseInt(DatabaseUtil.getProperty("cache.maxSize", "10000")),
+            Long.parseLong(DatabaseUtil.getProperty("cache.ttlSeconds", "300")));
+        StudentEvents.addListener(cache);
+        return cache;
+    }
     
     /**
-     * Generates student ID using name initials and sequence
+     * @return The student lookup cache, or null when cache.enabled=false
+     */
+    public static StudentCache getCache() {
+        return CACHE;
+    }
+    
+    /**
+     * Generates student ID using name initials and a persistent per-initials sequence
      * @param name Student name
      * @return Generated student ID
      */
+    @Override
     public String generateId(String name) {
-        if (name == null || name.trim().isEmpty()) {
-            return "STU001";
-        }
-        
-        String[] nameParts = name.trim().split("\\s+");
-        StringBuilder initials = new StringBuilder();
-        
-        for (String part : nameParts) {
-            if (!part.isEmpty()) {
-                initials.append(part.charAt(0));
-            }
+        String prefix = StudentIdAllocator.prefixOf(name);
+        try {
+            return StudentIdAllocator.format(prefix, ID_ALLOCATOR.next(prefix));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not allocate student ID: " + e.getMessage(), e);
         }
-        
-        String baseId = initials.toString().toUpperCase();
-        int sequence = nameSequenceMap.getOrDefault(baseId, 0) + 1;
-        nameSequenceMap.put(baseId, sequence);
-        
-        return String.format("%s%03d", baseId, sequence);
     }
     
     /**
@@ -45,27 +92,27 @@ public class StudentDAO {
      * @param bean StudentBean object containing student data
      * @return Result message
      */
+    @Override
     public String insertStudent(StudentBean bean) {
-        String sql = """
-            INSERT INTO students (student_id, name, mark1, mark2, mark3, mark4, mark5, total, average, grade)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-            """;
-        
+        long start = System.nanoTime();
+        int rows = -1;
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
             
-            pstmt.setString(1, bean.getStudentId());
-            pstmt.setString(2, bean.getName());
-            pstmt.setInt(3, bean.getMark1());
-            pstmt.setInt(4, bean.getMark2());
-            pstmt.setInt(5, bean.getMark3());
-            pstmt.setInt(6, bean.getMark4());
-            pstmt.setInt(7, bean.getMark5());
-            pstmt.setInt(8, bean.getTotal());
-            pstmt.setInt(9, bean.getAverage());
-            pstmt.setString(10, bean.getGrade());
+            bindInsert(pstmt, bean);
             
-            int rowsAffected = pstmt.executeUpdate();
+            // An explicit transaction, so the event is sequenced while the row is still locked
+            conn.setAutoCommit(false);
+            int rowsAffected;
+            try {
+                rowsAffected = pstmt.executeUpdate();
+                StudentBean inserted = new StudentBean(bean);
+                commitAndPublish(conn, rowsAffected > 0 ? () -> StudentEvents.fireInserted(inserted) : null);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            rows = rowsAffected;
             
             if (rowsAffected > 0) {
                 return "Student record inserted successfully with ID: " + bean.getStudentId();
@@ -75,127 +122,740 @@ public class StudentDAO {
             
         } catch (SQLException e) {
             return "Error inserting student record: " + e.getMessage();
+        } finally {
+            INSERT_ONE.record(start, rows);
         }
     }
     
+    /**
+     * @return Rows per batch configured with jdbc.batchSize
+     */
+    public static int getDefaultBatchSize() {
+        return DEFAULT_BATCH_SIZE;
+    }
+    
+    /**
+     * Inserts student records using JDBC batches of the configured jdbc.batchSize
+     * @param beans Students to insert, with ID, total, average and grade already set
+     * @return Per-row result: 1 if the row was inserted, 0 if it was rejected
+     */
+    @Override
+    public int[] insertStudents(List<StudentBean> beans) throws SQLException {
+        return insertStudents(beans, DEFAULT_BATCH_SIZE);
+    }
+    
+    /**
+     * Inserts student records using JDBC batching, committing each batch as one transaction.
+     * If a batch fails it is rolled back and retried row by row so only the bad rows are rejected.
+     * @param beans Students to insert, with ID, total, average and grade already set
+     * @param batchSize Rows per batch and per transaction
+     * @return Per-row result: 1 if the row was inserted, 0 if it was rejected
+     * @throws SQLException if the connection, a rollback or a commit fails (earlier batches stay committed)
+     */
+    @Override
+    public int[] insertStudents(List<StudentBean> beans, int batchSize) throws SQLException {
+        int[] results = new int[beans.size()];
+        if (beans.isEmpty()) {
+            return results;
+        }
+        batchSize = Math.max(1, batchSize);
+        long start = System.nanoTime();
+        boolean failed = false;
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+            
+            conn.setAutoCommit(false);
+            for (int from = 0; from < beans.size(); from += batchSize) {
+                int to = Math.min(beans.size(), from + batchSize);
+                boolean batched;
+                try {
+                    for (int i = from; i < to; i++) {
+                        bindInsert(pstmt, beans.get(i));
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                    batched = true;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    pstmt.clearBatch();
+                    batched = false;
+                }
+                if (batched) {
+                    Arrays.fill(results, from, to, 1);
+                } else {
+                    insertRowByRow(pstmt, beans, from, to, results);
+                }
+                try {
+                    commitAndPublishInserts(conn, beans, from, to, results);
+                } catch (SQLException e) {
+                    // Nothing of this batch was stored
+                    Arrays.fill(results, from, to, 0);
+                    throw e;
+                }
+            }
+            
+        } catch (SQLException e) {
+            failed = true;
+            throw e;
+        } finally {
+            INSERT_BATCH.record(start, failed ? -1 : countOnes(results));
+        }
+        
+        return results;
+    }
+    
+    // Rows that fail here are rejected and the caller commits the rest; a lost connection is thrown
+    private static void insertRowByRow(PreparedStatement pstmt, List<StudentBean> beans,
+                                       int from, int to, int[] results) throws SQLException {
+        for (int i = from; i < to; i++) {
+            try {
+                bindInsert(pstmt, beans.get(i));
+                results[i] = pstmt.executeUpdate() > 0 ? 1 : 0;
+            } catch (SQLException e) {
+                if (isConnectionFailure(e)) {
+                    Arrays.fill(results, from, to, 0);
+                    throw e;
+                }
+                results[i] = 0;
+                System.err.println("Error inserting student " + beans.get(i).getStudentId() + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    // SQLState class 08 is "connection exception"
+    private static boolean isConnectionFailure(SQLException e) {
+        return e instanceof SQLRecoverableException
+                || e instanceof SQLTransientConnectionException
+                || e instanceof SQLNonTransientConnectionException
+                || e.getSQLState() != null && e.getSQLState().startsWith("08");
+    }
+    
+    private static void commitAndPublishInserts(Connection conn, List<StudentBean> beans,
+                                                int from, int to, int[] results) throws SQLException {
+        commitAndPublish(conn, () -> {
+            for (int i = from; i < to; i++) {
+                if (results[i] > 0) {
+                    StudentEvents.fireInserted(beans.get(i));
+                }
+            }
+        });
+    }
+    
+    /**
+     * Commits and then publishes the transaction's change events in commit order.
+     * Call it after the transaction's statements have run: their row locks make
+     * the ticket order match the order in which the database applies the commits.
+     * No shared lock is held during the commit itself.
+     * @param events Calls to the StudentEvents fire methods, or null if there are none
+     */
+    private static void commitAndPublish(Connection conn, Runnable events) throws SQLException {
+        long ticket = StudentEvents.reserve();
+        boolean committed = false;
+        try {
+            conn.commit();
+            committed = true;
+        } finally {
+            StudentEvents.publish(ticket, committed ? events : null);
+        }
+    }
+    
+    private static void bindInsert(PreparedStatement pstmt, StudentBean bean) throws SQLException {
+        pstmt.setString(1, bean.getStudentId());
+        pstmt.setString(2, bean.getName());
+        pstmt.setInt(3, bean.getMark1());
+        pstmt.setInt(4, bean.getMark2());
+        pstmt.setInt(5, bean.getMark3());
+        pstmt.setInt(6, bean.getMark4());
+        pstmt.setInt(7, bean.getMark5());
+        pstmt.setInt(8, bean.getTotal());
+        pstmt.setInt(9, bean.getAverage());
+        pstmt.setString(10, bean.getGrade());
+    }
+    
     /**
      * Retrieves all stored student records from database
      * @return List of all student records
      */
+    @Override
     public List<StudentBean> getAllStudents() {
         List<StudentBean> students = new ArrayList<>();
         String sql = "SELECT * FROM students ORDER BY created_at DESC";
+        long start = System.nanoTime();
+        boolean failed = false;
         
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
             while (rs.next()) {
-                StudentBean student = new StudentBean();
-                student.setStudentId(rs.getString("student_id"));
-                student.setName(rs.getString("name"));
-                student.setMark1(rs.getInt("mark1"));
-                student.setMark2(rs.getInt("mark2"));
-                student.setMark3(rs.getInt("mark3"));
-                student.setMark4(rs.getInt("mark4"));
-                student.setMark5(rs.getInt("mark5"));
-                student.setTotal(rs.getInt("total"));
-                student.setAverage(rs.getInt("average"));
-                student.setGrade(rs.getString("grade"));
-                
-                students.add(student);
+                students.add(readRow(rs, new StudentBean()));
             }
             
         } catch (SQLException e) {
+            failed = true;
             System.err.println("Error retrieving students: " + e.getMessage());
+        } finally {
+            GET_ALL.record(start, failed ? -1 : students.size());
         }
         
         return students;
     }
     
     /**
-     * Retrieves student by ID from database
-     * @param studentId Student ID to search for
-     * @return StudentBean if found, null otherwise
+     * Streams students matching a query to a visitor as rows come off the ResultSet,
+     * without building a list. Filtering, sorting and keyset pagination run in SQL.
+     * The ResultSet is forward-only and read-only, so with a fetch size set the driver
+     * holds one fetch of rows at a time (MySQL needs useCursorFetch=true in the URL).
+     * @param query Filter, sort and page options; its next cursor is set when more rows remain
+     * @param visitor Receives each row (the same bean instance is reused)
+     * @return Number of rows visited
+     * @throws SQLException if the query fails
+     * @throws IOException if the visitor fails
      */
-    public StudentBean getStudentById(String studentId) {
-        String sql = "SELECT * FROM students WHERE student_id = ?";
+    @Override
+    public int streamStudents(StudentQuery query, StudentVisitor visitor) throws SQLException, IOException {
+        StudentQuery.SortField sort = query.getSort();
+        String dir = query.isDescending() ? "DESC" : "ASC";
+        String cmp = query.isDescending() ? "<" : ">";
+        
+        StringBuilder sql = new StringBuilder(
+            "SELECT id, student_id, name, mark1, mark2, mark3, mark4, mark5, total, average, grade, version FROM students");
+        List<Object> params = new ArrayList<>();
+        String joiner = " WHERE ";
+        
+        if (query.getGrade() != null && !query.getGrade().isEmpty()) {
+            sql.append(joiner).append("grade = ?");
+            params.add(query.getGrade());
+            joiner = " AND ";
+        }
+        if (query.getIdPrefix() != null && !query.getIdPrefix().isEmpty()) {
+            sql.append(joiner).append("student_id LIKE ? ESCAPE '!'");
+            params.add(likePrefix(query.getIdPrefix()));
+            joiner = " AND ";
+        }
+        if (query.hasCursor()) {
+            if (sort == StudentQuery.SortField.CREATED) {
+                sql.append(joiner).append("id ").append(cmp).append(" ?");
+            } else {
+                Object value = sort.isNumeric() ? (Object) query.getAfterNumber() : query.getAfterValue();
+                sql.append(joiner).append("(").append(sort.column).append(" ").append(cmp).append(" ? OR (")
+                   .append(sort.column).append(" = ? AND id ").append(cmp).append(" ?))");
+                params.add(value);
+                params.add(value);
+            }
+            params.add(query.getAfterId());
+        }
+        
+        sql.append(" ORDER BY ");
+        if (sort != StudentQuery.SortField.CREATED) {
+            sql.append(sort.column).append(" ").append(dir).append(", ");
+        }
+        sql.append("id ").append(dir);
+        
+        int limit = query.getLimit();
+        if (limit > 0) {
+            // One extra row tells us whether there is a next page
+            sql.append(" LIMIT ?");
+            params.add(limit + 1);
+        }
         
+        query.clearNextCursor();
+        long start = System.nanoTime();
+        int rows = -1;
         try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString(),
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
             
-            pstmt.setString(1, studentId);
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            if (query.getFetchSize() != 0) {
+                pstmt.setFetchSize(query.getFetchSize());
+            }
             
             try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    StudentBean student = new StudentBean();
-                    student.setStudentId(rs.getString("student_id"));
-                    student.setName(rs.getString("name"));
-                    student.setMark1(rs.getInt("mark1"));
-                    student.setMark2(rs.getInt("mark2"));
-                    student.setMark3(rs.getInt("mark3"));
-                    student.setMark4(rs.getInt("mark4"));
-                    student.setMark5(rs.getInt("mark5"));
-                    student.setTotal(rs.getInt("total"));
-                    student.setAverage(rs.getInt("average"));
-                    student.setGrade(rs.getString("grade"));
-                    
-                    return student;
+                StudentBean row = new StudentBean();
+                int count = 0;
+                long lastId = 0;
+                while (rs.next()) {
+                    if (limit > 0 && count == limit) {
+                        query.setNextCursor(sortValue(sort, row), lastId);
+                        break;
+                    }
+                    lastId = rs.getLong("id");
+                    visitor.visit(readRow(rs, row));
+                    count++;
                 }
+                rows = count;
+                return count;
             }
+        } finally {
+            STREAM.record(start, rows);
+        }
+    }
+    
+    private static String sortValue(StudentQuery.SortField sort, StudentBean row) {
+        switch (sort) {
+            case NAME: return row.getName();
+            case TOTAL: return String.valueOf(row.getTotal());
+            case AVERAGE: return String.valueOf(row.getAverage());
+            case GRADE: return row.getGrade();
+            case STUDENT_ID: return row.getStudentId();
+            default: return "";
+        }
+    }
+    
+    /**
+     * Reads every row with a forward-only cursor; versionsOnly reads just
+     * (id, student_id, version), which idx_students_version covers
+     */
+    @Override
+    public void scanRows(boolean versionsOnly, RowVisitor visitor) throws SQLException, IOException {
+        String sql = versionsOnly
+            ? "SELECT id, student_id, version FROM students"
+            : "SELECT id, student_id, name, mark1, mark2, mark3, mark4, mark5, total, average, grade, version FROM students";
+        long start = System.nanoTime();
+        int rows = -1;
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             ResultSet rs = pstmt.executeQuery()) {
             
+            StudentBean row = new StudentBean();
+            int count = 0;
+            while (rs.next()) {
+                if (versionsOnly) {
+                    row.setStudentId(rs.getString("student_id"));
+                    row.setVersion(rs.getInt("version"));
+                } else {
+                    readRow(rs, row);
+                }
+                visitor.visit(rs.getLong("id"), row);
+                count++;
+            }
+            rows = count;
+        } finally {
+            SCAN.record(start, rows);
+        }
+    }
+    
+    /**
+     * Reads the given students with their row ids, one IN (...) query per chunk of IDs
+     */
+    @Override
+    public void readRows(Collection<String> studentIds, RowVisitor visitor) throws SQLException, IOException {
+        List<String> ids = new ArrayList<>(studentIds);
+        long start = System.nanoTime();
+        int rows = -1;
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            StudentBean row = new StudentBean();
+            int count = 0;
+            for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+                List<String> chunk = ids.subList(from, Math.min(ids.size(), from + ID_CHUNK_SIZE));
+                try (PreparedStatement select = conn.prepareStatement(
+                        "SELECT id, student_id, name, mark1, mark2, mark3, mark4, mark5, total, average, grade, version "
+                        + "FROM students WHERE student_id IN (" + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")")) {
+                    bindAll(select, chunk);
+                    try (ResultSet rs = select.executeQuery()) {
+                        while (rs.next()) {
+                            visitor.visit(rs.getLong("id"), readRow(rs, row));
+                            count++;
+                        }
+                    }
+                }
+            }
+            rows = count;
+        } finally {
+            READ_ROWS.record(start, rows);
+        }
+    }
+    
+    /**
+     * Retrieves student by ID, from the lookup cache when possible
+     * @param studentId Student ID to search for
+     * @return StudentBean if found, null otherwise
+     */
+    @Override
+    public StudentBean getStudentById(String studentId) {
+        long generation = 0;
+        if (CACHE != null) {
+            StudentBean cached = CACHE.get(studentId);
+            if (cached != null) {
+                return cached;
+            }
+            generation = CACHE.currentGeneration();
+        }
+        
+        long start = System.nanoTime();
+        int rows = -1;
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            StudentBean student = findById(conn, studentId);
+            if (student != null && CACHE != null) {
+                CACHE.put(student, generation);
+            }
+            rows = student != null ? 1 : 0;
+            return student;
         } catch (SQLException e) {
             System.err.println("Error retrieving student: " + e.getMessage());
+        } finally {
+            GET_BY_ID.record(start, rows);
         }
         
         return null;
     }
     
+    private static StudentBean findById(Connection conn, String studentId) throws SQLException {
+        String sql = "SELECT * FROM students WHERE student_id = ?";
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, studentId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return readRow(rs, new StudentBean());
+                }
+            }
+        }
+        return null;
+    }
+    
+    private static Map<String, StudentBean> findByIds(Connection conn, List<String> ids) throws SQLException {
+        Map<String, StudentBean> rows = new HashMap<>();
+        try (PreparedStatement select = conn.prepareStatement("SELECT * FROM students WHERE student_id IN ("
+                + String.join(",", Collections.nCopies(ids.size(), "?")) + ")")) {
+            bindAll(select, ids);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    StudentBean row = readRow(rs, new StudentBean());
+                    rows.put(row.getStudentId(), row);
+                }
+            }
+        }
+        return rows;
+    }
+    
+    // True if the stored row holds bean's grades at the version updateGrades would have written
+    private static boolean isApplied(StudentBean bean, StudentBean stored) {
+        return stored != null
+                && stored.getVersion() == bean.getVersion() + 1
+                && stored.getTotal() == bean.getTotal()
+                && stored.getAverage() == bean.getAverage()
+                && Objects.equals(stored.getGrade(), bean.getGrade());
+    }
+    
     /**
      * Gets the total count of stored students from database
      * @return Number of students stored
      */
+    @Override
     public int getStudentCount() {
         String sql = "SELECT COUNT(*) FROM students";
+        long start = System.nanoTime();
+        int rows = -1;
         
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
+            rows = 0;
             if (rs.next()) {
+                rows = 1;
                 return rs.getInt(1);
             }
             
         } catch (SQLException e) {
             System.err.println("Error counting students: " + e.getMessage());
+        } finally {
+            COUNT.record(start, rows);
         }
         
         return 0;
     }
     
     /**
-     * Deletes a student record from database
-     * @param studentId Student ID to delete
-     * @return Success message or error message
+     * Updates a student's name, marks, total, average and grade in place with one
+     * UPDATE statement, keeping its ID and creation time. The update only applies if
+     * the stored version still equals bean.getVersion(); on success the version is
+     * incremented in both the database and the bean.
+     * @param bean Student with ID, version and recalculated grade fields set
+     * @return true if updated, false if no student has that ID
+     * @throws ConcurrentUpdateException if the stored version differs from bean's
+     * @throws SQLException if the update fails
      */
-    public String deleteStudent(String studentId) {
-        String sql = "DELETE FROM students WHERE student_id = ?";
+    @Override
+    public boolean updateStudent(StudentBean bean) throws ConcurrentUpdateException, SQLException {
+        String sql = """
+            UPDATE students SET name = ?, mark1 = ?, mark2 = ?, mark3 = ?, mark4 = ?, mark5 = ?,
+                total = ?, average = ?, grade = ?, version = version + 1
+            WHERE student_id = ? AND version = ?
+            """;
+        long start = System.nanoTime();
+        int rows = -1;
         
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setString(1, studentId);
+            rows = 0; // Missing rows and version conflicts are answers, not failures
+            // A row at the expected version has exactly these values, so no lock is needed
+            StudentBean before = findById(conn, bean.getStudentId());
+            if (before == null) {
+                return false;
+            }
+            if (before.getVersion() != bean.getVersion()) {
+                throw new ConcurrentUpdateException(bean.getStudentId());
+            }
             
-            int rowsAffected = pstmt.executeUpdate();
+            pstmt.setString(1, bean.getName());
+            pstmt.setInt(2, bean.getMark1());
+            pstmt.setInt(3, bean.getMark2());
+            pstmt.setInt(4, bean.getMark3());
+            pstmt.setInt(5, bean.getMark4());
+            pstmt.setInt(6, bean.getMark5());
+            pstmt.setInt(7, bean.getTotal());
+            pstmt.setInt(8, bean.getAverage());
+            pstmt.setString(9, bean.getGrade());
+            pstmt.setString(10, bean.getStudentId());
+            pstmt.setInt(11, bean.getVersion());
             
-            if (rowsAffected > 0) {
-                return "Student with ID " + studentId + " deleted successfully";
-            } else {
-                return "Student with ID " + studentId + " not found";
+            conn.setAutoCommit(false);
+            try {
+                if (pstmt.executeUpdate() > 0) {
+                    StudentBean after = new StudentBean(bean);
+                    after.setVersion(bean.getVersion() + 1);
+                    commitAndPublish(conn, () -> StudentEvents.fireUpdated(before, after));
+                    bean.setVersion(after.getVersion());
+                    rows = 1;
+                    return true;
+                }
+                conn.rollback();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            
+            // Changed or deleted between our read and the update
+            if (findById(conn, bean.getStudentId()) == null) {
+                return false;
+            }
+            throw new ConcurrentUpdateException(bean.getStudentId());
+        } catch (SQLException e) {
+            rows = -1;
+            throw e;
+        } finally {
+            UPDATE.record(start, rows);
+        }
+    }
+    
+    /**
+     * Writes recalculated total, average and grade for many students, as JDBC
+     * batches of jdbc.batchSize committed one transaction per batch. Each row
+     * only changes if the stored version still equals the bean's version, and
+     * its version is incremented, as in {@link #updateStudent}. Names and marks
+     * are not written.
+     * @param beans Students with ID, version and the new total, average and grade set
+     * @return Per-row result: 1 if updated, 0 if the student is gone or was changed meanwhile
+     * @throws SQLException if the update fails (earlier batches stay committed)
+     */
+    @Override
+    public int[] updateGrades(List<StudentBean> beans) throws SQLException {
+        int[] results = new int[beans.size()];
+        String sql = "UPDATE students SET total = ?, average = ?, grade = ?, version = version + 1 "
+                   + "WHERE student_id = ? AND version = ?";
+        long start = System.nanoTime();
+        boolean failed = true;
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            conn.setAutoCommit(false);
+            for (int from = 0; from < beans.size(); from += DEFAULT_BATCH_SIZE) {
+                int to = Math.min(beans.size(), from + DEFAULT_BATCH_SIZE);
+                List<StudentBean> chunk = beans.subList(from, to);
+                try {
+                    // Current rows, read in the same transaction, are the "before" of the change events
+                    List<String> ids = new ArrayList<>(chunk.size());
+                    for (StudentBean bean : chunk) {
+                        ids.add(bean.getStudentId());
+                    }
+                    Map<String, StudentBean> before = findByIds(conn, ids);
+                    
+                    for (StudentBean bean : chunk) {
+                        pstmt.setInt(1, bean.getTotal());
+                        pstmt.setInt(2, bean.getAverage());
+                        pstmt.setString(3, bean.getGrade());
+                        pstmt.setString(4, bean.getStudentId());
+                        pstmt.setInt(5, bean.getVersion());
+                        pstmt.addBatch();
+                    }
+                    int[] counts = pstmt.executeBatch();
+                    
+                    // Drivers may report SUCCESS_NO_INFO; those rows applied if they now carry the next version
+                    List<String> unknown = new ArrayList<>();
+                    for (int i = 0; i < chunk.size(); i++) {
+                        if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                            unknown.add(chunk.get(i).getStudentId());
+                        }
+                    }
+                    Map<String, StudentBean> reread = unknown.isEmpty()
+                            ? Collections.emptyMap() : findByIds(conn, unknown);
+                    
+                    // Row values after the update, or null where the row did not change
+                    StudentBean[] after = new StudentBean[chunk.size()];
+                    for (int i = 0; i < chunk.size(); i++) {
+                        StudentBean old = before.get(chunk.get(i).getStudentId());
+                        boolean applied = counts[i] > 0
+                                || counts[i] == Statement.SUCCESS_NO_INFO
+                                && isApplied(chunk.get(i), reread.get(chunk.get(i).getStudentId()));
+                        if (applied && old != null) {
+                            after[i] = new StudentBean(old);
+                            after[i].setTotal(chunk.get(i).getTotal());
+                            after[i].setAverage(chunk.get(i).getAverage());
+                            after[i].setGrade(chunk.get(i).getGrade());
+                            after[i].setVersion(old.getVersion() + 1);
+                        }
+                    }
+                    commitAndPublish(conn, () -> {
+                        for (int i = 0; i < after.length; i++) {
+                            if (after[i] != null) {
+                                StudentEvents.fireUpdated(before.get(after[i].getStudentId()), after[i]);
+                            }
+                        }
+                    });
+                    for (int i = 0; i < after.length; i++) {
+                        if (after[i] != null) {
+                            chunk.get(i).setVersion(after[i].getVersion());
+                            results[from + i] = 1;
+                        }
+                    }
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+            failed = false;
+        } finally {
+            UPDATE_GRADES.record(start, failed ? -1 : countOnes(results));
+        }
+        return results;
+    }
+    
+    /**
+     * Deletes a student record from database
+     * @param studentId Student ID to delete
+     * @return Success message or error message
+     */
+    @Override
+    public String deleteStudent(String studentId) {
+        String sql = "DELETE FROM students WHERE student_id = ?";
+        long start = System.nanoTime();
+        int rows = -1;
+        
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                // Listeners need the deleted values, so read the row in the same transaction
+                StudentBean existing = findById(conn, studentId);
+                pstmt.setString(1, studentId);
+                
+                int rowsAffected = pstmt.executeUpdate();
+                commitAndPublish(conn, rowsAffected > 0 && existing != null
+                        ? () -> StudentEvents.fireDeleted(existing) : null);
+                rows = rowsAffected;
+                
+                if (rowsAffected > 0) {
+                    return "Student with ID " + studentId + " deleted successfully";
+                } else {
+                    return "Student with ID " + studentId + " not found";
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
             
         } catch (SQLException e) {
             return "Error deleting student: " + e.getMessage();
+        } finally {
+            DELETE.record(start, rows);
+        }
+    }
+    
+    /**
+     * Deletes many students in one transaction using chunked
+     * DELETE ... WHERE student_id IN (...) statements, one round trip per chunk
+     * @param studentIds IDs to delete; duplicates are ignored
+     * @return Outcome per distinct ID in input order: true if deleted, false if not found
+     * @throws SQLException if the delete fails (nothing is deleted)
+     */
+    @Override
+    public Map<String, Boolean> deleteStudents(Collection<String> studentIds) throws SQLException {
+        Map<String, Boolean> outcomes = new LinkedHashMap<>();
+        for (String id : studentIds) {
+            outcomes.put(id, Boolean.FALSE);
+        }
+        if (outcomes.isEmpty()) {
+            return outcomes;
+        }
+        
+        List<String> ids = new ArrayList<>(outcomes.keySet());
+        List<StudentBean> deleted = new ArrayList<>();
+        long start = System.nanoTime();
+        boolean failed = true;
+        
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+                    List<String> chunk = ids.subList(from, Math.min(ids.size(), from + ID_CHUNK_SIZE));
+                    String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+                    
+                    // Read the rows first: they tell us which IDs exist and feed the change events
+                    try (PreparedStatement select = conn.prepareStatement(
+                            "SELECT * FROM students WHERE student_id IN (" + placeholders + ")")) {
+                        bindAll(select, chunk);
+                        try (ResultSet rs = select.executeQuery()) {
+                            while (rs.next()) {
+                                deleted.add(readRow(rs, new StudentBean()));
+                            }
+                        }
+                    }
+                    try (PreparedStatement delete = conn.prepareStatement(
+                            "DELETE FROM students WHERE student_id IN (" + placeholders + ")")) {
+                        bindAll(delete, chunk);
+                        delete.executeUpdate();
+                    }
+                }
+                
+                commitAndPublish(conn, () -> {
+                    for (StudentBean student : deleted) {
+                        StudentEvents.fireDeleted(student);
+                    }
+                });
+                for (StudentBean student : deleted) {
+                    outcomes.put(student.getStudentId(), Boolean.TRUE);
+                }
+                failed = false;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } finally {
+            DELETE_BATCH.record(start, failed ? -1 : deleted.size());
+        }
+        
+        return outcomes;
+    }
+    
+    private static int countOnes(int[] results) {
+        int n = 0;
+        for (int r : results) {
+            n += r;
+        }
+        return n;
+    }
+    
+    private static void bindAll(PreparedStatement pstmt, List<String> values) throws SQLException {
+        for (int i = 0; i < values.size(); i++) {
+            pstmt.setString(i + 1, values.get(i));
         }
     }
     
@@ -203,19 +863,54 @@ public class StudentDAO {
      * Clears all stored student records from database
      * @return Success message or error message
      */
+    @Override
     public String clearAllStudents() {
         String sql = "DELETE FROM students";
+        long start = System.nanoTime();
+        int rows = -1;
         
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            int rowsAffected = pstmt.executeUpdate();
-            nameSequenceMap.clear();
-            
-            return rowsAffected + " student records deleted successfully";
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int rowsAffected = pstmt.executeUpdate();
+                ID_ALLOCATOR.reset(conn);
+                commitAndPublish(conn, StudentEvents::fireCleared);
+                ID_ALLOCATOR.invalidate();
+                rows = rowsAffected;
+                
+                return rowsAffected + " student records deleted successfully";
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
             
         } catch (SQLException e) {
             return "Error clearing students: " + e.getMessage();
+        } finally {
+            CLEAR.record(start, rows);
         }
     }
+    
+    private static StudentBean readRow(ResultSet rs, StudentBean student) throws SQLException {
+        student.setStudentId(rs.getString("student_id"));
+        student.setName(rs.getString("name"));
+        student.setMark1(rs.getInt("mark1"));
+        student.setMark2(rs.getInt("mark2"));
+        student.setMark3(rs.getInt("mark3"));
+        student.setMark4(rs.getInt("mark4"));
+        student.setMark5(rs.getInt("mark5"));
+        student.setTotal(rs.getInt("total"));
+        student.setAverage(rs.getInt("average"));
+        student.setGrade(rs.getString("grade"));
+        student.setVersion(rs.getInt("version"));
+        return student;
+    }
+    
+    /**
+     * @param prefix Literal prefix
+     * @return LIKE pattern matching values starting with the prefix (escape character '!')
+     */
+    static String likePrefix(String prefix) {
+        return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
 }
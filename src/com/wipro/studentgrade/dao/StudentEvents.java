@@ -0,0 +1,120 @@
+package com.wipro.studentgrade.dao;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of {@link StudentChangeListener}s shared by every DAO instance.
+ *
+ * A writer {@link #reserve reserves} a ticket once its changes hold their row
+ * locks, commits without any shared lock, then {@link #publish publishes} the
+ * ticket. Tickets publish strictly in reservation order, so listeners see
+ * changes in the same order the database applied them.
+ */
+public final class StudentEvents {
+    private static final Object PUBLISH_LOCK = new Object();
+
+    private static final List<StudentChangeListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    // Guarded by PUBLISH_LOCK
+    private static long nextTicket;
+    private static long nextToPublish;
+
+    private StudentEvents() {}
+
+    public static void addListener(StudentChangeListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(StudentChangeListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Takes the next publication slot. Every ticket must be passed to
+     * {@link #publish} exactly once, even if the commit fails, or later
+     * writers wait forever.
+     */
+    static long reserve() {
+        synchronized (PUBLISH_LOCK) {
+            return nextTicket++;
+        }
+    }
+
+    /**
+     * Waits until every earlier ticket has published, then runs the events.
+     * @param ticket Ticket from {@link #reserve}
+     * @param events Calls to the fire methods, or null if nothing was committed
+     */
+    static void publish(long ticket, Runnable events) {
+        boolean interrupted = false;
+        synchronized (PUBLISH_LOCK) {
+            while (ticket != nextToPublish) {
+                try {
+                    PUBLISH_LOCK.wait();
+                } catch (InterruptedException e) {
+                    // Skipping our turn would stall everyone behind us, so keep waiting
+                    interrupted = true;
+                }
+            }
+        }
+        try {
+            if (events != null) {
+                events.run();
+            }
+        } finally {
+            synchronized (PUBLISH_LOCK) {
+                nextToPublish++;
+                PUBLISH_LOCK.notifyAll();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    static void fireInserted(StudentBean student) {
+        for (StudentChangeListener l : LISTENERS) {
+            try {
+                l.studentInserted(new StudentBean(student));
+            } catch (RuntimeException e) {
+                report(l, e);
+            }
+        }
+    }
+
+    static void fireUpdated(StudentBean before, StudentBean after) {
+        for (StudentChangeListener l : LISTENERS) {
+            try {
+                l.studentUpdated(new StudentBean(before), new StudentBean(after));
+            } catch (RuntimeException e) {
+                report(l, e);
+            }
+        }
+    }
+
+    static void fireDeleted(StudentBean student) {
+        for (StudentChangeListener l : LISTENERS) {
+            try {
+                l.studentDeleted(new StudentBean(student));
+            } catch (RuntimeException e) {
+                report(l, e);
+            }
+        }
+    }
+
+    static void fireCleared() {
+        for (StudentChangeListener l : LISTENERS) {
+            try {
+                l.studentsCleared();
+            } catch (RuntimeException e) {
+                report(l, e);
+            }
+        }
+    }
+
+    private static void report(StudentChangeListener listener, RuntimeException e) {
+        System.err.println("Student change listener " + listener.getClass().getSimpleName() + " failed: " + e);
+    }
+}
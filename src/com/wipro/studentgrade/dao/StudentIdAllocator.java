@@ -0,0 +1,185 @@
+package com.wipro.studentgrade.dao;
+
+import com.wipro.studentgrade.util.DatabaseUtil;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out per-prefix student ID sequence numbers using a hi/lo scheme.
+ *
+ * Each prefix reserves a block of numbers at a time in the student_id_sequences
+ * table, so sequences survive restarts and only one call per block touches the
+ * database. Within a block numbers are taken lock-free from an AtomicInteger;
+ * numbers left in a block when the process stops are skipped, never reused.
+ * Blocks carry the generation they were reserved in, and {@link #invalidate}
+ * starts a new one, so no number is issued from a block older than a reset.
+ */
+public class StudentIdAllocator {
+    private final int blockSize;
+    private final ConcurrentHashMap<String, Block> blocks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Object> refillLocks = new ConcurrentHashMap<>();
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private static final class Block {
+        final AtomicInteger next;
+        final int limit;
+        final int generation;
+
+        Block(int start, int limit, int generation) {
+            this.next = new AtomicInteger(start);
+            this.limit = limit;
+            this.generation = generation;
+        }
+    }
+
+    public StudentIdAllocator(int blockSize) {
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    /**
+     * @param name Student name
+     * @return Upper-case initials of the name's words, or STU for a blank name
+     */
+    static String prefixOf(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return "STU";
+        }
+        StringBuilder initials = new StringBuilder();
+        for (String part : name.trim().split("\\s+")) {
+            if (!part.isEmpty()) {
+                initials.append(part.charAt(0));
+            }
+        }
+        return initials.toString().toUpperCase();
+    }
+
+    /**
+     * @return Student ID made of a prefix and a sequence number of at least three digits
+     */
+    static String format(String prefix, int sequence) {
+        return String.format("%s%03d", prefix, sequence);
+    }
+
+    /**
+     * Returns the next sequence number for a prefix
+     * @param prefix ID prefix (student initials)
+     * @return Sequence number, unique for the prefix
+     * @throws SQLException if a new block cannot be reserved
+     */
+    public int next(String prefix) throws SQLException {
+        while (true) {
+            Block block = blocks.get(prefix);
+            if (block != null) {
+                int value = block.next.getAndIncrement();
+                // Checked after taking the number, so a reset that lands meanwhile is seen
+                if (value < block.limit && block.generation == generation.get()) {
+                    return value;
+                }
+            }
+
+            synchronized (refillLocks.computeIfAbsent(prefix, k -> new Object())) {
+                // Another thread may have refilled while we waited
+                if (blocks.get(prefix) == block) {
+                    blocks.put(prefix, reserveBlock(prefix));
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes all sequences from the database. Blocks in memory keep issuing
+     * numbers until {@link #invalidate} is called after the commit, so a rollback
+     * leaves them valid.
+     * @param conn Connection to run the delete on (caller manages the transaction)
+     * @throws SQLException if the sequence table cannot be cleared
+     */
+    public void reset(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM student_id_sequences")) {
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Retires every block reserved so far, including ones being reserved right
+     * now. Call it once a {@link #reset} has committed.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        blocks.clear();
+    }
+
+    private Block reserveBlock(String prefix) throws SQLException {
+        // Read first: a block reserved while a reset commits is retired with the rest
+        int reservedIn = generation.get();
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Block block = reserveBlock(conn, prefix, reservedIn);
+                conn.commit();
+                return block;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private Block reserveBlock(Connection conn, String prefix, int reservedIn) throws SQLException {
+        // Update first so the row (or SQLite database) is write-locked before we read it
+        String update = "UPDATE student_id_sequences SET next_value = next_value + ? WHERE prefix = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(update)) {
+            pstmt.setInt(1, blockSize);
+            pstmt.setString(2, prefix);
+            if (pstmt.executeUpdate() > 0) {
+                int limit = readNextValue(conn, prefix);
+                return new Block(limit - blockSize, limit, reservedIn);
+            }
+        }
+
+        // First use of this prefix: continue after any IDs already stored
+        int start = highestStoredSequence(conn, prefix) + 1;
+        String insert = "INSERT INTO student_id_sequences (prefix, next_value) VALUES (?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(insert)) {
+            pstmt.setString(1, prefix);
+            pstmt.setInt(2, start + blockSize);
+            pstmt.executeUpdate();
+        }
+        return new Block(start, start + blockSize, reservedIn);
+    }
+
+    private int readNextValue(Connection conn, String prefix) throws SQLException {
+        String sql = "SELECT next_value FROM student_id_sequences WHERE prefix = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, prefix);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        }
+        throw new SQLException("Sequence row for prefix " + prefix + " disappeared");
+    }
+
+    private int highestStoredSequence(Connection conn, String prefix) throws SQLException {
+        String sql = "SELECT student_id FROM students WHERE student_id LIKE ? ESCAPE '!'";
+        String pattern = StudentDAO.likePrefix(prefix);
+        int highest = 0;
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, pattern);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String suffix = rs.getString(1).substring(prefix.length());
+                    if (!suffix.isEmpty() && suffix.length() < 10 && suffix.chars().allMatch(Character::isDigit)) {
+                        highest = Math.max(highest, Integer.parseInt(suffix));
+                    }
+                }
+            }
+        }
+        return highest;
+    }
+}
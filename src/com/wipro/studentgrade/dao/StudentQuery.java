@@ -0,0 +1,192 @@
+package com.wipro.studentgrade.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Filter, sort and keyset-pagination options for {@link StudentRepository#streamStudents}.
+ *
+ * Pages are addressed with an opaque cursor rather than an offset: the cursor
+ * holds the sort field and direction it was issued for and the sort value and
+ * row id of the last row returned, and the next page starts strictly after it,
+ * so deep pages cost the same as the first one.
+ */
+public class StudentQuery {
+
+    public enum SortField {
+        CREATED(null),
+        NAME("name"),
+        TOTAL("total"),
+        AVERAGE("average"),
+        GRADE("grade"),
+        STUDENT_ID("student_id");
+
+        final String column;
+
+        SortField(String column) {
+            this.column = column;
+        }
+
+        /**
+         * @param name Sort name as used in the API (created, name, total, average, grade, studentId)
+         * @return Matching sort field, or null if unknown
+         */
+        public static SortField fromParam(String name) {
+            if (name == null || name.isEmpty()) return CREATED;
+            switch (name) {
+                case "created": return CREATED;
+                case "name": return NAME;
+                case "total": return TOTAL;
+                case "average": return AVERAGE;
+                case "grade": return GRADE;
+                case "studentId": return STUDENT_ID;
+                default: return null;
+            }
+        }
+
+        boolean isNumeric() {
+            return this == TOTAL || this == AVERAGE;
+        }
+    }
+
+    private SortField sort = SortField.CREATED;
+    private boolean descending = true;
+    private int limit;
+    private String grade;
+    private String idPrefix;
+    private String afterValue;
+    private int afterNumber;
+    private long afterId;
+    private boolean hasCursor;
+    private String nextCursor;
+    private int fetchSize;
+
+    public SortField getSort() {
+        return sort;
+    }
+
+    public void setSort(SortField sort) {
+        this.sort = sort;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @param limit Maximum rows to return, 0 for no limit
+     */
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public String getGrade() {
+        return grade;
+    }
+
+    public void setGrade(String grade) {
+        this.grade = grade;
+    }
+
+    public String getIdPrefix() {
+        return idPrefix;
+    }
+
+    public void setIdPrefix(String idPrefix) {
+        this.idPrefix = idPrefix;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * @param fetchSize JDBC fetch size hint, 0 for the driver default
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Continues after the row identified by a cursor from a previous page.
+     * Call it after {@link #setSort} and {@link #setDescending}: a cursor only
+     * fits the sort field and direction it was issued for.
+     * @param cursor Value of {@link #getNextCursor()} from the previous query
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort or direction
+     */
+    public void setAfter(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            hasCursor = false;
+            return;
+        }
+        SortField cursorSort;
+        boolean cursorDescending;
+        try {
+            // sort|direction|value|id; the value may itself contain '|'
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int first = decoded.indexOf('|');
+            int second = decoded.indexOf('|', first + 1);
+            int last = decoded.lastIndexOf('|');
+            if (first < 0 || second < 0 || last <= second) {
+                throw new IllegalArgumentException();
+            }
+            cursorSort = SortField.valueOf(decoded.substring(0, first));
+            String direction = decoded.substring(first + 1, second);
+            if (!direction.equals("asc") && !direction.equals("desc")) {
+                throw new IllegalArgumentException();
+            }
+            cursorDescending = direction.equals("desc");
+            afterValue = decoded.substring(second + 1, last);
+            afterNumber = cursorSort.isNumeric() ? Integer.parseInt(afterValue) : 0;
+            afterId = Long.parseLong(decoded.substring(last + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        if (cursorSort != sort || cursorDescending != descending) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort or order; "
+                    + "repeat the sort and order of the first page");
+        }
+        hasCursor = true;
+    }
+
+    boolean hasCursor() {
+        return hasCursor;
+    }
+
+    String getAfterValue() {
+        return afterValue;
+    }
+
+    // The cursor's sort value, for numeric sorts
+    int getAfterNumber() {
+        return afterNumber;
+    }
+
+    long getAfterId() {
+        return afterId;
+    }
+
+    /**
+     * @return Cursor for the next page, or null if the last page has been read
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    void setNextCursor(String sortValue, long id) {
+        String raw = sort.name() + "|" + (descending ? "desc" : "asc") + "|" + (sortValue == null ? "" : sortValue) + "|" + id;
+        this.nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void clearNextCursor() {
+        this.nextCursor = null;
+    }
+}
@@ -0,0 +1,59 @@
+package com.wipro.studentgrade.dao;
+
+import com.wipro.studentgrade.util.DatabaseUtil;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Opens the {@link StudentRepository} selected by storage.engine in db.properties:
+ * jdbc (the default) for {@link StudentDAO}, or log for {@link LogStudentRepository}.
+ *
+ * The repository is opened on first use and shared, since the log engine owns
+ * its file and must be the only writer to it.
+ */
+public final class StudentRepositories {
+    private static StudentRepository shared;
+
+    private StudentRepositories() {}
+
+    /**
+     * @return The configured repository
+     * @throws IllegalStateException if storage.engine is unknown or the log cannot be opened
+     */
+    public static synchronized StudentRepository get() {
+        if (shared == null) {
+            shared = open(DatabaseUtil.getProperty("storage.engine", "jdbc"));
+        }
+        return shared;
+    }
+
+    private static StudentRepository open(String engine) {
+        switch (engine.toLowerCase(Locale.ROOT)) {
+            case "jdbc":
+                return new StudentDAO();
+            case "log":
+                return openLog();
+            default:
+                throw new IllegalStateException("Unknown storage.engine: " + engine + " (expected jdbc or log)");
+        }
+    }
+
+    private static LogStudentRepository openLog() {
+        Path path = Paths.get(DatabaseUtil.getProperty("log.path", "student_grade_system.log"));
+        try {
+            LogStudentRepository log = new LogStudentRepository(path,
+                Integer.parseInt(DatabaseUtil.getProperty("id.blockSize", "20")),
+                Boolean.parseBoolean(DatabaseUtil.getProperty("log.syncOnWrite", "false")));
+            log.startCompaction(
+                Long.parseLong(DatabaseUtil.getProperty("log.compactIntervalSeconds", "60")),
+                Long.parseLong(DatabaseUtil.getProperty("log.compactMinGarbageMb", "8")) << 20,
+                Double.parseDouble(DatabaseUtil.getProperty("log.compactGarbageRatio", "1.0")));
+            Runtime.getRuntime().addShutdownHook(new Thread(log::close, "student-log-shutdown"));
+            return log;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open student log " + path + ": " + e.getMessage(), e);
+        }
+    }
+}
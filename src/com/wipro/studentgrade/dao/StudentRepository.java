@@ -0,0 +1,146 @@
+package com.wipro.studentgrade.dao;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.util.ConcurrentUpdateException;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage for graded students, independent of how they are persisted.
+ *
+ * {@link StudentDAO} keeps students in a SQL database through JDBC;
+ * {@link LogStudentRepository} keeps them in an embedded append-only log.
+ * {@link StudentRepositories#get()} returns the one selected by storage.engine
+ * in db.properties. Every implementation publishes committed writes through
+ * {@link StudentEvents}, so caches and aggregates work the same on either.
+ * Storage failures are reported as SQLException whichever engine is used.
+ */
+public interface StudentRepository {
+
+    /** Receives rows from {@link #scanRows} together with their row id. */
+    @FunctionalInterface
+    interface RowVisitor {
+        void visit(long rowId, StudentBean student) throws IOException;
+    }
+
+    /**
+     * Generates a student ID from the name's initials and a durable per-initials sequence
+     * @param name Student name
+     * @return Generated student ID, never handed out before
+     */
+    String generateId(String name);
+
+    /**
+     * @param bean Student with ID, total, average and grade already set
+     * @return Result message
+     */
+    String insertStudent(StudentBean bean);
+
+    /**
+     * Inserts students in batches of the engine's default size
+     * @param beans Students to insert, with ID, total, average and grade already set
+     * @return Per-row result: 1 if the row was inserted, 0 if it was rejected
+     * @throws SQLException if storage fails (earlier batches stay stored)
+     */
+    int[] insertStudents(List<StudentBean> beans) throws SQLException;
+
+    /**
+     * Inserts students, publishing each batch of batchSize rows at once
+     * @param beans Students to insert, with ID, total, average and grade already set
+     * @param batchSize Rows per batch; IDs already stored are rejected
+     * @return Per-row result: 1 if the row was inserted, 0 if it was rejected
+     * @throws SQLException if storage fails (earlier batches stay stored)
+     */
+    int[] insertStudents(List<StudentBean> beans, int batchSize) throws SQLException;
+
+    /**
+     * @return Every student, newest first
+     */
+    List<StudentBean> getAllStudents();
+
+    /**
+     * Streams students matching a query to a visitor without building a list
+     * @param query Filter, sort and page options; its next cursor is set when more rows remain
+     * @param visitor Receives each row (the same bean instance may be reused)
+     * @return Number of rows visited
+     * @throws SQLException if the read fails
+     * @throws IOException if the visitor fails
+     */
+    int streamStudents(StudentQuery query, StudentVisitor visitor) throws SQLException, IOException;
+
+    /**
+     * Visits every stored student, in no particular order, with its row id. A row
+     * id is assigned on insert and kept through updates. Engines may hand out the
+     * row id of a deleted row again (MySQL before 8.0 restarts AUTO_INCREMENT at
+     * max(id) + 1), so two reads saw the same values only if the row id, the
+     * student ID and the version all match.
+     * @param versionsOnly Fill in only the student ID and version, which is much cheaper to read
+     * @param visitor Receives each row (the same bean instance may be reused)
+     * @throws SQLException if the read fails
+     * @throws IOException if the visitor fails
+     */
+    void scanRows(boolean versionsOnly, RowVisitor visitor) throws SQLException, IOException;
+
+    /**
+     * Visits the given students with their row ids, like {@link #scanRows}
+     * restricted to those IDs; IDs that are not stored are skipped
+     * @param studentIds Students to read
+     * @param visitor Receives each row found (the same bean instance may be reused)
+     * @throws SQLException if the read fails
+     * @throws IOException if the visitor fails
+     */
+    void readRows(Collection<String> studentIds, RowVisitor visitor) throws SQLException, IOException;
+
+    /**
+     * @param studentId Student ID to search for
+     * @return StudentBean if found, null otherwise
+     */
+    StudentBean getStudentById(String studentId);
+
+    /**
+     * @return Number of students stored
+     */
+    int getStudentCount();
+
+    /**
+     * Replaces a student's name, marks, total, average and grade if the stored
+     * version still equals bean.getVersion(), incrementing the version in both
+     * @param bean Student with ID, version and recalculated grade fields set
+     * @return true if updated, false if no student has that ID
+     * @throws ConcurrentUpdateException if the stored version differs from bean's
+     * @throws SQLException if the update fails
+     */
+    boolean updateStudent(StudentBean bean) throws ConcurrentUpdateException, SQLException;
+
+    /**
+     * Writes recalculated total, average and grade for many students, each only
+     * if its stored version still equals the bean's; names and marks are not written
+     * @param beans Students with ID, version and the new total, average and grade set
+     * @return Per-row result: 1 if updated, 0 if the student is gone or was changed meanwhile
+     * @throws SQLException if the update fails
+     */
+    int[] updateGrades(List<StudentBean> beans) throws SQLException;
+
+    /**
+     * @param studentId Student ID to delete
+     * @return Success message or error message
+     */
+    String deleteStudent(String studentId);
+
+    /**
+     * Deletes many students as one unit
+     * @param studentIds IDs to delete; duplicates are ignored
+     * @return Outcome per distinct ID in input order: true if deleted, false if not found
+     * @throws SQLException if the delete fails (nothing is deleted)
+     */
+    Map<String, Boolean> deleteStudents(Collection<String> studentIds) throws SQLException;
+
+    /**
+     * Removes every student and resets the ID sequences
+     * @return Success message or error message
+     */
+    String clearAllStudents();
+}
@@ -0,0 +1,14 @@
+package com.wipro.studentgrade.dao;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import java.io.IOException;
+
+/**
+ * Receives rows from {@link StudentRepository#streamStudents} as they are read.
+ * The same StudentBean instance is reused for every row, so copy any values
+ * that must outlive the call.
+ */
+@FunctionalInterface
+public interface StudentVisitor {
+    void visit(StudentBean student) throws IOException;
+}
@@ -0,0 +1,649 @@
+package com.wipro.studentgrade.service;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.dao.StudentChangeListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented in-memory copy of every student, for analytics.
+ *
+ * Each attribute is a primitive array indexed by row:
+ * - marks and the average are byte[] (0-100), the total a short[]
+ * - the grade is a byte code into a small dictionary
+ * - names are codes into a dictionary, so a repeated name is stored once
+ * - a student ID is a dictionary code for its prefix plus the sequence number
+ *
+ * A student costs about 30 bytes in columns, plus about 25 in the ID index.
+ * As a StudentBean with its Strings it costs around 250. Aggregates, top-N and rank
+ * scan the relevant column in a tight loop, with no objects or boxing per row.
+ *
+ * Loaded once from the students read at startup and kept current from
+ * change events. A delete moves the last row into the hole, so row order
+ * means nothing. Dictionary entries are never removed. Scans share a read
+ * lock, so they run concurrently with each other but not with writes.
+ */
+public class ColumnarGradeStore implements StudentChangeListener {
+	/** Column numbers: mark1..mark5 are 0..4. */
+	public static final int SUBJECTS = 5;
+	public static final int TOTAL = 5;
+	public static final int AVERAGE = 6;
+	private static final String[] COLUMN_NAMES = { "mark1", "mark2", "mark3", "mark4", "mark5", "total", "average" };
+	private static final int[] COLUMN_MAX = { 100, 100, 100, 100, 100, 500, 100 };
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private int size;
+	private byte[][] marks = new byte[SUBJECTS][];
+	private short[] total;
+	private byte[] average;
+	private byte[] gradeCode;
+	private int[] nameCode;
+	private int[] idPrefix;
+	private int[] idNumber;
+	private int[] version;
+
+	private final Dictionary names = new Dictionary();
+	private final Dictionary grades = new Dictionary();
+	private final Dictionary prefixes = new Dictionary();
+	private final LongIntIndex rowsById = new LongIntIndex();
+
+	/** Aggregates of one column. */
+	public static final class Summary {
+		public final int count;
+		public final long sum;
+		public final int min;
+		public final int max;
+		public final double mean;
+		public final double stdDev;
+		public final int p50;
+		public final int p90;
+		public final int p99;
+
+		Summary(long[] histogram, int count) {
+			long s = 0, squares = 0;
+			int lo = -1, hi = -1;
+			for (int v = 0; v < histogram.length; v++) {
+				long n = histogram[v];
+				if (n == 0) continue;
+				if (lo < 0) lo = v;
+				hi = v;
+				s += n * v;
+				squares += n * v * v;
+			}
+			this.count = count;
+			this.sum = s;
+			this.min = Math.max(lo, 0);
+			this.max = Math.max(hi, 0);
+			this.mean = count == 0 ? 0 : (double) s / count;
+			this.stdDev = count == 0 ? 0 : Math.sqrt(Math.max(0, (double) squares / count - mean * mean));
+			this.p50 = percentile(histogram, count, 50);
+			this.p90 = percentile(histogram, count, 90);
+			this.p99 = percentile(histogram, count, 99);
+		}
+
+		// Nearest-rank percentile over the histogram
+		private static int percentile(long[] h, long n, int p) {
+			if (n == 0) return 0;
+			long rank = Math.max(1, (n * p + 99) / 100);
+			long seen = 0;
+			for (int v = 0; v < h.length; v++) {
+				seen += h[v];
+				if (seen >= rank) return v;
+			}
+			return h.length - 1;
+		}
+	}
+
+	public ColumnarGradeStore() {
+		allocate(1024);
+	}
+
+	/**
+	 * @param name mark1..mark5, total or average
+	 * @return Column number, or -1 if there is no such column
+	 */
+	public static int column(String name) {
+		for (int c = 0; c < COLUMN_NAMES.length; c++) {
+			if (COLUMN_NAMES[c].equalsIgnoreCase(name)) return c;
+		}
+		return -1;
+	}
+
+	public static String columnName(int column) {
+		return COLUMN_NAMES[column];
+	}
+
+	/**
+	 * Replaces the contents with students already in memory
+	 * @param students Every stored student
+	 */
+	public void load(Collection<StudentBean> students) {
+		ColumnarGradeStore fresh = new ColumnarGradeStore();
+		for (StudentBean s : students) {
+			fresh.append(s);
+		}
+		replaceWith(fresh);
+	}
+
+	private void replaceWith(ColumnarGradeStore fresh) {
+		lock.writeLock().lock();
+		try {
+			size = fresh.size;
+			marks = fresh.marks;
+			total = fresh.total;
+			average = fresh.average;
+			gradeCode = fresh.gradeCode;
+			nameCode = fresh.nameCode;
+			idPrefix = fresh.idPrefix;
+			idNumber = fresh.idNumber;
+			version = fresh.version;
+			names.copyFrom(fresh.names);
+			grades.copyFrom(fresh.grades);
+			prefixes.copyFrom(fresh.prefixes);
+			rowsById.copyFrom(fresh.rowsById);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return Approximate heap bytes used by the columns, dictionaries and ID index
+	 */
+	public long memoryBytes() {
+		lock.readLock().lock();
+		try {
+			long capacity = total.length;
+			long bytes = capacity * (SUBJECTS + 2 + 1 + 1 + 4 + 4 + 4 + 4);
+			bytes += rowsById.memoryBytes();
+			bytes += names.memoryBytes() + grades.memoryBytes() + prefixes.memoryBytes();
+			return bytes;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return A copy of the student, or null if not present
+	 */
+	public StudentBean get(String studentId) {
+		lock.readLock().lock();
+		try {
+			int row = findRow(studentId);
+			return row < 0 ? null : materialize(row);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Counts students per value of a column
+	 * @param column Column number
+	 * @return Array indexed by value (0..100, or 0..500 for the total)
+	 */
+	public long[] histogram(int column) {
+		lock.readLock().lock();
+		try {
+			return histogramLocked(column);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public Summary summarize(int column) {
+		lock.readLock().lock();
+		try {
+			return new Summary(histogramLocked(column), size);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return Number of students per grade, in grade order
+	 */
+	public NavigableMap<String, Long> gradeDistribution() {
+		lock.readLock().lock();
+		try {
+			long[] counts = new long[256];
+			byte[] codes = gradeCode;
+			for (int r = 0, n = size; r < n; r++) {
+				counts[codes[r] & 0xff]++;
+			}
+			NavigableMap<String, Long> distribution = new TreeMap<>();
+			for (int code = 0; code < Math.min(grades.size(), counts.length); code++) {
+				// Code of "" stands for students without a grade
+				if (counts[code] > 0 && !grades.get(code).isEmpty()) distribution.put(grades.get(code), counts[code]);
+			}
+			return distribution;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds the students with the highest values in a column without sorting
+	 * everyone. A histogram pass finds the cut-off value and a second pass
+	 * collects the rows at or above it.
+	 * @param n Number of students wanted
+	 * @param column Column to rank by
+	 * @return Up to n students, highest first, ties by student ID
+	 */
+	public List<StudentBean> top(int n, int column) {
+		lock.readLock().lock();
+		try {
+			if (n <= 0 || size == 0) return new ArrayList<>();
+			long[] histogram = histogramLocked(column);
+			int cutoff = histogram.length - 1;
+			long seen = histogram[cutoff];
+			while (cutoff > 0 && seen < n) {
+				seen += histogram[--cutoff];
+			}
+
+			List<StudentBean> top = new ArrayList<>((int) Math.min(seen, Integer.MAX_VALUE));
+			for (int r = 0; r < size; r++) {
+				if (value(column, r) >= cutoff) top.add(materialize(r));
+			}
+			top.sort((a, b) -> {
+				int cmp = Integer.compare(valueOf(column, b), valueOf(column, a));
+				return cmp != 0 ? cmp : a.getStudentId().compareTo(b.getStudentId());
+			});
+			return top.size() > n ? new ArrayList<>(top.subList(0, n)) : top;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @param studentId Student to rank
+	 * @param column Column to rank by
+	 * @return 1 + the number of students with a higher value (ties share a rank), or -1 if not present
+	 */
+	public int rank(String studentId, int column) {
+		lock.readLock().lock();
+		try {
+			int row = findRow(studentId);
+			if (row < 0) return -1;
+			int v = value(column, row);
+			int above = 0;
+			if (column == TOTAL) {
+				short[] values = total;
+				for (int r = 0, n = size; r < n; r++) {
+					if (values[r] > v) above++;
+				}
+			} else {
+				byte[] values = column == AVERAGE ? average : marks[column];
+				for (int r = 0, n = size; r < n; r++) {
+					if ((values[r] & 0xff) > v) above++;
+				}
+			}
+			return above + 1;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public void studentInserted(StudentBean student) {
+		lock.writeLock().lock();
+		try {
+			append(student);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void studentUpdated(StudentBean before, StudentBean after) {
+		lock.writeLock().lock();
+		try {
+			int row = findRow(after.getStudentId());
+			if (row < 0) {
+				append(after);
+			} else {
+				setRow(row, after);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void studentDeleted(StudentBean student) {
+		lock.writeLock().lock();
+		try {
+			int row = findRow(student.getStudentId());
+			if (row < 0) return;
+			rowsById.remove(idKey(row));
+			int last = --size;
+			if (row != last) {
+				copyRow(last, row);
+				rowsById.put(idKey(row), row);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void studentsCleared() {
+		lock.writeLock().lock();
+		try {
+			size = 0;
+			rowsById.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void append(StudentBean student) {
+		int existing = findRow(student.getStudentId());
+		if (existing >= 0) {
+			setRow(existing, student);
+			return;
+		}
+		if (size == total.length) {
+			grow(size * 2);
+		}
+		int row = size++;
+		setRow(row, student);
+		rowsById.put(idKey(row), row);
+	}
+
+	private void setRow(int row, StudentBean s) {
+		marks[0][row] = (byte) s.getMark1();
+		marks[1][row] = (byte) s.getMark2();
+		marks[2][row] = (byte) s.getMark3();
+		marks[3][row] = (byte) s.getMark4();
+		marks[4][row] = (byte) s.getMark5();
+		total[row] = (short) s.getTotal();
+		average[row] = (byte) s.getAverage();
+		gradeCode[row] = (byte) grades.code(s.getGrade() == null ? "" : s.getGrade());
+		nameCode[row] = names.code(s.getName() == null ? "" : s.getName());
+		encodeId(row, s.getStudentId());
+		version[row] = s.getVersion();
+	}
+
+	private void copyRow(int from, int to) {
+		for (int c = 0; c < SUBJECTS; c++) {
+			marks[c][to] = marks[c][from];
+		}
+		total[to] = total[from];
+		average[to] = average[from];
+		gradeCode[to] = gradeCode[from];
+		nameCode[to] = nameCode[from];
+		idPrefix[to] = idPrefix[from];
+		idNumber[to] = idNumber[from];
+		version[to] = version[from];
+	}
+
+	private StudentBean materialize(int row) {
+		StudentBean bean = new StudentBean(names.get(nameCode[row]),
+			marks[0][row] & 0xff, marks[1][row] & 0xff, marks[2][row] & 0xff,
+			marks[3][row] & 0xff, marks[4][row] & 0xff);
+		bean.setStudentId(decodeId(row));
+		bean.setTotal(total[row]);
+		bean.setAverage(average[row] & 0xff);
+		String grade = grades.get(gradeCode[row] & 0xff);
+		bean.setGrade(grade.isEmpty() ? null : grade);
+		bean.setVersion(version[row]);
+		return bean;
+	}
+
+	private long[] histogramLocked(int column) {
+		long[] histogram = new long[COLUMN_MAX[column] + 1];
+		int n = size;
+		if (column == TOTAL) {
+			short[] values = total;
+			for (int r = 0; r < n; r++) {
+				histogram[values[r]]++;
+			}
+		} else {
+			byte[] values = column == AVERAGE ? average : marks[column];
+			for (int r = 0; r < n; r++) {
+				histogram[values[r] & 0xff]++;
+			}
+		}
+		return histogram;
+	}
+
+	private int value(int column, int row) {
+		if (column == TOTAL) return total[row];
+		return (column == AVERAGE ? average : marks[column])[row] & 0xff;
+	}
+
+	private static int valueOf(int column, StudentBean s) {
+		switch (column) {
+			case 0: return s.getMark1();
+			case 1: return s.getMark2();
+			case 2: return s.getMark3();
+			case 3: return s.getMark4();
+			case 4: return s.getMark5();
+			case TOTAL: return s.getTotal();
+			default: return s.getAverage();
+		}
+	}
+
+	private void allocate(int capacity) {
+		for (int c = 0; c < SUBJECTS; c++) {
+			marks[c] = new byte[capacity];
+		}
+		total = new short[capacity];
+		average = new byte[capacity];
+		gradeCode = new byte[capacity];
+		nameCode = new int[capacity];
+		idPrefix = new int[capacity];
+		idNumber = new int[capacity];
+		version = new int[capacity];
+	}
+
+	private void grow(int capacity) {
+		for (int c = 0; c < SUBJECTS; c++) {
+			marks[c] = Arrays.copyOf(marks[c], capacity);
+		}
+		total = Arrays.copyOf(total, capacity);
+		average = Arrays.copyOf(average, capacity);
+		gradeCode = Arrays.copyOf(gradeCode, capacity);
+		nameCode = Arrays.copyOf(nameCode, capacity);
+		idPrefix = Arrays.copyOf(idPrefix, capacity);
+		idNumber = Arrays.copyOf(idNumber, capacity);
+		version = Arrays.copyOf(version, capacity);
+	}
+
+	// --- Student IDs ---
+	// Generated IDs look like "JD007": a prefix and a sequence number padded to three
+	// digits. Those are stored as (prefix code, number). Any other ID is stored whole
+	// as a dictionary entry with number -1.
+
+	private int findRow(String studentId) {
+		if (studentId == null) return -1;
+		long key = key(studentId, false);
+		return key == -1 ? -1 : rowsById.get(key);
+	}
+
+	private long idKey(int row) {
+		return ((long) idPrefix[row] << 32) | (idNumber[row] & 0xffffffffL);
+	}
+
+	// Key of an ID; with create=false returns -1 when its prefix was never seen
+	private long key(String studentId, boolean create) {
+		int split = studentId.length();
+		while (split > 0 && Character.isDigit(studentId.charAt(split - 1))) split--;
+		int number = -1;
+		String prefix = studentId;
+		int digits = studentId.length() - split;
+		if (digits > 0 && digits <= 9) {
+			int n = Integer.parseInt(studentId.substring(split));
+			if (digits == Math.max(3, String.valueOf(n).length())) {
+				number = n;
+				prefix = studentId.substring(0, split);
+			}
+		}
+		int code = create ? prefixes.code(prefix) : prefixes.find(prefix);
+		return code < 0 ? -1 : ((long) code << 32) | (number & 0xffffffffL);
+	}
+
+	private void encodeId(int row, String studentId) {
+		long key = key(studentId == null ? "" : studentId, true);
+		idPrefix[row] = (int) (key >>> 32);
+		idNumber[row] = (int) key;
+	}
+
+	private String decodeId(int row) {
+		String prefix = prefixes.get(idPrefix[row]);
+		int number = idNumber[row];
+		if (number < 0) return prefix;
+		StringBuilder id = new StringBuilder(prefix.length() + 4).append(prefix);
+		if (number < 100) id.append('0');
+		if (number < 10) id.append('0');
+		return id.append(number).toString();
+	}
+
+	/** Maps strings to dense int codes and back. */
+	private static final class Dictionary {
+		private final Map<String, Integer> codes = new HashMap<>();
+		private final List<String> values = new ArrayList<>();
+
+		int code(String value) {
+			Integer code = codes.get(value);
+			if (code == null) {
+				code = values.size();
+				codes.put(value, code);
+				values.add(value);
+			}
+			return code;
+		}
+
+		int find(String value) {
+			Integer code = codes.get(value);
+			return code == null ? -1 : code;
+		}
+
+		String get(int code) {
+			return values.get(code);
+		}
+
+		int size() {
+			return values.size();
+		}
+
+		void copyFrom(Dictionary other) {
+			codes.clear();
+			codes.putAll(other.codes);
+			values.clear();
+			values.addAll(other.values);
+		}
+
+		long memoryBytes() {
+			long bytes = 0;
+			for (String v : values) {
+				bytes += 40 + v.length() + 48; // String, its array, and map entry
+			}
+			return bytes;
+		}
+	}
+
+	/** Open-addressing long -> int map with linear probing; keys are never -1. */
+	private static final class LongIntIndex {
+		private static final long EMPTY = -1;
+
+		private long[] keys = newKeys(1024);
+		private int[] values = new int[1024];
+		private int count;
+
+		private static long[] newKeys(int capacity) {
+			long[] k = new long[capacity];
+			Arrays.fill(k, EMPTY);
+			return k;
+		}
+
+		private int slot(long key) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32)) & (keys.length - 1);
+		}
+
+		int get(long key) {
+			for (int i = slot(key); ; i = (i + 1) & (keys.length - 1)) {
+				if (keys[i] == key) return values[i];
+				if (keys[i] == EMPTY) return -1;
+			}
+		}
+
+		void put(long key, int value) {
+			if ((count + 1) * 2 > keys.length) {
+				rehash(keys.length * 2);
+			}
+			int i = slot(key);
+			while (keys[i] != EMPTY && keys[i] != key) {
+				i = (i + 1) & (keys.length - 1);
+			}
+			if (keys[i] == EMPTY) count++;
+			keys[i] = key;
+			values[i] = value;
+		}
+
+		void remove(long key) {
+			int mask = keys.length - 1;
+			int i = slot(key);
+			while (keys[i] != key) {
+				if (keys[i] == EMPTY) return;
+				i = (i + 1) & mask;
+			}
+			// Backward-shift deletion keeps probe chains intact without tombstones
+			int gap = i;
+			for (int j = (gap + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+				int home = slot(keys[j]);
+				if (((j - home) & mask) >= ((j - gap) & mask)) {
+					keys[gap] = keys[j];
+					values[gap] = values[j];
+					gap = j;
+				}
+			}
+			keys[gap] = EMPTY;
+			count--;
+		}
+
+		void clear() {
+			Arrays.fill(keys, EMPTY);
+			count = 0;
+		}
+
+		void copyFrom(LongIntIndex other) {
+			keys = other.keys.clone();
+			values = other.values.clone();
+			count = other.count;
+		}
+
+		long memoryBytes() {
+			return keys.length * 12L;
+		}
+
+		private void rehash(int capacity) {
+			long[] oldKeys = keys;
+			int[] oldValues = values;
+			keys = newKeys(capacity);
+			values = new int[capacity];
+			count = 0;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+}
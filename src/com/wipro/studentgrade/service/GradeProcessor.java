@@ -2,12 +2,40 @@ package com.wipro.studentgrade.service;
 
 import com.wipro.studentgrade.bean.StudentBean;
 import com.wipro.studentgrade.dao.StudentDAO;
+import com.wipro.studentgrade.dao.StudentQuery;
+import com.wipro.studentgrade.dao.StudentRepositories;
+import com.wipro.studentgrade.dao.StudentRepository;
 import com.wipro.studentgrade.util.DatabaseUtil;
 import com.wipro.studentgrade.util.InvalidMarkException;
-import java.util.Scanner;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
 
 public class GradeProcessor {
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final Object REGRADE_LOCK = new Object();
+    private static volatile GradingPolicy policy = loadPolicy();
+    
+    private final StudentRepository dao;
+    
+    public GradeProcessor() {
+        this(StudentRepositories.get());
+    }
+    
+    /**
+     * @param dao Repository used to allocate IDs and store graded students
+     */
+    public GradeProcessor(StudentRepository dao) {
+        this.dao = dao;
+    }
     
     /**
      * Validates marks, calculates total, average, assigns grade
@@ -16,23 +44,10 @@ public class GradeProcessor {
      */
     public String generateGrade(StudentBean bean) {
         try {
-            // Validate marks
-            validateMarks(bean);
-            
-            // Calculate total and average
-            int total = bean.getMark1() + bean.getMark2() + bean.getMark3() + bean.getMark4() + bean.getMark5();
-            int average = total / 5;
-            
-            // Assign grade
-            String grade = assignGrade(average);
-            
-            // Set calculated values
-            bean.setTotal(total);
-            bean.setAverage(average);
-            bean.setGrade(grade);
+            // Validate marks, calculate total and average, assign grade
+            calculateGrade(bean);
             
             // Generate student ID
-            StudentDAO dao = new StudentDAO();
             String studentId = dao.generateId(bean.getName());
             bean.setStudentId(studentId);
             
@@ -40,7 +55,7 @@ public class GradeProcessor {
             String insertResult = dao.insertStudent(bean);
             
             return String.format("Student ID: %s\nName: %s\nTotal: %d\nAverage: %d\nGrade: %s\n%s", 
-                               studentId, bean.getName(), total, average, grade, insertResult);
+                               studentId, bean.getName(), bean.getTotal(), bean.getAverage(), bean.getGrade(), insertResult);
             
         } catch (InvalidMarkException e) {
             return "Error: " + e.toString();
@@ -50,36 +65,321 @@ public class GradeProcessor {
     }
     
     /**
-     * Validates that all marks are between 0 and 100
+     * Grades and stores many students, overlapping grading with database writes.
+     * Uses chunks of the configured jdbc.batchSize.
+     * @param beans Students to add (IDs are assigned)
+     * @return Counts, rejected rows and per-stage timings
+     * @throws SQLException if storage fails (chunks written before stay stored)
+     * @see #processBatch(List, int)
+     */
+    public BatchResult processBatch(List<StudentBean> beans) throws SQLException {
+        return processBatch(beans, StudentDAO.getDefaultBatchSize());
+    }
+    
+    /**
+     * Grades and stores many students as a two-stage pipeline.
+     * 
+     * The input is cut into chunks. Each chunk is validated, graded and given IDs
+     * as a fork/join task on the common pool, so several chunks are computed at
+     * once. Meanwhile the calling thread writes finished chunks, in input order,
+     * through {@link StudentRepository#insertStudents(List, int)}. At most a few chunks
+     * are computed ahead of the writer, which bounds memory on large inputs.
+     * No per-student result strings are built.
+     * @param beans Students to add (IDs are assigned)
+     * @param chunkSize Students per chunk, JDBC batch and transaction
+     * @return Counts, rejected rows and per-stage timings
+     * @throws SQLException if storage fails (chunks written before stay stored)
+     */
+    public BatchResult processBatch(List<StudentBean> beans, int chunkSize) throws SQLException {
+        int size = Math.max(1, chunkSize);
+        BatchResult result = new BatchResult(beans.size());
+        long start = System.nanoTime();
+        
+        int chunks = (beans.size() + size - 1) / size;
+        int window = ForkJoinPool.getCommonPoolParallelism() + 1;
+        ArrayDeque<CompletableFuture<Chunk>> computing = new ArrayDeque<>();
+        int submitted = 0;
+        for (int c = 0; c < chunks; c++) {
+            while (submitted < chunks && computing.size() < window) {
+                int from = submitted * size;
+                int to = Math.min(beans.size(), from + size);
+                computing.add(CompletableFuture.supplyAsync(() -> computeChunk(beans, from, to, result)));
+                submitted++;
+            }
+            
+            long waitStart = System.nanoTime();
+            Chunk chunk = computing.removeFirst().join();
+            long writeStart = System.nanoTime();
+            result.writerWaitNanos += writeStart - waitStart;
+            
+            if (!chunk.beans.isEmpty()) {
+                int[] inserted = dao.insertStudents(chunk.beans, size);
+                for (int i = 0; i < inserted.length; i++) {
+                    if (inserted[i] > 0) {
+                        result.inserted++;
+                    } else {
+                        result.reject(chunk.indexes[i], "Rejected by database (student " + chunk.beans.get(i).getStudentId() + ")");
+                    }
+                }
+            }
+            result.writeNanos += System.nanoTime() - writeStart;
+        }
+        
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+    
+    // Stage 1: runs on a fork/join worker
+    private Chunk computeChunk(List<StudentBean> beans, int from, int to, BatchResult result) {
+        Chunk chunk = new Chunk(to - from);
+        for (int i = from; i < to; i++) {
+            StudentBean bean = beans.get(i);
+            long t0 = System.nanoTime();
+            try {
+                calculateGrade(bean);
+            } catch (InvalidMarkException e) {
+                result.reject(i, e.getMessage());
+                continue;
+            } finally {
+                result.gradeNanos.add(System.nanoTime() - t0);
+            }
+            
+            long t1 = System.nanoTime();
+            try {
+                bean.setStudentId(dao.generateId(bean.getName()));
+                chunk.add(bean, i);
+            } catch (RuntimeException e) {
+                result.reject(i, e.getMessage());
+            } finally {
+                result.idNanos.add(System.nanoTime() - t1);
+            }
+        }
+        return chunk;
+    }
+    
+    // Graded students of one chunk and their positions in the input
+    private static final class Chunk {
+        final List<StudentBean> beans;
+        final int[] indexes;
+        
+        Chunk(int capacity) {
+            this.beans = new ArrayList<>(capacity);
+            this.indexes = new int[capacity];
+        }
+        
+        void add(StudentBean bean, int index) {
+            indexes[beans.size()] = index;
+            beans.add(bean);
+        }
+    }
+    
+    /**
+     * Outcome of {@link #processBatch}.
+     * 
+     * Grade and ID times are summed over all worker threads. Because they overlap
+     * with the writes, they can add up to more than the elapsed time. Writer wait
+     * is how long the writer sat idle waiting for grading. If it is high,
+     * computation is the bottleneck. If it is near zero, the database is.
+     */
+    public static final class BatchResult {
+        private final int total;
+        private int inserted;
+        private int rejected;
+        private final List<RowError> errors = new ArrayList<>();
+        private final LongAdder gradeNanos = new LongAdder();
+        private final LongAdder idNanos = new LongAdder();
+        private long writeNanos;
+        private long writerWaitNanos;
+        private long elapsedNanos;
+        
+        BatchResult(int total) {
+            this.total = total;
+        }
+        
+        private synchronized void reject(int index, String reason) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(index, reason));
+            }
+        }
+        
+        public int getTotal() {
+            return total;
+        }
+        
+        public int getInserted() {
+            return inserted;
+        }
+        
+        public synchronized int getRejected() {
+            return rejected;
+        }
+        
+        /**
+         * @return Rejected rows, sorted by input position (at most 1000 are kept)
+         */
+        public synchronized List<RowError> getErrors() {
+            List<RowError> sorted = new ArrayList<>(errors);
+            sorted.sort((a, b) -> Integer.compare(a.index, b.index));
+            return Collections.unmodifiableList(sorted);
+        }
+        
+        public double getElapsedMillis() {
+            return elapsedNanos / 1e6;
+        }
+        
+        /**
+         * @return Students stored per second of elapsed time
+         */
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : inserted / (elapsedNanos / 1e9);
+        }
+        
+        public double getGradeMillis() {
+            return gradeNanos.sum() / 1e6;
+        }
+        
+        public double getIdMillis() {
+            return idNanos.sum() / 1e6;
+        }
+        
+        public double getWriteMillis() {
+            return writeNanos / 1e6;
+        }
+        
+        public double getWriterWaitMillis() {
+            return writerWaitNanos / 1e6;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                "%d of %d students stored, %d rejected in %.1f ms (%.0f students/s); "
+                + "grade %.1f ms, IDs %.1f ms, write %.1f ms, writer waited %.1f ms",
+                inserted, total, getRejected(), getElapsedMillis(), getThroughput(),
+                getGradeMillis(), getIdMillis(), getWriteMillis(), getWriterWaitMillis());
+        }
+    }
+    
+    /** A student that was not stored. */
+    public static final class RowError {
+        /** Position in the list passed to processBatch. */
+        public final int index;
+        public final String reason;
+        
+        RowError(int index, String reason) {
+            this.index = index;
+            this.reason = reason;
+        }
+    }
+    
+    /**
+     * Validates marks and sets total, average and grade on the bean using the active grading policy
      * @param bean StudentBean object
      * @throws InvalidMarkException if marks are invalid
      */
-    private void validateMarks(StudentBean bean) throws InvalidMarkException {
-        if (bean.getMark1() < 0 || bean.getMark1() > 100 ||
-            bean.getMark2() < 0 || bean.getMark2() > 100 ||
-            bean.getMark3() < 0 || bean.getMark3() > 100 ||
-            bean.getMark4() < 0 || bean.getMark4() > 100 ||
-            bean.getMark5() < 0 || bean.getMark5() > 100) {
-            throw new InvalidMarkException("Marks must be between 0 and 100");
+    public void calculateGrade(StudentBean bean) throws InvalidMarkException {
+        policy.grade(bean);
+    }
+    
+    /**
+     * @return The grading policy applied to new and updated students
+     */
+    public static GradingPolicy getPolicy() {
+        return policy;
+    }
+    
+    /**
+     * Switches the grading policy. Students already stored keep their grades until {@link #regradeAll()}.
+     * @param newPolicy Policy to apply from now on
+     */
+    public static void setPolicy(GradingPolicy newPolicy) {
+        policy = newPolicy;
+    }
+    
+    private static GradingPolicy loadPolicy() {
+        try {
+            return GradingPolicy.loadConfigured(null);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error loading grading.properties, using the standard scheme: " + e.getMessage());
+            return GradingPolicy.standard();
         }
     }
     
     /**
-     * Assigns grade based on average marks
-     * @param average Average marks
-     * @return Grade (A, B, C, D, or F)
+     * Re-grades every stored student with the active policy, for use after the policy changes.
+     * 
+     * Students are read a page at a time in ID order. Only those whose total,
+     * average or grade change are written back, through
+     * {@link StudentRepository#updateGrades(List)}. Writers keep running meanwhile:
+     * they already use the new policy, and a student edited between the read and the
+     * write is skipped instead of overwritten.
+     * @return Counts of examined, re-graded and skipped students
+     * @throws SQLException if reading or writing fails
      */
-    private String assignGrade(int average) {
-        if (average >= 90) {
-            return "A";
-        } else if (average >= 75) {
-            return "B";
-        } else if (average >= 60) {
-            return "C";
-        } else if (average >= 40) {
-            return "D";
-        } else {
-            return "F";
+    public RegradeResult regradeAll() throws SQLException {
+        synchronized (REGRADE_LOCK) {
+            long start = System.nanoTime();
+            GradingPolicy active = policy;
+            int pageSize = StudentDAO.getDefaultBatchSize();
+            StudentQuery query = new StudentQuery();
+            query.setDescending(false);
+            query.setLimit(pageSize);
+            
+            int examined = 0;
+            int regraded = 0;
+            int skipped = 0;
+            List<StudentBean> changed = new ArrayList<>(pageSize);
+            do {
+                changed.clear();
+                int[] invalid = new int[1];
+                try {
+                    examined += dao.streamStudents(query, stored -> {
+                        StudentBean bean = new StudentBean(stored);
+                        try {
+                            active.grade(bean);
+                        } catch (InvalidMarkException e) {
+                            invalid[0]++; // Marks outside the new policy's range: leave as graded
+                            return;
+                        }
+                        if (bean.getTotal() != stored.getTotal() || bean.getAverage() != stored.getAverage()
+                                || !bean.getGrade().equals(stored.getGrade())) {
+                            changed.add(bean);
+                        }
+                    });
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                skipped += invalid[0];
+                
+                if (!changed.isEmpty()) {
+                    int[] results = dao.updateGrades(changed);
+                    for (int r : results) {
+                        if (r > 0) regraded++; else skipped++;
+                    }
+                }
+                query.setAfter(query.getNextCursor());
+            } while (query.getNextCursor() != null);
+            
+            return new RegradeResult(active, examined, regraded, skipped, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+    
+    /** Outcome of {@link #regradeAll()}. */
+    public static final class RegradeResult {
+        public final GradingPolicy policy;
+        public final int examined;
+        public final int regraded;
+        /** Students left as they were: edited meanwhile, deleted, or with marks the policy rejects. */
+        public final int skipped;
+        public final long millis;
+        
+        RegradeResult(GradingPolicy policy, int examined, int regraded, int skipped, long millis) {
+            this.policy = policy;
+            this.examined = examined;
+            this.regraded = regraded;
+            this.skipped = skipped;
+            this.millis = millis;
         }
     }
     
@@ -87,7 +387,6 @@ public class GradeProcessor {
      * Displays all stored student records from database
      */
     private void displayAllStudents() {
-        StudentDAO dao = new StudentDAO();
         List<StudentBean> students = dao.getAllStudents();
         
         if (students.isEmpty()) {
@@ -151,7 +450,6 @@ public class GradeProcessor {
         System.out.print("Enter Student ID to delete: ");
         String studentId = scanner.nextLine();
         
-        StudentDAO dao = new StudentDAO();
         String result = dao.deleteStudent(studentId);
         System.out.println(result);
     }
@@ -166,7 +464,6 @@ public class GradeProcessor {
         String confirmation = scanner.nextLine().toLowerCase();
         
         if (confirmation.equals("yes")) {
-            StudentDAO dao = new StudentDAO();
             String result = dao.clearAllStudents();
             System.out.println(result);
         } else {
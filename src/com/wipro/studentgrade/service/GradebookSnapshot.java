@@ -0,0 +1,519 @@
+package com.wipro.studentgrade.service;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.dao.StudentChangeListener;
+import com.wipro.studentgrade.dao.StudentRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary snapshot of every stored student, so a restart can load the
+ * in-memory views without reading each row from storage.
+ *
+ * Every student is also held here with its row id, kept current from change
+ * events. A background thread writes that copy every interval in which
+ * students changed, into a temporary file that replaces the old one in one
+ * atomic rename; requests never wait for it. Only students inserted since the
+ * last snapshot are read from storage, to learn their row ids. Each row is
+ * stored with its row id and version.
+ *
+ * {@link #restore} maps the snapshot read-only, checks its CRC-32C and then
+ * reads only row ids, student IDs and versions from storage: rows where all
+ * three match are taken from the snapshot and the rest (added or changed since it
+ * was written) are fetched by ID. A missing or damaged snapshot, or one
+ * so old that most rows changed, falls back to reading everything.
+ *
+ * The snapshot is only a cache. ID sequences stay in storage, which already
+ * keeps them durably, so a stale snapshot can never cause an ID to be reused.
+ */
+public class GradebookSnapshot implements StudentChangeListener {
+	private static final int MAGIC = 0x53475353; // "SGSS"
+	private static final int FORMAT_VERSION = 1;
+	// Magic, format version, creation time
+	private static final int HEADER = 16;
+	// Row count, CRC-32C of everything before it
+	private static final int TRAILER = 8;
+	// Row id, version, mark1..mark5, total, average; then student ID, name and grade
+	private static final int ROW_FIXED = 40;
+	// Beyond this share of changed rows, one full read beats fetching them one by one
+	private static final double MAX_CHANGED_RATIO = 0.25;
+
+	private final StudentRepository dao;
+	private final Path path;
+	private final AtomicLong changes = new AtomicLong();
+	private final LongAdder writes = new LongAdder();
+	private volatile long students = -1;
+	private volatile long takenMillis;
+	private ScheduledExecutorService scheduler;
+
+	// Every stored student by ID, what the next snapshot is written from; guarded by itself
+	private final HashMap<String, Saved> current = new HashMap<>();
+
+	// A student as stored; the beans are never changed, so they can be shared
+	private static final class Saved {
+		// 0 for a row inserted since startup until a snapshot reads its row id
+		final long rowId;
+		final StudentBean student;
+
+		Saved(long rowId, StudentBean student) {
+			this.rowId = rowId;
+			this.student = student;
+		}
+	}
+
+	// A snapshot's students indexed by row id; open addressing with linear probing
+	private static final class Rows {
+		final StudentBean[] students;
+		final long[] rowIds;
+		final int[] positions;
+
+		Rows(int count) {
+			this.students = new StudentBean[count];
+			int capacity = Integer.highestOneBit(Math.max(16, count * 2 - 1)) << 1;
+			this.rowIds = new long[capacity];
+			this.positions = new int[capacity];
+		}
+
+		private int slot(long rowId) {
+			long h = rowId * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32)) & (rowIds.length - 1);
+		}
+
+		// Row ids start at 1, so 0 marks a free slot
+		void put(long rowId, int position) throws IOException {
+			if (rowId <= 0) {
+				throw new IOException("invalid row id " + rowId);
+			}
+			int i = slot(rowId);
+			while (rowIds[i] != 0) {
+				if (rowIds[i] == rowId) {
+					throw new IOException("row id " + rowId + " appears twice");
+				}
+				i = (i + 1) & (rowIds.length - 1);
+			}
+			rowIds[i] = rowId;
+			positions[i] = position;
+		}
+
+		StudentBean get(long rowId) {
+			if (rowId <= 0) return null;
+			for (int i = slot(rowId); ; i = (i + 1) & (rowIds.length - 1)) {
+				if (rowIds[i] == rowId) return students[positions[i]];
+				if (rowIds[i] == 0) return null;
+			}
+		}
+	}
+
+	/**
+	 * @param dao Storage the snapshot is taken from and checked against
+	 * @param path Snapshot file; a sibling .tmp file is used while writing
+	 */
+	public GradebookSnapshot(StudentRepository dao, Path path) {
+		this.dao = dao;
+		this.path = path;
+	}
+
+	/**
+	 * Reads every stored student, for when there is no snapshot to start from
+	 * @param dao DAO to read from
+	 * @return Every stored student
+	 * @throws SQLException if the read fails
+	 */
+	public static List<StudentBean> loadAll(StudentRepository dao) throws SQLException {
+		List<StudentBean> students = new ArrayList<>();
+		try {
+			dao.scanRows(false, (rowId, s) -> students.add(new StudentBean(s)));
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return students;
+	}
+
+	/**
+	 * Loads every stored student from the snapshot plus the rows changed since it was written.
+	 * Call it before registering this listener; later snapshots are written from what it loaded.
+	 * @return Every stored student; the beans are also kept here, so they must not be changed
+	 * @throws SQLException if reading from storage fails
+	 */
+	public List<StudentBean> restore() throws SQLException {
+		long start = System.nanoTime();
+		Rows saved = read();
+		if (saved == null) {
+			return restoreAll(start, "no usable snapshot");
+		}
+
+		// A row is unchanged when its row id, student ID and version all match. Row ids alone are
+		// not enough: MySQL before 8.0 hands out max(id) + 1 again after a restart, so a
+		// recreated newest row can get the row id of a deleted one
+		Map<String, Saved> loaded = new HashMap<>(saved.students.length * 2);
+		List<String> changed = new ArrayList<>();
+		try {
+			dao.scanRows(true, (rowId, s) -> {
+				StudentBean row = saved.get(rowId);
+				if (row != null && row.getVersion() == s.getVersion() && row.getStudentId().equals(s.getStudentId())) {
+					loaded.put(row.getStudentId(), new Saved(rowId, row));
+				} else {
+					changed.add(s.getStudentId());
+				}
+			});
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		if (changed.size() > (loaded.size() + changed.size()) * MAX_CHANGED_RATIO) {
+			return restoreAll(start, changed.size() + " rows changed since the snapshot");
+		}
+
+		int matched = loaded.size();
+		try {
+			// Rows deleted since the version scan are simply not found
+			dao.readRows(changed, (rowId, s) -> loaded.put(s.getStudentId(), new Saved(rowId, new StudentBean(s))));
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		if (!changed.isEmpty() || matched != saved.students.length) {
+			// Rewrite at the next interval so the following restart has less to fetch
+			changes.incrementAndGet();
+		}
+		List<StudentBean> restored = remember(loaded);
+		System.out.printf("Gradebook snapshot %s: %d students restored, %d changed since it was taken %d s ago, in %d ms%n",
+			path, restored.size(), changed.size(), Math.max(0, System.currentTimeMillis() - takenMillis) / 1000,
+			(System.nanoTime() - start) / 1_000_000);
+		return restored;
+	}
+
+	private List<StudentBean> restoreAll(long start, String reason) throws SQLException {
+		Map<String, Saved> loaded = new HashMap<>();
+		try {
+			dao.scanRows(false, (rowId, s) -> loaded.put(s.getStudentId(), new Saved(rowId, new StudentBean(s))));
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		changes.incrementAndGet();
+		List<StudentBean> all = remember(loaded);
+		System.out.printf("Gradebook loaded %d students from storage (%s) in %d ms%n",
+			all.size(), reason, (System.nanoTime() - start) / 1_000_000);
+		return all;
+	}
+
+	private List<StudentBean> remember(Map<String, Saved> loaded) {
+		List<StudentBean> all = new ArrayList<>(loaded.size());
+		synchronized (current) {
+			current.clear();
+			for (Saved saved : loaded.values()) {
+				current.put(saved.student.getStudentId(), saved);
+				all.add(saved.student);
+			}
+		}
+		students = all.size();
+		return all;
+	}
+
+	// Null when the file is missing, unreadable, damaged or of another format
+	private Rows read() {
+		if (!Files.isRegularFile(path)) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER + TRAILER || size > Integer.MAX_VALUE) {
+				throw new IOException("unexpected size " + size);
+			}
+			MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			int end = (int) size - TRAILER;
+			if (map.getInt(0) != MAGIC || map.getInt(4) != FORMAT_VERSION) {
+				throw new IOException("not a version " + FORMAT_VERSION + " gradebook snapshot");
+			}
+			CRC32C crc = new CRC32C();
+			crc.update(map.slice(0, end + 4));
+			if ((int) crc.getValue() != map.getInt(end + 4)) {
+				throw new IOException("checksum mismatch");
+			}
+
+			int count = map.getInt(end);
+			if (count < 0 || count > (end - HEADER) / (ROW_FIXED + 12)) {
+				throw new IOException("row count does not match the file");
+			}
+			Rows rows = new Rows(count);
+			int p = HEADER;
+			for (int i = 0; i < count; i++) {
+				rows.put(map.getLong(p), i);
+				rows.students[i] = decode(map, p);
+				p = rowEnd(map, p);
+			}
+			if (p != end) {
+				throw new IOException("row count does not match the file");
+			}
+			takenMillis = map.getLong(8);
+			return rows;
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Ignoring gradebook snapshot " + path + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	private static StudentBean decode(MappedByteBuffer map, int p) {
+		StudentBean s = new StudentBean();
+		s.setVersion(map.getInt(p + 8));
+		s.setMark1(map.getInt(p + 12));
+		s.setMark2(map.getInt(p + 16));
+		s.setMark3(map.getInt(p + 20));
+		s.setMark4(map.getInt(p + 24));
+		s.setMark5(map.getInt(p + 28));
+		s.setTotal(map.getInt(p + 32));
+		s.setAverage(map.getInt(p + 36));
+		int at = p + ROW_FIXED;
+		s.setStudentId(readString(map, at));
+		at += 4 + Math.max(0, map.getInt(at));
+		s.setName(readString(map, at));
+		at += 4 + Math.max(0, map.getInt(at));
+		s.setGrade(readString(map, at));
+		return s;
+	}
+
+	private static int rowEnd(MappedByteBuffer map, int p) {
+		int at = p + ROW_FIXED;
+		for (int field = 0; field < 3; field++) {
+			at += 4 + Math.max(0, map.getInt(at));
+		}
+		return at;
+	}
+
+	private static String readString(MappedByteBuffer map, int at) {
+		int length = map.getInt(at);
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		map.get(at + 4, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes a snapshot every intervalSeconds in which students changed
+	 * @param intervalSeconds How often to check; 0 or less leaves the writing to {@link #stop}
+	 */
+	public synchronized void start(long intervalSeconds) {
+		if (scheduler != null || intervalSeconds <= 0) {
+			return;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "gradebook-snapshot");
+			t.setDaemon(true);
+			return t;
+		});
+		scheduler.scheduleWithFixedDelay(this::writeIfChanged, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Stops the background writes and takes a last snapshot if anything changed
+	 */
+	public void stop() {
+		ScheduledExecutorService s;
+		synchronized (this) {
+			s = scheduler;
+			scheduler = null;
+		}
+		if (s != null) {
+			s.shutdown();
+			try {
+				s.awaitTermination(30, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+		writeIfChanged();
+	}
+
+	private void writeIfChanged() {
+		long seen = changes.get();
+		if (seen == 0) {
+			return;
+		}
+		try {
+			write();
+			// Changes made while writing may be missing from it, so they count toward the next one
+			changes.addAndGet(-seen);
+		} catch (IOException | SQLException | RuntimeException e) {
+			System.err.println("Error writing gradebook snapshot: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes a snapshot of every student held here now. Students inserted since
+	 * the last snapshot are read from storage for their row ids; one that
+	 * changed again meanwhile is left out until the next snapshot, and restore
+	 * fetches it like any other changed row.
+	 * @return Number of students written
+	 * @throws SQLException if reading from storage fails
+	 * @throws IOException if the file cannot be written (the previous snapshot stays)
+	 */
+	public synchronized int write() throws SQLException, IOException {
+		List<Saved> rows = new ArrayList<>();
+		List<String> inserted = new ArrayList<>();
+		synchronized (current) {
+			for (Saved saved : current.values()) {
+				if (saved.rowId > 0) {
+					rows.add(saved);
+				} else {
+					inserted.add(saved.student.getStudentId());
+				}
+			}
+		}
+		if (!inserted.isEmpty()) {
+			dao.readRows(inserted, (rowId, s) -> {
+				synchronized (current) {
+					// Unchanged since the read, so the row id belongs to exactly these values
+					Saved saved = current.get(s.getStudentId());
+					if (saved != null && saved.rowId == 0 && sameRow(saved.student, s)) {
+						Saved found = new Saved(rowId, saved.student);
+						current.put(s.getStudentId(), found);
+						rows.add(found);
+					}
+				}
+			});
+		}
+
+		Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+		long created = System.currentTimeMillis();
+		try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE)) {
+			CRC32C crc = new CRC32C();
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new CheckedOutputStream(Channels.newOutputStream(channel), crc), 65536));
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeLong(created);
+			for (Saved saved : rows) {
+				StudentBean s = saved.student;
+				out.writeLong(saved.rowId);
+				out.writeInt(s.getVersion());
+				out.writeInt(s.getMark1());
+				out.writeInt(s.getMark2());
+				out.writeInt(s.getMark3());
+				out.writeInt(s.getMark4());
+				out.writeInt(s.getMark5());
+				out.writeInt(s.getTotal());
+				out.writeInt(s.getAverage());
+				writeString(out, s.getStudentId());
+				writeString(out, s.getName());
+				writeString(out, s.getGrade());
+			}
+			out.writeInt(rows.size());
+			out.flush();
+			out.writeInt((int) crc.getValue());
+			out.flush();
+			channel.force(true);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(tmp);
+			throw e;
+		}
+		try {
+			Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+		takenMillis = created;
+		students = rows.size();
+		writes.increment();
+		return rows.size();
+	}
+
+	private static boolean sameRow(StudentBean a, StudentBean b) {
+		return a.getVersion() == b.getVersion()
+			&& a.getMark1() == b.getMark1() && a.getMark2() == b.getMark2() && a.getMark3() == b.getMark3()
+			&& a.getMark4() == b.getMark4() && a.getMark5() == b.getMark5()
+			&& a.getTotal() == b.getTotal() && a.getAverage() == b.getAverage()
+			&& Objects.equals(a.getStudentId(), b.getStudentId()) && Objects.equals(a.getName(), b.getName())
+			&& Objects.equals(a.getGrade(), b.getGrade());
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * @return Snapshots written since startup
+	 */
+	public long getWriteCount() {
+		return writes.sum();
+	}
+
+	/**
+	 * @return Students in the last snapshot written or restored, -1 before either
+	 */
+	public long getStudentCount() {
+		return students;
+	}
+
+	/**
+	 * @return Seconds since the current snapshot was taken, -1 if there is none
+	 */
+	public long getAgeSeconds() {
+		return takenMillis == 0 ? -1 : (System.currentTimeMillis() - takenMillis) / 1000;
+	}
+
+	@Override
+	public void studentInserted(StudentBean student) {
+		synchronized (current) {
+			current.put(student.getStudentId(), new Saved(0, student));
+		}
+		changes.incrementAndGet();
+	}
+
+	@Override
+	public void studentUpdated(StudentBean before, StudentBean after) {
+		synchronized (current) {
+			// Updates keep the row id
+			Saved saved = current.get(after.getStudentId());
+			current.put(after.getStudentId(), new Saved(saved != null ? saved.rowId : 0, after));
+		}
+		changes.incrementAndGet();
+	}
+
+	@Override
+	public void studentDeleted(StudentBean student) {
+		synchronized (current) {
+			current.remove(student.getStudentId());
+		}
+		changes.incrementAndGet();
+	}
+
+	@Override
+	public void studentsCleared() {
+		synchronized (current) {
+			current.clear();
+		}
+		changes.incrementAndGet();
+	}
+}
@@ -0,0 +1,227 @@
+package com.wipro.studentgrade.service;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.util.InvalidMarkException;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A grading scheme compiled into lookup tables.
+ *
+ * A scheme sets how many of the five mark columns count, the maximum mark,
+ * a weight per subject and a grade scale on the weighted percentage. The
+ * weighted points sum(weight x mark) have a small fixed range, so the
+ * percentage and grade of every possible points value are computed once. Grading a
+ * student is then a multiply-add over the marks and one array access.
+ *
+ * Schemes are read from grading.properties in the working directory:
+ *   grading.scheme=standard
+ *   scheme.standard.subjects=5
+ *   scheme.standard.maxMark=100
+ *   scheme.standard.weights=1,1,1,1,1
+ *   scheme.standard.scale=A:90,B:75,C:60,D:40,F:0
+ * The scale lists grades from the highest minimum percentage down and must end at 0.
+ * Without the file the built-in standard scheme, shown above, is used.
+ */
+public final class GradingPolicy {
+	/** Mark columns in the students table. */
+	public static final int MAX_SUBJECTS = 5;
+	private static final String CONFIG_FILE = "grading.properties";
+
+	private final String name;
+	private final int subjects;
+	private final int maxMark;
+	private final int[] weights;
+	private final String[] grades;
+	private final int[] minimums;
+
+	// Indexed by weighted points, 0..maxMark * sum(weights)
+	private final byte[] averageByPoints;
+	private final String[] gradeByPoints;
+
+	private GradingPolicy(String name, int subjects, int maxMark, int[] weights, String[] grades, int[] minimums) {
+		if (subjects < 1 || subjects > MAX_SUBJECTS) {
+			throw new IllegalArgumentException("subjects must be between 1 and " + MAX_SUBJECTS);
+		}
+		if (maxMark < 1 || maxMark > 100) {
+			throw new IllegalArgumentException("maxMark must be between 1 and 100");
+		}
+		if (weights.length != subjects) {
+			throw new IllegalArgumentException("Expected " + subjects + " weights, got " + weights.length);
+		}
+		int weightSum = 0;
+		for (int w : weights) {
+			if (w < 0 || w > 1000) throw new IllegalArgumentException("Weights must be between 0 and 1000");
+			weightSum += w;
+		}
+		if (weightSum == 0) {
+			throw new IllegalArgumentException("At least one weight must be positive");
+		}
+		if (grades.length == 0 || minimums[minimums.length - 1] != 0) {
+			throw new IllegalArgumentException("The scale must end with a grade at 0");
+		}
+		for (int i = 0; i < grades.length; i++) {
+			if (grades[i].isEmpty() || grades[i].length() > 2) {
+				throw new IllegalArgumentException("Grades must be 1 or 2 characters: '" + grades[i] + "'");
+			}
+			if (minimums[i] < 0 || minimums[i] > 100 || (i > 0 && minimums[i] >= minimums[i - 1])) {
+				throw new IllegalArgumentException("Scale minimums must fall from at most 100 to 0");
+			}
+		}
+
+		this.name = name;
+		this.subjects = subjects;
+		this.maxMark = maxMark;
+		this.weights = Arrays.copyOf(weights, MAX_SUBJECTS); // Uncounted subjects weigh 0
+		this.grades = grades;
+		this.minimums = minimums;
+
+		int maxPoints = maxMark * weightSum;
+		this.averageByPoints = new byte[maxPoints + 1];
+		this.gradeByPoints = new String[maxPoints + 1];
+		for (int p = 0; p <= maxPoints; p++) {
+			int percent = (int) (100L * p / maxPoints);
+			averageByPoints[p] = (byte) percent;
+			int g = 0;
+			while (percent < minimums[g]) g++;
+			gradeByPoints[p] = grades[g];
+		}
+	}
+
+	/**
+	 * @return Five equally weighted subjects out of 100, graded A 90+, B 75+, C 60+, D 40+, F
+	 */
+	public static GradingPolicy standard() {
+		return new GradingPolicy("standard", 5, 100, new int[] { 1, 1, 1, 1, 1 },
+			new String[] { "A", "B", "C", "D", "F" }, new int[] { 90, 75, 60, 40, 0 });
+	}
+
+	/**
+	 * Reads grading.properties from the working directory
+	 * @param scheme Scheme to use, or null for the file's grading.scheme
+	 * @return The compiled scheme, or the standard one if the file is missing and no scheme was asked for
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if the scheme is missing or invalid
+	 */
+	public static GradingPolicy loadConfigured(String scheme) throws IOException {
+		Properties props = new Properties();
+		try (FileInputStream fis = new FileInputStream(CONFIG_FILE)) {
+			props.load(fis);
+		} catch (FileNotFoundException e) {
+			if (scheme == null || "standard".equals(scheme)) {
+				return standard();
+			}
+			throw new IllegalArgumentException("Unknown grading scheme: " + scheme);
+		}
+		return fromProperties(props, scheme);
+	}
+
+	/**
+	 * Compiles one scheme out of scheme.&lt;name&gt;.* properties
+	 * @param props Loaded properties
+	 * @param scheme Scheme name, or null for grading.scheme (default "standard")
+	 * @throws IllegalArgumentException if the scheme is missing or invalid
+	 */
+	public static GradingPolicy fromProperties(Properties props, String scheme) {
+		String name = scheme != null ? scheme : props.getProperty("grading.scheme", "standard").trim();
+		String prefix = "scheme." + name + ".";
+		String scale = props.getProperty(prefix + "scale");
+		if (scale == null) {
+			if ("standard".equals(name)) return standard();
+			throw new IllegalArgumentException("Unknown grading scheme: " + name);
+		}
+
+		try {
+			int subjects = Integer.parseInt(props.getProperty(prefix + "subjects", "5").trim());
+			int maxMark = Integer.parseInt(props.getProperty(prefix + "maxMark", "100").trim());
+			String weightList = props.getProperty(prefix + "weights");
+			int[] weights = new int[subjects];
+			if (weightList == null) {
+				Arrays.fill(weights, 1);
+			} else {
+				weights = Arrays.stream(weightList.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+			}
+
+			List<String> grades = new ArrayList<>();
+			List<Integer> minimums = new ArrayList<>();
+			for (String step : scale.split(",")) {
+				int colon = step.lastIndexOf(':');
+				if (colon < 0) throw new IllegalArgumentException("Scale entries look like A:90, got '" + step.trim() + "'");
+				grades.add(step.substring(0, colon).trim());
+				minimums.add(Integer.parseInt(step.substring(colon + 1).trim()));
+			}
+			return new GradingPolicy(name, subjects, maxMark, weights,
+				grades.toArray(new String[0]), minimums.stream().mapToInt(Integer::intValue).toArray());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid number in grading scheme " + name + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Validates marks and sets total, average (weighted percentage) and grade on the bean
+	 * @param bean Student with marks set
+	 * @throws InvalidMarkException if a mark is outside 0..maxMark
+	 */
+	public void grade(StudentBean bean) throws InvalidMarkException {
+		int m1 = bean.getMark1(), m2 = bean.getMark2(), m3 = bean.getMark3(), m4 = bean.getMark4(), m5 = bean.getMark5();
+		if ((m1 | m2 | m3 | m4 | m5) < 0 || m1 > maxMark || m2 > maxMark || m3 > maxMark || m4 > maxMark || m5 > maxMark) {
+			throw new InvalidMarkException("Marks must be between 0 and " + maxMark);
+		}
+
+		int[] w = weights;
+		int points = w[0] * m1 + w[1] * m2 + w[2] * m3 + w[3] * m4 + w[4] * m5;
+		int total = m1;
+		if (subjects > 1) total += m2;
+		if (subjects > 2) total += m3;
+		if (subjects > 3) total += m4;
+		if (subjects > 4) total += m5;
+
+		bean.setTotal(total);
+		bean.setAverage(averageByPoints[points]);
+		bean.setGrade(gradeByPoints[points]);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getSubjects() {
+		return subjects;
+	}
+
+	public int getMaxMark() {
+		return maxMark;
+	}
+
+	/**
+	 * @return Weight of each counted subject
+	 */
+	public int[] getWeights() {
+		return Arrays.copyOf(weights, subjects);
+	}
+
+	/**
+	 * @return Grade to minimum percentage, highest grade first
+	 */
+	public Map<String, Integer> getScale() {
+		Map<String, Integer> scale = new LinkedHashMap<>();
+		for (int i = 0; i < grades.length; i++) {
+			scale.put(grades[i], minimums[i]);
+		}
+		return scale;
+	}
+
+	@Override
+	public String toString() {
+		return name + " (" + subjects + " subjects out of " + maxMark + ", weights " + Arrays.toString(getWeights())
+			+ ", scale " + getScale() + ")";
+	}
+}
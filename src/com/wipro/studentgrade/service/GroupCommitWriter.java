@@ -0,0 +1,210 @@
+package com.wipro.studentgrade.service;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.dao.StudentRepository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous insert path that commits many requests' students in one transaction.
+ *
+ * Requests put graded students, IDs already assigned, on a bounded queue and get a
+ * future. One writer thread takes everything waiting, up to maxGroupRows, and
+ * inserts it with {@link StudentRepository#insertStudents(List, int)} as a single batch
+ * and transaction. Each future completes after that commit. While one group
+ * commits, the next accumulates, so under load the number of commits (and fsyncs)
+ * stays roughly constant however many requests arrive. An optional window
+ * makes the writer wait a little for a fuller group even when it is idle.
+ *
+ * When the queue holds maxQueuedRows students, {@link #submit} refuses new work
+ * so the caller can answer 429 rather than letting memory or latency grow.
+ */
+public class GroupCommitWriter {
+	private final StudentRepository dao;
+	private final int maxQueuedRows;
+	private final int maxGroupRows;
+	private final long windowNanos;
+
+	private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+	private final AtomicInteger queuedRows = new AtomicInteger();
+	private final Thread writer;
+	private volatile boolean accepting = true;
+
+	private final LongAdder groups = new LongAdder();
+	private final LongAdder rows = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+
+	// One request's students and the future it waits on
+	private static final class Pending {
+		final List<StudentBean> students;
+		final CompletableFuture<int[]> done = new CompletableFuture<>();
+
+		Pending(List<StudentBean> students) {
+			this.students = students;
+		}
+	}
+
+	// Queued by shutdown() after the last accepted request
+	private static final Pending STOP = new Pending(List.of());
+
+	/**
+	 * @param dao DAO to insert with
+	 * @param maxQueuedRows Students that may wait before submissions are refused
+	 * @param maxGroupRows Students committed per transaction, at most (one request's students are never split)
+	 * @param windowMillis How long the writer waits for more students before committing a group that is not full; 0 commits at once
+	 */
+	public GroupCommitWriter(StudentRepository dao, int maxQueuedRows, int maxGroupRows, long windowMillis) {
+		this.dao = dao;
+		this.maxQueuedRows = Math.max(1, maxQueuedRows);
+		this.maxGroupRows = Math.max(1, maxGroupRows);
+		this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMillis));
+		this.writer = new Thread(this::run, "group-commit-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Queues students for the next group commit
+	 * @param students Graded students with IDs and version set; not to be modified until the future completes
+	 * @return Future completing after the commit with a per-student result (1 inserted, 0 rejected),
+	 *         or null if the queue is full or the writer has shut down
+	 */
+	public CompletableFuture<int[]> submit(List<StudentBean> students) {
+		int n = students.size();
+		while (true) {
+			int queued = queuedRows.get();
+			// An oversized request is still accepted into an empty queue, or it could never succeed
+			if (!accepting || (queued > 0 && queued + n > maxQueuedRows)) {
+				rejected.increment();
+				return null;
+			}
+			if (queuedRows.compareAndSet(queued, queued + n)) break;
+		}
+		Pending pending = new Pending(students);
+		queue.add(pending);
+		return pending.done;
+	}
+
+	public int getQueuedRows() {
+		return queuedRows.get();
+	}
+
+	/** Transactions committed so far. */
+	public long getGroupCount() {
+		return groups.sum();
+	}
+
+	/** Students written so far, inserted or rejected by the database. */
+	public long getRowCount() {
+		return rows.sum();
+	}
+
+	/** Submissions refused because the queue was full. */
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	/**
+	 * Stops accepting students, commits everything already queued and stops the writer
+	 * @param timeoutMillis Longest time to wait for the queue to drain
+	 */
+	public void shutdown(long timeoutMillis) {
+		accepting = false;
+		// A sentinel rather than an interrupt: an interrupt landing during a commit
+		// would stay pending and fail every later connection borrow of the drain
+		queue.add(STOP);
+		try {
+			writer.join(timeoutMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void run() {
+		List<Pending> group = new ArrayList<>();
+		boolean stopping = false;
+		while (true) {
+			Pending first;
+			try {
+				// After STOP, drain what is left without blocking
+				first = stopping ? queue.poll() : queue.take();
+			} catch (InterruptedException e) {
+				stopping = true;
+				continue;
+			}
+			if (first == null) break;
+			if (first == STOP) {
+				stopping = true;
+				continue;
+			}
+			group.add(first);
+			int groupRows = first.students.size();
+			long deadline = System.nanoTime() + windowNanos;
+
+			while (groupRows < maxGroupRows) {
+				Pending next = queue.peek();
+				if (next == STOP) break;
+				if (next == null) {
+					long wait = deadline - System.nanoTime();
+					if (wait <= 0 || stopping || !accepting) break;
+					try {
+						next = queue.poll(wait, TimeUnit.NANOSECONDS);
+					} catch (InterruptedException e) {
+						stopping = true;
+						break;
+					}
+					if (next == null) break;
+					if (next == STOP) {
+						stopping = true;
+						break;
+					}
+					group.add(next);
+					groupRows += next.students.size();
+					continue;
+				}
+				if (groupRows + next.students.size() > maxGroupRows) break;
+				group.add(queue.poll());
+				groupRows += next.students.size();
+			}
+			commit(group);
+			group.clear();
+		}
+		// Anything queued after the final drain check
+		Pending left;
+		while ((left = queue.poll()) != null) {
+			left.done.completeExceptionally(new IllegalStateException("Writer has shut down"));
+		}
+	}
+
+	private void commit(List<Pending> group) {
+		List<StudentBean> students = new ArrayList<>();
+		for (Pending p : group) {
+			students.addAll(p.students);
+		}
+		try {
+			int[] results = dao.insertStudents(students, students.size());
+			groups.increment();
+			rows.add(students.size());
+			int offset = 0;
+			for (Pending p : group) {
+				int n = p.students.size();
+				p.done.complete(Arrays.copyOfRange(results, offset, offset + n));
+				offset += n;
+			}
+		} catch (SQLException | RuntimeException e) {
+			for (Pending p : group) {
+				p.done.completeExceptionally(e);
+			}
+		} finally {
+			queuedRows.addAndGet(-students.size());
+		}
+	}
+}
@@ -1,65 +1,322 @@
 package com.wipro.studentgrade.service;
 
+import com.sun.net.httpserver.Filter;
 import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.dao.LogStudentRepository;
+import com.wipro.studentgrade.dao.StudentCache;
 import com.wipro.studentgrade.dao.StudentDAO;
+import com.wipro.studentgrade.dao.StudentEvents;
+import com.wipro.studentgrade.dao.StudentQuery;
+import com.wipro.studentgrade.dao.StudentRepositories;
+import com.wipro.studentgrade.dao.StudentRepository;
+import com.wipro.studentgrade.util.ConcurrentUpdateException;
+import com.wipro.studentgrade.util.ConnectionPool;
+import com.wipro.studentgrade.util.DatabaseUtil;
+import com.wipro.studentgrade.util.InvalidMarkException;
+import com.wipro.studentgrade.util.JsonReader;
+import com.wipro.studentgrade.util.JsonWriter;
+import com.wipro.studentgrade.util.MalformedJsonException;
+import com.wipro.studentgrade.util.Metrics;
+import com.wipro.studentgrade.util.ServerConfig;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.InetSocketAddress;
 import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 public class HttpApiServer {
+	private static final int MAX_PAGE_SIZE = 1000;
+	private static final int MAX_STUDENTS_PER_REQUEST = 1000;
+	// Exchange attributes: the endpoint metricsFilter records into, and a mark that the handler records it instead
+	private static final String ENDPOINT_ATTRIBUTE = "studentgrade.endpoint";
+	private static final String RECORDED_LATER_ATTRIBUTE = "studentgrade.recordedLater";
+
 	private final int port;
 	private final GradeProcessor gradeProcessor;
-	private final StudentDAO studentDAO;
+	private final StudentRepository studentDAO;
+	private final StatisticsAggregator statistics;
+	private final StudentRanking ranking;
+	private final StudentSearchIndex search;
+	private StudentEventBroadcaster events;
+	private ColumnarGradeStore columnar;
+	private GradebookSnapshot snapshot;
+	private GroupCommitWriter asyncWriter;
+	private ExecutorService asyncResponders;
+	private HttpServer server;
+	private RequestExecutor executor;
 
 	public HttpApiServer(int port) {
 		this.port = port;
 		this.gradeProcessor = new GradeProcessor();
-		this.studentDAO = new StudentDAO();
+		this.studentDAO = StudentRepositories.get();
+		this.statistics = new StatisticsAggregator();
+		this.ranking = new StudentRanking();
+		this.search = new StudentSearchIndex();
 	}
 
 	public void start() throws IOException {
-		HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+		server = HttpServer.create(new InetSocketAddress(port), ServerConfig.getInt("server.backlog", 0));
+		executor = new RequestExecutor();
+		
+		// Load every student once (from the snapshot when there is one) and seed the
+		// in-memory views from that list before any request can write, then keep them current
+		// The log engine reads its own mapped file about as fast as a snapshot, so it needs none by default
+		if (ServerConfig.getBoolean("snapshot.enabled", DatabaseUtil.usesJdbcStorage())) {
+			snapshot = new GradebookSnapshot(studentDAO, Paths.get(ServerConfig.get("snapshot.path", "gradebook.snapshot")));
+		}
+		List<StudentBean> students;
+		try {
+			students = snapshot != null ? snapshot.restore() : GradebookSnapshot.loadAll(studentDAO);
+		} catch (SQLException e) {
+			System.err.println("Error loading students: " + e.getMessage());
+			students = new ArrayList<>();
+		}
+		statistics.seed(students);
+		StudentEvents.addListener(statistics);
+		ranking.seed(students);
+		StudentEvents.addListener(ranking);
+		search.seed(students);
+		StudentEvents.addListener(search);
+		if (snapshot != null) {
+			StudentEvents.addListener(snapshot);
+			snapshot.start(ServerConfig.getLong("snapshot.intervalSeconds", 300));
+		}
+		// Registered after statistics so the aggregates it publishes include each change
+		events = new StudentEventBroadcaster(statistics,
+			ServerConfig.getInt("sse.maxSubscribers", 1000),
+			ServerConfig.getInt("sse.maxQueuedEvents", 5000),
+			ServerConfig.getInt("sse.replayEvents", 1000),
+			ServerConfig.getInt("sse.heartbeatSeconds", 15),
+			ServerConfig.getInt("sse.writerThreads", 2));
+		StudentEvents.addListener(events);
+		if (ServerConfig.getBoolean("write.async", false)) {
+			asyncWriter = new GroupCommitWriter(studentDAO,
+				ServerConfig.getInt("write.queueCapacity", 10000),
+				ServerConfig.getInt("write.maxGroupSize", 1000),
+				ServerConfig.getLong("write.groupWindowMillis", 0));
+			// Sends the 201s once a group has committed, so the writer never waits on a client
+			AtomicInteger responderIds = new AtomicInteger();
+			asyncResponders = Executors.newFixedThreadPool(ServerConfig.getInt("write.responderThreads", 2), r -> {
+				Thread t = new Thread(r, "write-ack-" + responderIds.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		if (ServerConfig.getBoolean("analytics.columnar", false)) {
+			columnar = new ColumnarGradeStore();
+			columnar.load(students);
+			StudentEvents.addListener(columnar);
+		}
 		
 		// Serve static files from web directory
-		server.createContext("/", new StaticFileHandler(Paths.get("..", "web")));
+		register("/", new StaticFileHandler(Paths.get("..", "web")));
 		
 		// API endpoints
-		server.createContext("/api/students", new StudentsHandler());
-		server.createContext("/api/students/delete", new DeleteStudentHandler());
-		server.createContext("/api/students/clear", new ClearStudentsHandler());
-		server.createContext("/api/students/bulk-delete", new BulkDeleteHandler());
-		server.createContext("/api/students/update", new UpdateStudentHandler());
-		server.createContext("/api/statistics", new StatisticsHandler());
+		register("/api/students", new StudentsHandler());
+		register("/api/students/delete", new DeleteStudentHandler());
+		register("/api/students/clear", new ClearStudentsHandler());
+		register("/api/students/bulk-delete", new BulkDeleteHandler());
+		register("/api/students/update", new UpdateStudentHandler());
+		register("/api/students/import", new ImportHandler());
+		register("/api/students/events", new EventsHandler());
+		register("/api/students/export", new ExportHandler());
+		register("/api/students/rank", new RankHandler());
+		register("/api/students/top", new TopHandler());
+		register("/api/students/search", new SearchHandler());
+		register("/api/statistics", new StatisticsHandler());
+		register("/api/grading", new GradingHandler());
+		register("/api/metrics", new MetricsHandler());
+		if (columnar != null) {
+			register("/api/analytics", new AnalyticsHandler());
+		}
+		
+		registerGauges();
 		
-		server.setExecutor(null);
+		server.setExecutor(executor);
 		System.out.println("Professional Student Grade System started at http://localhost:" + port);
+		System.out.println("Request executor: " + executor.getMode());
 		System.out.println("Open your browser and go to: http://localhost:" + port);
 		server.start();
 	}
 
-	// Serves static files from web directory
+	/**
+	 * @return Port the server is listening on (useful when constructed with port 0)
+	 */
+	public int getPort() {
+		return server != null ? server.getAddress().getPort() : port;
+	}
+
+	public void stop(int delaySeconds) {
+		StudentEvents.removeListener(statistics);
+		StudentEvents.removeListener(ranking);
+		StudentEvents.removeListener(search);
+		if (events != null) {
+			StudentEvents.removeListener(events);
+			events.shutdown();
+		}
+		if (columnar != null) StudentEvents.removeListener(columnar);
+		if (snapshot != null) {
+			StudentEvents.removeListener(snapshot);
+			snapshot.stop();
+		}
+		if (asyncWriter != null) {
+			asyncWriter.shutdown(5000);
+			asyncResponders.shutdown();
+		}
+		if (server != null) server.stop(delaySeconds);
+		if (executor != null) executor.shutdown();
+		Metrics.unregister("http_");
+		Metrics.unregister("sse_");
+		Metrics.unregister("write_");
+		Metrics.unregister("search_");
+		Metrics.unregister("log_");
+		Metrics.unregister("snapshot_");
+	}
+
+	private HttpContext register(String path, HttpHandler handler) {
+		HttpContext context = server.createContext(path, handler);
+		context.getFilters().add(metricsFilter(Metrics.endpoint(path)));
+		context.getFilters().add(executor.loadShedFilter());
+		return context;
+	}
+
+	// Counts the status and latency of each exchange, including ones shed with 503
+	private static Filter metricsFilter(Metrics.Endpoint endpoint) {
+		return new Filter() {
+			@Override
+			public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+				long start = System.nanoTime();
+				exchange.setAttribute(ENDPOINT_ATTRIBUTE, endpoint);
+				try {
+					chain.doFilter(exchange);
+				} catch (IOException | RuntimeException e) {
+					if (exchange.getAttribute(RECORDED_LATER_ATTRIBUTE) == null) {
+						int status = exchange.getResponseCode();
+						endpoint.record(status == -1 ? 500 : status, start);
+					}
+					throw e;
+				}
+				// A handler answering later from another thread records it there (see recordLater)
+				if (exchange.getAttribute(RECORDED_LATER_ATTRIBUTE) == null) {
+					int status = exchange.getResponseCode();
+					endpoint.record(status == -1 ? 500 : status, start);
+				}
+			}
+
+			@Override
+			public String description() {
+				return "Records request counts by status and latency for /api/metrics";
+			}
+		};
+	}
+
+	/**
+	 * Takes over recording an exchange that is answered after its handler returns.
+	 * Must be called before anything can send the response, so the status
+	 * metricsFilter sees is never that answer.
+	 * @return The endpoint to record into once the response is sent
+	 */
+	private static Metrics.Endpoint recordLater(HttpExchange exchange) {
+		exchange.setAttribute(RECORDED_LATER_ATTRIBUTE, Boolean.TRUE);
+		return (Metrics.Endpoint) exchange.getAttribute(ENDPOINT_ATTRIBUTE);
+	}
+
+	// Values other components already keep, read when /api/metrics is scraped
+	private void registerGauges() {
+		ConnectionPool pool = DatabaseUtil.getPool();
+		if (pool != null) {
+			Metrics.gauge("db_pool_active_connections", "Connections borrowed from the pool", pool::getActiveCount);
+			Metrics.gauge("db_pool_idle_connections", "Open connections waiting in the pool", pool::getIdleCount);
+			Metrics.gauge("db_pool_max_connections", "Pool size limit", pool::getMaxSize);
+			Metrics.gauge("db_pool_pending_threads", "Threads waiting for a connection", pool::getPendingCount);
+			Metrics.counter("db_pool_timeouts_total", "Borrows that timed out", pool::getTimeoutCount);
+			Metrics.counter("db_pool_created_total", "Physical connections opened", pool::getCreatedCount);
+			Metrics.counter("db_pool_leaks_total", "Connections held past pool.leakDetectionThresholdMillis and logged as possible leaks (not reclaimed)", pool::getLeakCount);
+		}
+		// The log engine reads from memory and needs no cache in front of it
+		StudentCache cache = studentDAO instanceof StudentDAO ? StudentDAO.getCache() : null;
+		if (cache != null) {
+			Metrics.gauge("cache_entries", "Students in the lookup cache", cache::size);
+			Metrics.counter("cache_hits_total", "Lookups answered from the cache", cache::getHits);
+			Metrics.counter("cache_misses_total", "Lookups that went to the database", cache::getMisses);
+			Metrics.counter("cache_evictions_total", "Entries evicted to stay within cache.maxSize", cache::getEvictions);
+		}
+		if (studentDAO instanceof LogStudentRepository) {
+			LogStudentRepository log = (LogStudentRepository) studentDAO;
+			Metrics.gauge("log_bytes", "Bytes used in the student log, live and garbage", log::getLogBytes);
+			Metrics.gauge("log_garbage_bytes", "Bytes of superseded records the next compaction reclaims", log::getGarbageBytes);
+			Metrics.counter("log_compactions_total", "Student log compactions", log::getCompactionCount);
+		}
+		RequestExecutor requests = executor;
+		Metrics.gauge("http_in_flight_requests", "Exchanges running or queued", requests::getInFlight);
+		Metrics.counter("http_shed_total", "Requests answered 503 because the server was saturated", requests::getShedCount);
+		StudentEventBroadcaster broadcaster = events;
+		Metrics.gauge("sse_subscribers", "Connected event stream clients", broadcaster::getSubscriberCount);
+		if (asyncWriter != null) {
+			GroupCommitWriter writer = asyncWriter;
+			Metrics.gauge("write_queued_students", "Students waiting for a group commit", writer::getQueuedRows);
+			Metrics.counter("write_groups_total", "Group commits", writer::getGroupCount);
+			Metrics.counter("write_rejected_total", "Submissions refused with 429", writer::getRejectedCount);
+		}
+		if (snapshot != null) {
+			GradebookSnapshot snap = snapshot;
+			Metrics.counter("snapshot_writes_total", "Gradebook snapshots written", snap::getWriteCount);
+			Metrics.gauge("snapshot_students", "Students in the last snapshot written or restored", snap::getStudentCount);
+			Metrics.gauge("snapshot_age_seconds", "Seconds since the current snapshot was taken", snap::getAgeSeconds);
+		}
+		Metrics.gauge("students", "Stored students", ranking::size);
+		Metrics.gauge("search_terms", "Distinct name words and IDs in the search index", search::getTermCount);
+	}
+
+	// Serves static files from web directory out of StaticAssetCache, with ETag/304 and gzip/deflate
 	private static class StaticFileHandler implements HttpHandler {
-		private final Path webDir;
-		StaticFileHandler(Path webDir) { this.webDir = webDir.normalize().toAbsolutePath(); }
+		private final StaticAssetCache assets;
+		private final String cacheControl;
+		
+		StaticFileHandler(Path webDir) {
+			this.assets = new StaticAssetCache(webDir,
+				ServerConfig.getLong("static.maxCachedFileBytes", 1024 * 1024),
+				ServerConfig.getLong("static.checkIntervalMillis", 1000));
+			int maxAge = ServerConfig.getInt("static.maxAgeSeconds", 0);
+			this.cacheControl = maxAge > 0 ? "public, max-age=" + maxAge : "no-cache";
+		}
 		
 		@Override
 		public void handle(HttpExchange exchange) throws IOException {
 			addCors(exchange.getResponseHeaders());
-			if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+			String method = exchange.getRequestMethod();
+			boolean head = "HEAD".equalsIgnoreCase(method);
+			if (!head && !"GET".equalsIgnoreCase(method)) {
 				respond(exchange, 405, "Method Not Allowed");
 				return;
 			}
@@ -67,27 +324,93 @@ public class HttpApiServer {
 			String path = exchange.getRequestURI().getPath();
 			if ("/".equals(path)) path = "/index.html";
 			
-			Path file = webDir.resolve(path.substring(1)).normalize();
-			if (!file.startsWith(webDir) || !Files.exists(file) || Files.isDirectory(file)) {
+			StaticAssetCache.Asset asset = assets.get(path);
+			if (asset == null) {
 				respond(exchange, 404, "File Not Found");
 				return;
 			}
 			
-			String contentType = getContentType(file.toString());
-			exchange.getResponseHeaders().set("Content-Type", contentType);
-			byte[] data = Files.readAllBytes(file);
-			exchange.sendResponseHeaders(200, data.length);
-			try (OutputStream os = exchange.getResponseBody()) { os.write(data); }
+			String encoding = null;
+			byte[] body = asset.identity;
+			String accept = getHeader(exchange, "Accept-Encoding");
+			if (asset.gzip != null && acceptsEncoding(accept, "gzip")) {
+				encoding = "gzip";
+				body = asset.gzip;
+			} else if (asset.deflate != null && acceptsEncoding(accept, "deflate")) {
+				encoding = "deflate";
+				body = asset.deflate;
+			}
+			String etag = asset.etagFor(encoding);
+			
+			Headers headers = exchange.getResponseHeaders();
+			headers.set("Content-Type", asset.contentType);
+			headers.set("ETag", etag);
+			headers.set("Cache-Control", cacheControl);
+			headers.set("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(
+				Instant.ofEpochMilli(asset.lastModified).atZone(ZoneOffset.UTC)));
+			headers.set("Vary", "Accept-Encoding");
+			if (encoding != null) headers.set("Content-Encoding", encoding);
+			
+			if (etagMatches(getHeader(exchange, "If-None-Match"), etag)) {
+				exchange.sendResponseHeaders(304, -1);
+				exchange.close();
+				return;
+			}
+			if (head) {
+				exchange.sendResponseHeaders(200, -1);
+				exchange.close();
+				return;
+			}
+			
+			if (asset.isStreamed()) {
+				// Large file: hand the channel to the response stream instead of reading it into memory
+				try (FileChannel channel = FileChannel.open(asset.file, StandardOpenOption.READ)) {
+					long size = channel.size();
+					exchange.sendResponseHeaders(200, size);
+					try (OutputStream os = exchange.getResponseBody()) {
+						WritableByteChannel target = Channels.newChannel(os);
+						long position = 0;
+						while (position < size) {
+							position += channel.transferTo(position, size - position, target);
+						}
+					}
+				}
+				return;
+			}
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream os = exchange.getResponseBody()) { os.write(body); }
 		}
 	}
 
-	private static String getContentType(String fileName) {
-		String name = fileName.toLowerCase();
-		if (name.endsWith(".html")) return "text/html; charset=utf-8";
-		if (name.endsWith(".css")) return "text/css; charset=utf-8";
-		if (name.endsWith(".js")) return "application/javascript; charset=utf-8";
-		if (name.endsWith(".json")) return "application/json; charset=utf-8";
-		return "application/octet-stream";
+	// True unless the coding is absent or refused with q=0
+	private static boolean acceptsEncoding(String header, String coding) {
+		if (header == null) return false;
+		for (String part : header.split(",")) {
+			String[] params = part.trim().split(";");
+			if (!params[0].trim().equalsIgnoreCase(coding) && !"*".equals(params[0].trim())) continue;
+			for (int i = 1; i < params.length; i++) {
+				String p = params[i].trim();
+				if (p.startsWith("q=")) {
+					try {
+						return Double.parseDouble(p.substring(2)) > 0;
+					} catch (NumberFormatException e) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private static boolean etagMatches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) return false;
+		for (String candidate : ifNoneMatch.split(",")) {
+			String tag = candidate.trim();
+			if (tag.startsWith("W/")) tag = tag.substring(2);
+			if (tag.equals("*") || tag.equals(etag)) return true;
+		}
+		return false;
 	}
 
 	private class StudentsHandler implements HttpHandler {
@@ -105,26 +428,236 @@ public class HttpApiServer {
 			}
 		}
 		
-		private void handleGet(HttpExchange exchange) throws IOException {
-			List<StudentBean> students = studentDAO.getAllStudents();
-			StringBuilder json = new StringBuilder("[");
+		// GET /api/students[?limit=&after=&sort=&order=&grade=&idPrefix=]
+		// With limit: one page (max 1000 rows), next page cursor in X-Next-Cursor.
+		// Without limit: every matching row, streamed with chunked encoding as it is read.
+		private void handleGet(HttpExchange exchange) throws IOException, SQLException {
+			Map<String, String> params = parseUrlEncoded(exchange.getRequestURI().getRawQuery());
+			StudentQuery query = readQuery(exchange, params);
+			if (query == null) {
+				return;
+			}
+			
+			if (params.containsKey("limit")) {
+				int limit = parseInt(params.get("limit"));
+				if (limit < 1) {
+					respondJson(exchange, 400, jsonMsg("error", "limit must be a positive number"));
+					return;
+				}
+				query.setLimit(Math.min(limit, MAX_PAGE_SIZE));
+				JsonWriter json = new JsonWriter();
+				json.beginArray();
+				studentDAO.streamStudents(query, s -> writeStudent(json, s));
+				json.endArray();
+				if (query.getNextCursor() != null) {
+					exchange.getResponseHeaders().set("X-Next-Cursor", query.getNextCursor());
+					exchange.getResponseHeaders().add("Access-Control-Expose-Headers", "X-Next-Cursor");
+				}
+				respondJson(exchange, 200, json);
+				return;
+			}
+			
+			// Headers go out with the first row, so a query that fails up front still gets a 500
+			exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+			JsonWriter[] body = new JsonWriter[1];
+			try {
+				studentDAO.streamStudents(query, s -> {
+					if (body[0] == null) {
+						exchange.sendResponseHeaders(200, 0);
+						body[0] = new JsonWriter(exchange.getResponseBody());
+						body[0].beginArray();
+					}
+					writeStudent(body[0], s);
+				});
+			} catch (SQLException | IOException e) {
+				if (body[0] == null) throw e;
+				// Mid-stream failure: headers are gone, so cut the response short
+				System.err.println("Error streaming students: " + e.getMessage());
+				exchange.close();
+				return;
+			}
+			if (body[0] == null) {
+				respond(exchange, 200, "[]");
+				return;
+			}
+			body[0].endArray();
+			body[0].flush();
+			exchange.getResponseBody().close();
+		}
+		
+		// POST /api/students with a form, one JSON student object, or a JSON array of students
+		private void handlePost(HttpExchange exchange) throws IOException, SQLException {
+			long received = System.nanoTime();
+			List<StudentBean> students;
+			boolean array = false;
+			try {
+				if (isJson(exchange)) {
+					JsonReader json = jsonBody(exchange);
+					array = json.peek() == JsonReader.Token.BEGIN_ARRAY;
+					students = StudentJsonBinder.readStudents(json, MAX_STUDENTS_PER_REQUEST);
+				} else {
+					students = List.of(formStudent(parseFormData(exchange)));
+				}
+			} catch (MalformedJsonException | IllegalArgumentException e) {
+				respondJson(exchange, 400, jsonMsg("error", e.getMessage()));
+				return;
+			}
+			
 			for (int i = 0; i < students.size(); i++) {
-				json.append(studentToJson(students.get(i)));
-				if (i < students.size() - 1) json.append(",");
+				StudentBean bean = students.get(i);
+				String where = array ? "Student " + (i + 1) + ": " : "";
+				if (bean.getName() == null || bean.getName().trim().isEmpty()) {
+					respondJson(exchange, 400, jsonMsg("error", where + "Name is required"));
+					return;
+				}
+				bean.setName(bean.getName().trim());
+				try {
+					gradeProcessor.calculateGrade(bean);
+				} catch (InvalidMarkException e) {
+					respondJson(exchange, 400, jsonMsg("error", where + e.getMessage()));
+					return;
+				}
+			}
+			for (StudentBean bean : students) {
+				bean.setVersion(0);
+				bean.setStudentId(studentDAO.generateId(bean.getName()));
 			}
-			json.append("]");
-			respondJson(exchange, 200, json.toString());
+			
+			if (asyncWriter != null) {
+				CompletableFuture<int[]> committed = asyncWriter.submit(students);
+				if (committed == null) {
+					exchange.getResponseHeaders().set("Retry-After", "1");
+					respondJson(exchange, 429, jsonMsg("error", "Too many pending writes, please retry"));
+					return;
+				}
+				// The request thread is released; the response goes out after the group commit
+				boolean isArray = array;
+				Metrics.Endpoint endpoint = recordLater(exchange);
+				committed.whenCompleteAsync((results, error) -> {
+					try {
+						if (error != null) {
+							respondJson(exchange, 500, jsonMsg("error", "Failed to insert student records: " + error.getMessage()));
+						} else {
+							respondInserted(exchange, isArray, students, results);
+						}
+					} catch (IOException e) {
+						exchange.close();
+					}
+					endpoint.record(exchange.getResponseCode(), received);
+				}, asyncResponders);
+				return;
+			}
+			
+			respondInserted(exchange, array, students, studentDAO.insertStudents(students));
 		}
 		
-		private void handlePost(HttpExchange exchange) throws IOException {
-			Map<String, String> data = parseFormData(exchange);
-			String name = data.getOrDefault("name", "");
-			int m1 = parseInt(data.get("m1")), m2 = parseInt(data.get("m2")), 
-				m3 = parseInt(data.get("m3")), m4 = parseInt(data.get("m4")), m5 = parseInt(data.get("m5"));
+		private void respondInserted(HttpExchange exchange, boolean array, List<StudentBean> students, int[] results) throws IOException {
+			JsonWriter json = new JsonWriter();
+			if (!array) {
+				if (results[0] <= 0) {
+					respondJson(exchange, 500, jsonMsg("error", "Failed to insert student record"));
+					return;
+				}
+				writeStudent(json, students.get(0));
+			} else {
+				// Rows the database rejected are left out; compare lengths to detect them
+				json.beginArray();
+				for (int i = 0; i < results.length; i++) {
+					if (results[i] > 0) writeStudent(json, students.get(i));
+				}
+				json.endArray();
+			}
+			respondJson(exchange, 201, json);
+		}
+	}
+
+	/**
+	 * Reads the sort, order, grade, idPrefix and after parameters shared by listing and export
+	 * @return The query, or null after answering 400
+	 */
+	private static StudentQuery readQuery(HttpExchange exchange, Map<String, String> params) throws IOException {
+		StudentQuery query = new StudentQuery();
+		StudentQuery.SortField sort = StudentQuery.SortField.fromParam(params.get("sort"));
+		if (sort == null) {
+			respondJson(exchange, 400, jsonMsg("error", "Unknown sort field: " + params.get("sort")));
+			return null;
+		}
+		query.setSort(sort);
+		String order = params.get("order");
+		query.setDescending(order == null ? sort == StudentQuery.SortField.CREATED : "desc".equalsIgnoreCase(order));
+		query.setGrade(params.get("grade"));
+		query.setIdPrefix(params.get("idPrefix"));
+		try {
+			query.setAfter(params.get("after"));
+		} catch (IllegalArgumentException e) {
+			respondJson(exchange, 400, jsonMsg("error", e.getMessage()));
+			return null;
+		}
+		return query;
+	}
+
+	// GET /api/students/export?format=csv|jsonl[&sort=&order=&grade=&idPrefix=]: the whole gradebook
+	// as a download, streamed row by row from the database into a chunked (and, if accepted, gzipped) response
+	private class ExportHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			addCors(exchange.getResponseHeaders());
+			if ("OPTIONS".equalsIgnoreCase(exchange.getRequestMethod())) { respond(exchange, 204, ""); return; }
+			if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+				respond(exchange, 405, jsonMsg("error", "Method Not Allowed"));
+				return;
+			}
+			
+			Map<String, String> params = parseUrlEncoded(exchange.getRequestURI().getRawQuery());
+			StudentExporter.Format format = StudentExporter.Format.fromParam(params.get("format"));
+			if (format == null) {
+				respondJson(exchange, 400, jsonMsg("error", "format must be csv or jsonl"));
+				return;
+			}
+			StudentQuery query = readQuery(exchange, params);
+			if (query == null) {
+				return;
+			}
+			query.setFetchSize(ServerConfig.getInt("export.fetchSize", 1000));
+			boolean gzip = ServerConfig.getBoolean("export.gzip", true)
+				&& acceptsEncoding(getHeader(exchange, "Accept-Encoding"), "gzip");
+			
+			Headers headers = exchange.getResponseHeaders();
+			headers.set("Content-Type", format.contentType);
+			headers.set("Content-Disposition", "attachment; filename=\"students_"
+				+ DateTimeFormatter.ISO_LOCAL_DATE.format(Instant.now().atOffset(ZoneOffset.UTC)) + "." + format.extension + "\"");
+			headers.set("Cache-Control", "no-store");
+			headers.set("Vary", "Accept-Encoding");
+			if (gzip) headers.set("Content-Encoding", "gzip");
 			
-			StudentBean bean = new StudentBean(name, m1, m2, m3, m4, m5);
-			String result = gradeProcessor.generateGrade(bean);
-			respondJson(exchange, 201, studentToJson(bean));
+			// Headers go out with the first row, so a query that fails up front still gets a 500
+			StudentExporter[] exporter = new StudentExporter[1];
+			try {
+				studentDAO.streamStudents(query, s -> {
+					if (exporter[0] == null) exporter[0] = beginExport(exchange, format, gzip);
+					exporter[0].visit(s);
+				});
+				if (exporter[0] == null) exporter[0] = beginExport(exchange, format, gzip);
+				exporter[0].close();
+			} catch (SQLException | IOException | RuntimeException e) {
+				if (exporter[0] == null) {
+					headers.remove("Content-Encoding");
+					headers.remove("Content-Disposition");
+					respondJson(exchange, 500, jsonMsg("error", "Export failed: " + e.getMessage()));
+					return;
+				}
+				// Mid-stream failure: headers are gone, so cut the chunked response short
+				System.err.println("Error exporting students: " + e.getMessage());
+				exchange.close();
+			}
+		}
+		
+		private StudentExporter beginExport(HttpExchange exchange, StudentExporter.Format format, boolean gzip) throws IOException {
+			exchange.sendResponseHeaders(200, 0);
+			OutputStream body = exchange.getResponseBody();
+			StudentExporter exporter = new StudentExporter(format, gzip ? new GZIPOutputStream(body, 65536) : body);
+			exporter.begin();
+			return exporter;
 		}
 	}
 
@@ -136,7 +669,13 @@ public class HttpApiServer {
 			
 			try {
 				if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
-					Map<String, String> data = parseFormData(exchange);
+					Map<String, String> data;
+					try {
+						data = parseFormData(exchange);
+					} catch (MalformedJsonException e) {
+						respondJson(exchange, 400, jsonMsg("error", e.getMessage()));
+						return;
+					}
 					String studentId = data.get("studentId");
 					if (studentId == null || studentId.trim().isEmpty()) {
 						respondJson(exchange, 400, jsonMsg("error", "Student ID is required"));
@@ -180,25 +719,36 @@ public class HttpApiServer {
 			
 			try {
 				if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
-					Map<String, String> data = parseFormData(exchange);
-					String studentIds = data.get("studentIds");
-					if (studentIds == null || studentIds.trim().isEmpty()) {
+					List<String> ids;
+					try {
+						ids = isJson(exchange) ? readIdList(jsonBody(exchange)) : splitIds(parseFormData(exchange).get("studentIds"));
+					} catch (MalformedJsonException e) {
+						respondJson(exchange, 400, jsonMsg("error", e.getMessage()));
+						return;
+					}
+					if (ids.isEmpty()) {
 						respondJson(exchange, 400, jsonMsg("error", "Student IDs are required"));
 						return;
 					}
 					
-					String[] ids = studentIds.split(",");
+					Map<String, Boolean> outcomes = studentDAO.deleteStudents(ids);
+					
 					int deletedCount = 0;
-					for (String id : ids) {
-						try {
-							studentDAO.deleteStudent(id.trim());
-							deletedCount++;
-						} catch (Exception e) {
-							// Continue with other deletions
-						}
+					for (boolean deleted : outcomes.values()) {
+						if (deleted) deletedCount++;
 					}
 					
-					respondJson(exchange, 200, jsonMsg("message", "Successfully deleted " + deletedCount + " students"));
+					JsonWriter json = new JsonWriter();
+					json.beginObject();
+					json.name("message").value("Successfully deleted " + deletedCount + " students");
+					json.name("deleted").value(deletedCount);
+					json.name("notFound").beginArray();
+					for (Map.Entry<String, Boolean> outcome : outcomes.entrySet()) {
+						if (!outcome.getValue()) json.value(outcome.getKey());
+					}
+					json.endArray();
+					json.endObject();
+					respondJson(exchange, 200, json);
 				} else {
 					respond(exchange, 405, jsonMsg("error", "Method Not Allowed"));
 				}
@@ -216,24 +766,60 @@ public class HttpApiServer {
 			
 			try {
 				if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
-					Map<String, String> data = parseFormData(exchange);
-					String studentId = data.get("studentId");
-					String name = data.getOrDefault("name", "");
-					int m1 = parseInt(data.get("m1")), m2 = parseInt(data.get("m2")), 
-						m3 = parseInt(data.get("m3")), m4 = parseInt(data.get("m4")), m5 = parseInt(data.get("m5"));
+					StudentBean bean;
+					try {
+						if (isJson(exchange)) {
+							JsonReader json = jsonBody(exchange);
+							bean = StudentJsonBinder.readStudent(json);
+							StudentJsonBinder.expectEnd(json);
+						} else {
+							bean = formStudent(parseFormData(exchange));
+						}
+					} catch (MalformedJsonException | IllegalArgumentException e) {
+						respondJson(exchange, 400, jsonMsg("error", e.getMessage()));
+						return;
+					}
 					
-					if (studentId == null || studentId.trim().isEmpty()) {
+					if (bean.getStudentId() == null || bean.getStudentId().trim().isEmpty()) {
 						respondJson(exchange, 400, jsonMsg("error", "Student ID is required"));
 						return;
 					}
+					if (bean.getName() == null || bean.getName().trim().isEmpty()) {
+						respondJson(exchange, 400, jsonMsg("error", "Name is required"));
+						return;
+					}
+					bean.setName(bean.getName().trim());
+					bean.setStudentId(bean.getStudentId().trim()); // Keep the same ID
+					try {
+						gradeProcessor.calculateGrade(bean);
+					} catch (InvalidMarkException e) {
+						respondJson(exchange, 400, jsonMsg("error", e.getMessage()));
+						return;
+					}
 					
-					// Delete old record and create new one
-					studentDAO.deleteStudent(studentId.trim());
-					StudentBean bean = new StudentBean(name, m1, m2, m3, m4, m5);
-					bean.setStudentId(studentId.trim()); // Keep the same ID
-					String result = gradeProcessor.generateGrade(bean);
+					// Without an explicit version the update applies to whatever is stored now
+					if (bean.getVersion() < 0) {
+						StudentBean current = studentDAO.getStudentById(bean.getStudentId());
+						if (current == null) {
+							respondJson(exchange, 404, jsonMsg("error", "Student with ID " + bean.getStudentId() + " not found"));
+							return;
+						}
+						bean.setVersion(current.getVersion());
+					}
+					
+					try {
+						if (!studentDAO.updateStudent(bean)) {
+							respondJson(exchange, 404, jsonMsg("error", "Student with ID " + bean.getStudentId() + " not found"));
+							return;
+						}
+					} catch (ConcurrentUpdateException e) {
+						respondJson(exchange, 409, jsonMsg("error", e.getMessage()));
+						return;
+					}
 					
-					respondJson(exchange, 200, studentToJson(bean));
+					JsonWriter json = new JsonWriter();
+					writeStudent(json, bean);
+					respondJson(exchange, 200, json);
 				} else {
 					respond(exchange, 405, jsonMsg("error", "Method Not Allowed"));
 				}
@@ -243,42 +829,261 @@ public class HttpApiServer {
 		}
 	}
 
-	private class StatisticsHandler implements HttpHandler {
+	// Bulk import: POST a CSV (text/csv) or JSON-lines (application/x-ndjson) body
+	private class ImportHandler implements HttpHandler {
 		@Override
 		public void handle(HttpExchange exchange) throws IOException {
 			addCors(exchange.getResponseHeaders());
 			if ("OPTIONS".equalsIgnoreCase(exchange.getRequestMethod())) { respond(exchange, 204, ""); return; }
 			
 			try {
-				if ("GET".equalsIgnoreCase(exchange.getRequestMethod())) {
-					List<StudentBean> students = studentDAO.getAllStudents();
-					
-					int totalStudents = students.size();
-					double avgGrade = students.isEmpty() ? 0 : students.stream().mapToInt(StudentBean::getAverage).average().orElse(0);
-					String topGrade = students.isEmpty() ? "F" : students.stream().map(StudentBean::getGrade).max(String::compareTo).orElse("F");
+				if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+					Map<String, String> query = parseUrlEncoded(exchange.getRequestURI().getRawQuery());
+					String format = query.get("format");
+					if (format == null) {
+						String contentType = getHeader(exchange, "Content-Type");
+						format = contentType != null && contentType.contains("json") ? "jsonl" : "csv";
+					}
+					if (!"csv".equalsIgnoreCase(format) && !"jsonl".equalsIgnoreCase(format)) {
+						respondJson(exchange, 400, jsonMsg("error", "format must be csv or jsonl"));
+						return;
+					}
+					int batchSize = query.containsKey("batchSize")
+						? Math.min(10000, Math.max(1, parseInt(query.get("batchSize"))))
+						: StudentDAO.getDefaultBatchSize();
 					
-					// Grade distribution
-					Map<String, Integer> gradeCounts = new HashMap<>();
-					for (StudentBean s : students) {
-						gradeCounts.put(s.getGrade(), gradeCounts.getOrDefault(s.getGrade(), 0) + 1);
+					StudentImporter importer = new StudentImporter(gradeProcessor, studentDAO, batchSize);
+					try (BufferedReader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+						if ("csv".equalsIgnoreCase(format)) {
+							importer.importCsv(reader);
+						} else {
+							importer.importJsonLines(reader);
+						}
 					}
 					
-					StringBuilder stats = new StringBuilder();
-					stats.append("{");
-					stats.append("\"totalStudents\":").append(totalStudents).append(",");
-					stats.append("\"averageGrade\":").append(Math.round(avgGrade)).append(",");
-					stats.append("\"topGrade\":\"").append(escapeJson(topGrade)).append("\",");
-					stats.append("\"gradeDistribution\":{");
-					gradeCounts.forEach((grade, count) -> {
-						stats.append("\"").append(escapeJson(grade)).append("\":").append(count).append(",");
-					});
-					if (stats.charAt(stats.length() - 1) == ',') {
-						stats.setLength(stats.length() - 1);
+					JsonWriter json = new JsonWriter();
+					json.beginObject();
+					json.name("inserted").value(importer.getInserted());
+					json.name("rejected").value(importer.getRejected());
+					json.name("errors").beginArray();
+					for (StudentImporter.RowError error : importer.getErrors()) {
+						json.beginObject().name("line").value(error.line).name("reason").value(error.reason).endObject();
 					}
-					stats.append("}");
-					stats.append("}");
+					json.endArray();
+					json.endObject();
+					respondJson(exchange, 200, json);
+				} else {
+					respond(exchange, 405, jsonMsg("error", "Method Not Allowed"));
+				}
+			} catch (Exception ex) {
+				respond(exchange, 500, jsonMsg("error", ex.getMessage()));
+			}
+		}
+	}
+
+	// GET /api/students/events: Server-Sent Events stream of inserted/updated/deleted/cleared/statistics
+	private class EventsHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			addCors(exchange.getResponseHeaders());
+			if ("OPTIONS".equalsIgnoreCase(exchange.getRequestMethod())) { respond(exchange, 204, ""); return; }
+			
+			try {
+				if ("GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+					if (!events.subscribe(exchange, getHeader(exchange, "Last-Event-ID"))) {
+						exchange.getResponseHeaders().set("Retry-After", "5");
+						respondJson(exchange, 503, jsonMsg("error", "Too many event subscribers"));
+					}
+				} else {
+					respond(exchange, 405, jsonMsg("error", "Method Not Allowed"));
+				}
+			} catch (Exception ex) {
+				respond(exchange, 500, jsonMsg("error", ex.getMessage()));
+			}
+		}
+	}
+
+	// GET /api/grading: active grading policy
+	// POST /api/grading[?scheme=]: reload grading.properties, switch to the scheme (default: grading.scheme) and re-grade everyone
+	private class GradingHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			addCors(exchange.getResponseHeaders());
+			if ("OPTIONS".equalsIgnoreCase(exchange.getRequestMethod())) { respond(exchange, 204, ""); return; }
+			
+			try {
+				if ("GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+					JsonWriter json = new JsonWriter();
+					writePolicy(json.beginObject(), GradeProcessor.getPolicy());
+					respondJson(exchange, 200, json.endObject());
+				} else if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+					String scheme = parseUrlEncoded(exchange.getRequestURI().getRawQuery()).get("scheme");
+					GradingPolicy policy;
+					try {
+						policy = GradingPolicy.loadConfigured(scheme == null || scheme.isEmpty() ? null : scheme);
+					} catch (IllegalArgumentException e) {
+						respondJson(exchange, 400, jsonMsg("error", e.getMessage()));
+						return;
+					}
+					GradeProcessor.setPolicy(policy);
+					GradeProcessor.RegradeResult result = gradeProcessor.regradeAll();
 					
-					respondJson(exchange, 200, stats.toString());
+					JsonWriter json = new JsonWriter();
+					writePolicy(json.beginObject(), result.policy);
+					json.name("examined").value(result.examined);
+					json.name("regraded").value(result.regraded);
+					json.name("skipped").value(result.skipped);
+					json.name("millis").value(result.millis);
+					respondJson(exchange, 200, json.endObject());
+				} else {
+					respond(exchange, 405, jsonMsg("error", "Method Not Allowed"));
+				}
+			} catch (Exception ex) {
+				respond(exchange, 500, jsonMsg("error", ex.getMessage()));
+			}
+		}
+	}
+
+	private static void writePolicy(JsonWriter out, GradingPolicy policy) throws IOException {
+		out.name("scheme").value(policy.getName());
+		out.name("subjects").value(policy.getSubjects());
+		out.name("maxMark").value(policy.getMaxMark());
+		out.name("weights").beginArray();
+		for (int w : policy.getWeights()) {
+			out.value(w);
+		}
+		out.endArray();
+		out.name("scale").beginObject();
+		for (Map.Entry<String, Integer> step : policy.getScale().entrySet()) {
+			out.name(step.getKey()).value(step.getValue());
+		}
+		out.endObject();
+	}
+
+	// GET /api/students/rank?studentId=: class rank and percentile by total
+	private class RankHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			addCors(exchange.getResponseHeaders());
+			if ("OPTIONS".equalsIgnoreCase(exchange.getRequestMethod())) { respond(exchange, 204, ""); return; }
+			
+			try {
+				if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+					respond(exchange, 405, jsonMsg("error", "Method Not Allowed"));
+					return;
+				}
+				String studentId = parseUrlEncoded(exchange.getRequestURI().getRawQuery()).get("studentId");
+				if (studentId == null || studentId.isEmpty()) {
+					respondJson(exchange, 400, jsonMsg("error", "studentId is required"));
+					return;
+				}
+				StudentRanking.Rank rank = ranking.rank(studentId);
+				if (rank == null) {
+					respondJson(exchange, 404, jsonMsg("error", "Student with ID " + studentId + " not found"));
+					return;
+				}
+				JsonWriter json = new JsonWriter();
+				writeRank(json, rank);
+				respondJson(exchange, 200, json);
+			} catch (Exception ex) {
+				respond(exchange, 500, jsonMsg("error", ex.getMessage()));
+			}
+		}
+	}
+
+	// GET /api/students/top[?n=10]: leaderboard by total, up to 1000 students
+	private class TopHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			addCors(exchange.getResponseHeaders());
+			if ("OPTIONS".equalsIgnoreCase(exchange.getRequestMethod())) { respond(exchange, 204, ""); return; }
+			
+			try {
+				if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+					respond(exchange, 405, jsonMsg("error", "Method Not Allowed"));
+					return;
+				}
+				Map<String, String> params = parseUrlEncoded(exchange.getRequestURI().getRawQuery());
+				int n = params.containsKey("n") ? parseInt(params.get("n")) : 10;
+				if (n < 1) {
+					respondJson(exchange, 400, jsonMsg("error", "n must be a positive number"));
+					return;
+				}
+				JsonWriter json = new JsonWriter();
+				json.beginArray();
+				for (StudentRanking.Rank rank : ranking.top(Math.min(n, MAX_PAGE_SIZE))) {
+					writeRank(json, rank);
+				}
+				json.endArray();
+				respondJson(exchange, 200, json);
+			} catch (Exception ex) {
+				respond(exchange, 500, jsonMsg("error", ex.getMessage()));
+			}
+		}
+	}
+
+	// GET /api/students/search?q=[&limit=20]: students whose names or IDs match every word, best first
+	private class SearchHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			addCors(exchange.getResponseHeaders());
+			if ("OPTIONS".equalsIgnoreCase(exchange.getRequestMethod())) { respond(exchange, 204, ""); return; }
+			
+			try {
+				if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+					respond(exchange, 405, jsonMsg("error", "Method Not Allowed"));
+					return;
+				}
+				Map<String, String> params = parseUrlEncoded(exchange.getRequestURI().getRawQuery());
+				String q = params.get("q");
+				if (q == null || q.trim().isEmpty()) {
+					respondJson(exchange, 400, jsonMsg("error", "q is required"));
+					return;
+				}
+				int limit = params.containsKey("limit") ? parseInt(params.get("limit")) : 20;
+				if (limit < 1) {
+					respondJson(exchange, 400, jsonMsg("error", "limit must be a positive number"));
+					return;
+				}
+				JsonWriter json = new JsonWriter();
+				json.beginArray();
+				for (StudentSearchIndex.Match match : search.search(q, Math.min(limit, StudentSearchIndex.MAX_RESULTS))) {
+					json.beginObject();
+					writeStudentFields(json, match.student);
+					json.name("score").value(match.score);
+					json.endObject();
+				}
+				json.endArray();
+				respondJson(exchange, 200, json);
+			} catch (Exception ex) {
+				respond(exchange, 500, jsonMsg("error", ex.getMessage()));
+			}
+		}
+	}
+
+	// A student object with rank, ahead, tied, outOf and percentile members added
+	private static void writeRank(JsonWriter out, StudentRanking.Rank rank) throws IOException {
+		out.beginObject();
+		writeStudentFields(out, rank.student);
+		out.name("rank").value(rank.rank);
+		out.name("ahead").value(rank.ahead);
+		out.name("tied").value(rank.tied);
+		out.name("outOf").value(rank.outOf);
+		out.name("percentile").value(Math.round(rank.percentile * 100) / 100.0);
+		out.endObject();
+	}
+
+	private class StatisticsHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			addCors(exchange.getResponseHeaders());
+			if ("OPTIONS".equalsIgnoreCase(exchange.getRequestMethod())) { respond(exchange, 204, ""); return; }
+			
+			try {
+				if ("GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+					JsonWriter stats = new JsonWriter();
+					writeStatistics(stats, statistics.snapshot());
+					respondJson(exchange, 200, stats);
 				} else {
 					respond(exchange, 405, jsonMsg("error", "Method Not Allowed"));
 				}
@@ -288,7 +1093,133 @@ public class HttpApiServer {
 		}
 	}
 
+	// GET /api/analytics[?column=total&top=10]: aggregates, grades and top students from the columnar store
+	private class AnalyticsHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			addCors(exchange.getResponseHeaders());
+			if ("OPTIONS".equalsIgnoreCase(exchange.getRequestMethod())) { respond(exchange, 204, ""); return; }
+			
+			try {
+				if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+					respond(exchange, 405, jsonMsg("error", "Method Not Allowed"));
+					return;
+				}
+				Map<String, String> params = parseUrlEncoded(exchange.getRequestURI().getRawQuery());
+				int column = ColumnarGradeStore.column(params.getOrDefault("column", "total"));
+				if (column < 0) {
+					respondJson(exchange, 400, jsonMsg("error", "Unknown column: " + params.get("column")));
+					return;
+				}
+				int top = params.containsKey("top") ? parseInt(params.get("top")) : 10;
+				if (top < 0) {
+					respondJson(exchange, 400, jsonMsg("error", "top must be a non-negative number"));
+					return;
+				}
+				
+				ColumnarGradeStore.Summary summary = columnar.summarize(column);
+				JsonWriter json = new JsonWriter();
+				json.beginObject();
+				json.name("students").value(summary.count);
+				json.name("memoryBytes").value(columnar.memoryBytes());
+				json.name("column").value(ColumnarGradeStore.columnName(column));
+				json.name("mean").value(Math.round(summary.mean * 100) / 100.0);
+				json.name("min").value(summary.min);
+				json.name("max").value(summary.max);
+				json.name("stdDev").value(Math.round(summary.stdDev * 100) / 100.0);
+				json.name("p50").value(summary.p50);
+				json.name("p90").value(summary.p90);
+				json.name("p99").value(summary.p99);
+				json.name("gradeDistribution").beginObject();
+				for (Map.Entry<String, Long> grade : columnar.gradeDistribution().entrySet()) {
+					json.name(grade.getKey()).value(grade.getValue());
+				}
+				json.endObject();
+				json.name("top").beginArray();
+				for (StudentBean s : columnar.top(Math.min(top, MAX_PAGE_SIZE), column)) {
+					writeStudent(json, s);
+				}
+				json.endArray();
+				json.endObject();
+				respondJson(exchange, 200, json);
+			} catch (Exception ex) {
+				respond(exchange, 500, jsonMsg("error", ex.getMessage()));
+			}
+		}
+	}
+
+	// GET /api/metrics: counters, gauges and latency histograms in the Prometheus text format
+	private static class MetricsHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+				respond(exchange, 405, jsonMsg("error", "Method Not Allowed"));
+				return;
+			}
+			exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+			exchange.getResponseHeaders().set("Cache-Control", "no-store");
+			respond(exchange, 200, Metrics.writePrometheus());
+		}
+	}
+
+	/**
+	 * Writes the /api/statistics response object
+	 * @param out Writer positioned where a value is expected
+	 * @param snapshot Statistics to write
+	 */
+	static void writeStatistics(JsonWriter out, StatisticsAggregator.Snapshot snapshot) throws IOException {
+		out.beginObject();
+		out.name("totalStudents").value(snapshot.totalStudents);
+		out.name("averageGrade").value(Math.round(snapshot.average.mean));
+		out.name("topGrade").value(snapshot.getTopGrade());
+		out.name("gradeDistribution").beginObject();
+		for (Map.Entry<String, Long> grade : snapshot.gradeDistribution.entrySet()) {
+			out.name(grade.getKey()).value(grade.getValue());
+		}
+		out.endObject();
+		out.name("average");
+		writeColumnStats(out, snapshot.average);
+		out.name("subjects").beginArray();
+		for (StatisticsAggregator.ColumnStats subject : snapshot.subjects) {
+			writeColumnStats(out, subject);
+		}
+		out.endArray();
+		out.endObject();
+	}
+
+	private static void writeColumnStats(JsonWriter out, StatisticsAggregator.ColumnStats c) throws IOException {
+		out.beginObject();
+		out.name("mean").value(Math.round(c.mean * 100) / 100.0);
+		out.name("min").value(c.min);
+		out.name("max").value(c.max);
+		out.name("stdDev").value(Math.round(c.stdDev * 100) / 100.0);
+		out.name("p25").value(c.p25);
+		out.name("p50").value(c.p50);
+		out.name("p75").value(c.p75);
+		out.name("p90").value(c.p90);
+		out.name("p99").value(c.p99);
+		out.endObject();
+	}
+
+	// Form fields, or the top-level scalar members of a JSON object body
 	private Map<String, String> parseFormData(HttpExchange exchange) throws IOException {
+		if (isJson(exchange)) {
+			Map<String, String> map = new HashMap<>();
+			JsonReader json = jsonBody(exchange);
+			json.beginObject();
+			while (json.hasNext()) {
+				String name = json.nextName();
+				JsonReader.Token t = json.peek();
+				if (t == JsonReader.Token.STRING || t == JsonReader.Token.NUMBER || t == JsonReader.Token.BOOLEAN) {
+					map.put(name, json.nextString());
+				} else {
+					json.skipValue();
+				}
+			}
+			json.endObject();
+			StudentJsonBinder.expectEnd(json);
+			return map;
+		}
 		String contentType = getHeader(exchange, "Content-Type");
 		if (contentType != null && contentType.contains("application/x-www-form-urlencoded")) {
 			String body = readBody(exchange.getRequestBody());
@@ -297,6 +1228,80 @@ public class HttpApiServer {
 		return new HashMap<>();
 	}
 
+	private static StudentBean formStudent(Map<String, String> data) {
+		StudentBean bean = new StudentBean(data.get("name"),
+			requireInt(data, "m1"), requireInt(data, "m2"), requireInt(data, "m3"), requireInt(data, "m4"), requireInt(data, "m5"));
+		bean.setStudentId(data.get("studentId"));
+		bean.setVersion(data.containsKey("version") ? requireInt(data, "version") : -1);
+		return bean;
+	}
+
+	private static int requireInt(Map<String, String> data, String field) {
+		String v = data.get(field);
+		if (v == null || v.trim().isEmpty()) {
+			throw new IllegalArgumentException("Field " + field + " is required");
+		}
+		try {
+			return Integer.parseInt(v.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Field " + field + " must be a whole number");
+		}
+	}
+
+	// ["ID1","ID2"], {"studentIds":["ID1","ID2"]} or {"studentIds":"ID1,ID2"}
+	private static List<String> readIdList(JsonReader json) throws IOException {
+		List<String> ids = new ArrayList<>();
+		if (json.peek() == JsonReader.Token.BEGIN_OBJECT) {
+			json.beginObject();
+			while (json.hasNext()) {
+				if (!"studentIds".equals(json.nextName())) {
+					json.skipValue();
+				} else if (json.peek() == JsonReader.Token.BEGIN_ARRAY) {
+					readIdArray(json, ids);
+				} else {
+					ids.addAll(splitIds(json.nextString()));
+				}
+			}
+			json.endObject();
+		} else {
+			readIdArray(json, ids);
+		}
+		StudentJsonBinder.expectEnd(json);
+		return ids;
+	}
+
+	private static void readIdArray(JsonReader json, List<String> ids) throws IOException {
+		json.beginArray();
+		while (json.hasNext()) {
+			String id = json.nextString().trim();
+			if (!id.isEmpty()) ids.add(id);
+		}
+		json.endArray();
+	}
+
+	private static List<String> splitIds(String csv) {
+		List<String> ids = new ArrayList<>();
+		if (csv == null) return ids;
+		int start = 0;
+		while (start <= csv.length()) {
+			int comma = csv.indexOf(',', start);
+			if (comma < 0) comma = csv.length();
+			String id = csv.substring(start, comma).trim();
+			if (!id.isEmpty()) ids.add(id);
+			start = comma + 1;
+		}
+		return ids;
+	}
+
+	private static boolean isJson(HttpExchange ex) {
+		String contentType = getHeader(ex, "Content-Type");
+		return contentType != null && contentType.toLowerCase().contains("json");
+	}
+
+	private static JsonReader jsonBody(HttpExchange ex) {
+		return new JsonReader(new InputStreamReader(ex.getRequestBody(), StandardCharsets.UTF_8));
+	}
+
 	private static void addCors(Headers headers) {
 		headers.add("Access-Control-Allow-Origin", "*");
 		headers.add("Access-Control-Allow-Methods", "GET, POST, OPTIONS");
@@ -304,14 +1309,23 @@ public class HttpApiServer {
 	}
 	private static String getHeader(HttpExchange ex, String key) { List<String> values = ex.getRequestHeaders().get(key); return values == null || values.isEmpty() ? null : values.get(0); }
 	private static String readBody(InputStream is) throws IOException { byte[] buf = is.readAllBytes(); return new String(buf, StandardCharsets.UTF_8); }
-	private static Map<String, String> parseUrlEncoded(String body) throws IOException {
+	private static Map<String, String> parseUrlEncoded(String body) {
 		Map<String, String> map = new HashMap<>();
 		if (body == null || body.isEmpty()) return map;
-		for (String pair : body.split("&")) {
-			String[] kv = pair.split("=", 2);
-			String k = URLDecoder.decode(kv[0], StandardCharsets.UTF_8);
-			String v = kv.length > 1 ? URLDecoder.decode(kv[1], StandardCharsets.UTF_8) : "";
-			map.put(k, v);
+		int start = 0;
+		while (start < body.length()) {
+			int amp = body.indexOf('&', start);
+			if (amp < 0) amp = body.length();
+			int eq = body.indexOf('=', start);
+			if (amp > start) {
+				if (eq < 0 || eq > amp) {
+					map.put(URLDecoder.decode(body.substring(start, amp), StandardCharsets.UTF_8), "");
+				} else {
+					map.put(URLDecoder.decode(body.substring(start, eq), StandardCharsets.UTF_8),
+						URLDecoder.decode(body.substring(eq + 1, amp), StandardCharsets.UTF_8));
+				}
+			}
+			start = amp + 1;
 		}
 		return map;
 	}
@@ -320,41 +1334,59 @@ public class HttpApiServer {
 		try { return Integer.parseInt(v); } catch (Exception e) { return -1; }
 	}
 
-	private static String escapeJson(String s) {
-		if (s == null) return "";
-		StringBuilder out = new StringBuilder(s.length() + 16);
-		for (int i = 0; i < s.length(); i++) {
-			char c = s.charAt(i);
-			switch (c) {
-				case '"': out.append("\\\""); break;
-				case '\\': out.append("\\\\"); break;
-				case '\n': out.append("\\n"); break;
-				case '\r': out.append("\\r"); break;
-				case '\t': out.append("\\t"); break;
-				default:
-					if (c < 0x20) {
-						out.append(String.format("\\u%04x", (int) c));
-					} else {
-						out.append(c);
-					}
-			}
+	/**
+	 * Writes one student as a JSON object, as returned by the API
+	 * @param out Writer positioned where a value is expected
+	 * @param s Student to write
+	 */
+	public static void writeStudent(JsonWriter out, StudentBean s) throws IOException {
+		out.beginObject();
+		writeStudentFields(out, s);
+		out.endObject();
+	}
+
+	// Members of a student object, for responses that add their own members around them
+	private static void writeStudentFields(JsonWriter out, StudentBean s) throws IOException {
+		out.name("studentId").value(s.getStudentId() != null ? s.getStudentId() : "");
+		out.name("name").value(s.getName() != null ? s.getName() : "");
+		out.name("mark1").value(s.getMark1());
+		out.name("mark2").value(s.getMark2());
+		out.name("mark3").value(s.getMark3());
+		out.name("mark4").value(s.getMark4());
+		out.name("mark5").value(s.getMark5());
+		out.name("total").value(s.getTotal());
+		out.name("average").value(s.getAverage());
+		out.name("grade").value(s.getGrade() != null ? s.getGrade() : "");
+		out.name("version").value(s.getVersion());
+	}
+
+	/**
+	 * @return JSON object for one student, as returned by the API
+	 */
+	public static String studentToJson(StudentBean s) {
+		JsonWriter out = new JsonWriter();
+		try {
+			writeStudent(out, s);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e); // In-memory writers do not do I/O
 		}
 		return out.toString();
 	}
 
-	private static String studentToJson(StudentBean s) {
-		return String.format(
-			"{\"studentId\":\"%s\",\"name\":\"%s\",\"mark1\":%d,\"mark2\":%d,\"mark3\":%d,\"mark4\":%d,\"mark5\":%d,\"total\":%d,\"average\":%d,\"grade\":\"%s\"}",
-			escapeJson(s.getStudentId() != null ? s.getStudentId() : ""),
-			escapeJson(s.getName() != null ? s.getName() : ""),
-			s.getMark1(), s.getMark2(), s.getMark3(), s.getMark4(), s.getMark5(),
-			s.getTotal(), s.getAverage(),
-			escapeJson(s.getGrade() != null ? s.getGrade() : "")
-		);
+	private static String jsonMsg(String key, String msg) {
+		JsonWriter out = new JsonWriter();
+		try {
+			out.beginObject().name(key).value(msg != null ? msg : "").endObject();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toString();
 	}
 
-	private static String jsonMsg(String key, String msg) {
-		return "{\"" + key + "\":\"" + escapeJson(msg) + "\"}";
+	private static void respondJson(HttpExchange ex, int status, JsonWriter body) throws IOException {
+		ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		ex.sendResponseHeaders(status, body.size());
+		try (OutputStream os = ex.getResponseBody()) { body.writeTo(os); }
 	}
 
 	private static void respondJson(HttpExchange ex, int status, String body) throws IOException {
@@ -369,6 +1401,7 @@ public class HttpApiServer {
 	}
 
 	public static void main(String[] args) throws Exception {
-		new HttpApiServer(8080).start();
+		DatabaseUtil.initializeDatabase();
+		new HttpApiServer(ServerConfig.getInt("server.port", 8080)).start();
 	}
 }
@@ -0,0 +1,153 @@
+package com.wipro.studentgrade.service;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import com.wipro.studentgrade.util.ServerConfig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executor for the HTTP server's exchanges, configured from server.properties.
+ *
+ * server.executor=platform runs handlers on a fixed pool of server.threads
+ * threads with at most server.queueCapacity exchanges waiting. server.executor=virtual
+ * runs each exchange on its own virtual thread (Java 21+, falls back to platform
+ * otherwise) and caps concurrency at server.maxConcurrentRequests.
+ *
+ * Once the limit is reached new exchanges are not queued; they are handed to a
+ * small shedding thread where {@link #loadShedFilter()} answers 503 without
+ * running the handler.
+ */
+public class RequestExecutor implements Executor {
+	private static final ThreadLocal<Boolean> SHEDDING = new ThreadLocal<>();
+
+	private final ExecutorService delegate;
+	private final ThreadPoolExecutor shedder;
+	private final int maxInFlight;
+	private final int retryAfterSeconds;
+	private final String mode;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final LongAdder shedCount = new LongAdder();
+
+	public RequestExecutor() {
+		int threads = ServerConfig.getInt("server.threads", Runtime.getRuntime().availableProcessors() * 2);
+		int queueCapacity = ServerConfig.getInt("server.queueCapacity", 256);
+		this.retryAfterSeconds = ServerConfig.getInt("server.shedRetryAfterSeconds", 1);
+
+		ExecutorService virtual = null;
+		if ("virtual".equalsIgnoreCase(ServerConfig.get("server.executor", "platform"))) {
+			virtual = newVirtualThreadExecutor();
+		}
+		if (virtual != null) {
+			this.delegate = virtual;
+			this.maxInFlight = ServerConfig.getInt("server.maxConcurrentRequests", 1000);
+			this.mode = "virtual";
+		} else {
+			this.delegate = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), namedThreads("http-worker-"));
+			this.maxInFlight = threads + Math.max(1, queueCapacity);
+			this.mode = "platform(" + threads + " threads, queue " + queueCapacity + ")";
+		}
+
+		this.shedder = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(1024), namedThreads("http-shed-"), new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			System.err.println("Virtual threads need Java 21+; falling back to a platform thread pool");
+			return null;
+		}
+	}
+
+	private static ThreadFactory namedThreads(String prefix) {
+		AtomicInteger counter = new AtomicInteger();
+		return r -> {
+			Thread t = new Thread(r, prefix + counter.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		};
+	}
+
+	@Override
+	public void execute(Runnable exchange) {
+		if (inFlight.incrementAndGet() > maxInFlight) {
+			inFlight.decrementAndGet();
+			shed(exchange);
+			return;
+		}
+		try {
+			delegate.execute(() -> {
+				try {
+					exchange.run();
+				} finally {
+					inFlight.decrementAndGet();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			inFlight.decrementAndGet();
+			shed(exchange);
+		}
+	}
+
+	private void shed(Runnable exchange) {
+		shedCount.increment();
+		shedder.execute(() -> {
+			SHEDDING.set(Boolean.TRUE);
+			try {
+				exchange.run();
+			} finally {
+				SHEDDING.remove();
+			}
+		});
+	}
+
+	/**
+	 * @return Filter that answers 503 for exchanges the executor decided to shed
+	 */
+	public Filter loadShedFilter() {
+		return new Filter() {
+			@Override
+			public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+				if (SHEDDING.get() == null) {
+					chain.doFilter(exchange);
+					return;
+				}
+				byte[] body = "{\"error\":\"Server busy, please retry\"}".getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+				exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+				exchange.sendResponseHeaders(503, body.length);
+				try (OutputStream os = exchange.getResponseBody()) { os.write(body); }
+			}
+
+			@Override
+			public String description() {
+				return "Rejects requests with 503 when the request executor is saturated";
+			}
+		};
+	}
+
+	public String getMode() { return mode; }
+	public int getInFlight() { return inFlight.get(); }
+	public int getMaxInFlight() { return maxInFlight; }
+	public long getShedCount() { return shedCount.sum(); }
+
+	public void shutdown() {
+		delegate.shutdown();
+		shedder.shutdown();
+	}
+}
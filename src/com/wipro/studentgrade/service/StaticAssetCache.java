@@ -0,0 +1,178 @@
+package com.wipro.studentgrade.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-memory cache of the web/ assets served by the static file handler.
+ *
+ * Small files are held as bytes together with pre-compressed gzip and deflate
+ * variants (kept only when smaller) and a strong ETag from their SHA-256.
+ * Files above the size limit are not held in memory; they are streamed from
+ * disk and get an ETag derived from size and modification time. Each entry
+ * re-checks the file's size and mtime at most once per check interval, so
+ * edits under web/ show up without a restart.
+ */
+public class StaticAssetCache {
+	private final Path root;
+	private final long maxCachedBytes;
+	private final long checkIntervalNanos;
+	private final ConcurrentHashMap<Path, Asset> assets = new ConcurrentHashMap<>();
+
+	/** One file and its encoded variants. */
+	public static final class Asset {
+		public final Path file;
+		public final String contentType;
+		public final long size;
+		public final long lastModified;
+		public final String etag;
+		/** File contents, or null when the file is too large to cache. */
+		public final byte[] identity;
+		/** gzip / deflate encodings, or null when not compressible or not smaller. */
+		public final byte[] gzip;
+		public final byte[] deflate;
+		private volatile long checkedAt;
+
+		Asset(Path file, String contentType, long size, long lastModified, String etag,
+				byte[] identity, byte[] gzip, byte[] deflate) {
+			this.file = file;
+			this.contentType = contentType;
+			this.size = size;
+			this.lastModified = lastModified;
+			this.etag = etag;
+			this.identity = identity;
+			this.gzip = gzip;
+			this.deflate = deflate;
+			this.checkedAt = System.nanoTime();
+		}
+
+		/**
+		 * @return True when the file is served from disk rather than memory
+		 */
+		public boolean isStreamed() {
+			return identity == null;
+		}
+
+		/**
+		 * @param encoding "gzip", "deflate" or null for the identity encoding
+		 * @return ETag of that variant; encodings get their own tags as strong ETags require
+		 */
+		public String etagFor(String encoding) {
+			return encoding == null ? etag : etag.substring(0, etag.length() - 1) + "-" + encoding + "\"";
+		}
+	}
+
+	public StaticAssetCache(Path root, long maxCachedBytes, long checkIntervalMillis) {
+		this.root = root.toAbsolutePath().normalize();
+		this.maxCachedBytes = maxCachedBytes;
+		this.checkIntervalNanos = checkIntervalMillis * 1_000_000L;
+	}
+
+	/**
+	 * Finds an asset, loading or reloading it if needed
+	 * @param requestPath URL path such as /app.js
+	 * @return The asset, or null if it does not exist or lies outside the root
+	 * @throws IOException if the file cannot be read
+	 */
+	public Asset get(String requestPath) throws IOException {
+		String relative = requestPath.startsWith("/") ? requestPath.substring(1) : requestPath;
+		Path file = root.resolve(relative).normalize();
+		if (!file.startsWith(root)) {
+			return null;
+		}
+
+		Asset asset = assets.get(file);
+		if (asset != null && System.nanoTime() - asset.checkedAt < checkIntervalNanos) {
+			return asset;
+		}
+
+		BasicFileAttributes attrs;
+		try {
+			attrs = Files.readAttributes(file, BasicFileAttributes.class);
+		} catch (NoSuchFileException e) {
+			assets.remove(file);
+			return null;
+		}
+		if (attrs.isDirectory()) {
+			return null;
+		}
+
+		long mtime = attrs.lastModifiedTime().toMillis();
+		if (asset != null && asset.size == attrs.size() && asset.lastModified == mtime) {
+			asset.checkedAt = System.nanoTime();
+			return asset;
+		}
+		asset = load(file, attrs.size(), mtime);
+		assets.put(file, asset);
+		return asset;
+	}
+
+	private Asset load(Path file, long size, long mtime) throws IOException {
+		String contentType = contentType(file.getFileName().toString());
+		if (size > maxCachedBytes) {
+			String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(mtime) + "\"";
+			return new Asset(file, contentType, size, mtime, etag, null, null, null);
+		}
+
+		byte[] data = Files.readAllBytes(file);
+		byte[] gzip = null;
+		byte[] deflate = null;
+		if (isCompressible(contentType)) {
+			gzip = smallerOrNull(compress(data, true), data);
+			deflate = smallerOrNull(compress(data, false), data);
+		}
+		return new Asset(file, contentType, data.length, mtime, "\"" + sha256(data) + "\"", data, gzip, deflate);
+	}
+
+	private static byte[] compress(byte[] data, boolean gzip) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 3 + 64);
+		try (OutputStream out = gzip ? new GZIPOutputStream(buffer) : new DeflaterOutputStream(buffer)) {
+			out.write(data);
+		}
+		return buffer.toByteArray();
+	}
+
+	private static byte[] smallerOrNull(byte[] encoded, byte[] original) {
+		return encoded.length < original.length ? encoded : null;
+	}
+
+	private static String sha256(byte[] data) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+			StringBuilder hex = new StringBuilder(32);
+			for (int i = 0; i < 16; i++) {
+				hex.append(Character.forDigit((digest[i] >> 4) & 0xf, 16)).append(Character.forDigit(digest[i] & 0xf, 16));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}
+
+	private static boolean isCompressible(String contentType) {
+		return contentType.startsWith("text/") || contentType.startsWith("application/javascript")
+			|| contentType.startsWith("application/json") || contentType.startsWith("image/svg+xml");
+	}
+
+	static String contentType(String fileName) {
+		String name = fileName.toLowerCase();
+		if (name.endsWith(".html")) return "text/html; charset=utf-8";
+		if (name.endsWith(".css")) return "text/css; charset=utf-8";
+		if (name.endsWith(".js")) return "application/javascript; charset=utf-8";
+		if (name.endsWith(".json")) return "application/json; charset=utf-8";
+		if (name.endsWith(".svg")) return "image/svg+xml";
+		if (name.endsWith(".png")) return "image/png";
+		if (name.endsWith(".ico")) return "image/x-icon";
+		return "application/octet-stream";
+	}
+}
@@ -0,0 +1,162 @@
+package com.wipro.studentgrade.service;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.dao.StudentChangeListener;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory gradebook statistics kept current from DAO change events.
+ *
+ * Every mark and the average are tracked as fixed 0-100 histograms, so an
+ * insert, delete or update is a constant number of array increments and
+ * mean, min, max, standard deviation and percentiles are read straight off
+ * the histograms. Seeded once from the students read at startup.
+ */
+public class StatisticsAggregator implements StudentChangeListener {
+	public static final int SUBJECTS = 5;
+	private static final int MAX_MARK = 100;
+	private static final int AVERAGE = SUBJECTS;
+
+	// Index 0..4 = mark1..mark5, 5 = average
+	private final long[][] histograms = new long[SUBJECTS + 1][MAX_MARK + 1];
+	private final NavigableMap<String, Long> gradeCounts = new TreeMap<>();
+	private long count;
+
+	/** Point-in-time summary of one column. */
+	public static final class ColumnStats {
+		public final double mean;
+		public final int min;
+		public final int max;
+		public final double stdDev;
+		public final int p25;
+		public final int p50;
+		public final int p75;
+		public final int p90;
+		public final int p99;
+
+		ColumnStats(long[] h, long n) {
+			long sum = 0, sumSquares = 0;
+			int lo = -1, hi = -1;
+			for (int v = 0; v <= MAX_MARK; v++) {
+				if (h[v] == 0) continue;
+				if (lo < 0) lo = v;
+				hi = v;
+				sum += h[v] * v;
+				sumSquares += h[v] * v * v;
+			}
+			this.mean = n == 0 ? 0 : (double) sum / n;
+			this.min = Math.max(lo, 0);
+			this.max = Math.max(hi, 0);
+			this.stdDev = n == 0 ? 0 : Math.sqrt(Math.max(0, (double) sumSquares / n - mean * mean));
+			this.p25 = percentile(h, n, 25);
+			this.p50 = percentile(h, n, 50);
+			this.p75 = percentile(h, n, 75);
+			this.p90 = percentile(h, n, 90);
+			this.p99 = percentile(h, n, 99);
+		}
+
+		// Nearest-rank percentile over the histogram
+		private static int percentile(long[] h, long n, int p) {
+			if (n == 0) return 0;
+			long rank = Math.max(1, (n * p + 99) / 100);
+			long seen = 0;
+			for (int v = 0; v <= MAX_MARK; v++) {
+				seen += h[v];
+				if (seen >= rank) return v;
+			}
+			return MAX_MARK;
+		}
+	}
+
+	/** Consistent copy of all statistics. */
+	public static final class Snapshot {
+		public final long totalStudents;
+		public final ColumnStats average;
+		public final ColumnStats[] subjects;
+		public final NavigableMap<String, Long> gradeDistribution;
+
+		Snapshot(long totalStudents, ColumnStats average, ColumnStats[] subjects, NavigableMap<String, Long> gradeDistribution) {
+			this.totalStudents = totalStudents;
+			this.average = average;
+			this.subjects = subjects;
+			this.gradeDistribution = gradeDistribution;
+		}
+
+		/**
+		 * @return Highest grade key present by string order, "F" when empty (as the dashboard has always reported)
+		 */
+		public String getTopGrade() {
+			return gradeDistribution.isEmpty() ? "F" : gradeDistribution.lastKey();
+		}
+	}
+
+	/**
+	 * Replaces the current state with counts over students already in memory
+	 * @param students Every stored student, e.g. from {@link GradebookSnapshot#restore}
+	 */
+	public synchronized void seed(Collection<StudentBean> students) {
+		studentsCleared();
+		for (StudentBean s : students) {
+			apply(s, 1);
+		}
+	}
+
+	public synchronized Snapshot snapshot() {
+		ColumnStats[] subjects = new ColumnStats[SUBJECTS];
+		for (int i = 0; i < SUBJECTS; i++) {
+			subjects[i] = new ColumnStats(histograms[i], count);
+		}
+		return new Snapshot(count, new ColumnStats(histograms[AVERAGE], count), subjects, new TreeMap<>(gradeCounts));
+	}
+
+	@Override
+	public synchronized void studentInserted(StudentBean student) {
+		apply(student, 1);
+	}
+
+	@Override
+	public synchronized void studentUpdated(StudentBean before, StudentBean after) {
+		apply(before, -1);
+		apply(after, 1);
+	}
+
+	@Override
+	public synchronized void studentDeleted(StudentBean student) {
+		apply(student, -1);
+	}
+
+	@Override
+	public synchronized void studentsCleared() {
+		for (long[] h : histograms) {
+			Arrays.fill(h, 0);
+		}
+		gradeCounts.clear();
+		count = 0;
+	}
+
+	private void apply(StudentBean s, int delta) {
+		histograms[0][clamp(s.getMark1())] += delta;
+		histograms[1][clamp(s.getMark2())] += delta;
+		histograms[2][clamp(s.getMark3())] += delta;
+		histograms[3][clamp(s.getMark4())] += delta;
+		histograms[4][clamp(s.getMark5())] += delta;
+		histograms[AVERAGE][clamp(s.getAverage())] += delta;
+		if (s.getGrade() != null) {
+			long n = gradeCounts.getOrDefault(s.getGrade(), 0L) + delta;
+			if (n > 0) {
+				gradeCounts.put(s.getGrade(), n);
+			} else {
+				gradeCounts.remove(s.getGrade());
+			}
+		}
+		count += delta;
+	}
+
+	private static int clamp(int mark) {
+		return mark < 0 ? 0 : Math.min(mark, MAX_MARK);
+	}
+}
@@ -0,0 +1,362 @@
+package com.wipro.studentgrade.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.dao.StudentChangeListener;
+import com.wipro.studentgrade.util.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes student changes to Server-Sent Events subscribers.
+ *
+ * DAO callbacks only queue the change, so writers are not held up. A
+ * dispatcher thread serializes and numbers each event, keeps the most recent ones for
+ * clients reconnecting with Last-Event-ID, and appends it to every subscriber's
+ * queue. A small shared pool drains those queues to the sockets; no thread is
+ * tied to a subscriber. One whose queue overflows, or whose socket write is
+ * still blocked after a heartbeat interval, is disconnected by interrupting the
+ * writer stuck on it (its EventSource reconnects and is told to reload). After
+ * each burst of changes one statistics event carries the updated aggregates.
+ */
+public class StudentEventBroadcaster implements StudentChangeListener {
+	private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.US_ASCII);
+
+	private final StatisticsAggregator statistics;
+	private final int maxSubscribers;
+	private final int maxQueuedEvents;
+	private final int replaySize;
+
+	private final LinkedBlockingQueue<Change> incoming = new LinkedBlockingQueue<>();
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+	private final Object eventLock = new Object();
+	private final ArrayDeque<Event> recent = new ArrayDeque<>();
+	private long lastEventId;
+	private boolean statisticsDirty; // dispatcher thread only
+
+	private final Thread dispatcher;
+	private final ExecutorService writers;
+	private final ScheduledExecutorService heartbeat;
+	private volatile boolean running = true;
+
+	private static final class Change {
+		final String type;
+		final StudentBean student;
+
+		Change(String type, StudentBean student) {
+			this.type = type;
+			this.student = student;
+		}
+	}
+
+	private static final class Event {
+		final long id;
+		final byte[] frame;
+
+		Event(long id, byte[] frame) {
+			this.id = id;
+			this.frame = frame;
+		}
+	}
+
+	private final class Subscriber {
+		final HttpExchange exchange;
+		final OutputStream out;
+		private final ArrayDeque<byte[]> queue = new ArrayDeque<>();
+		private boolean scheduled;
+		private boolean closed;
+		// The drain thread while it is inside a socket write, and when that write began
+		private Thread writer;
+		private long writeStartedAt;
+
+		Subscriber(HttpExchange exchange) {
+			this.exchange = exchange;
+			this.out = exchange.getResponseBody();
+		}
+
+		void enqueue(byte[] frame) {
+			synchronized (this) {
+				if (closed) return;
+				if (queue.size() < maxQueuedEvents) {
+					queue.add(frame);
+					if (scheduled) return;
+					scheduled = true;
+				} else if (!markClosed()) {
+					// Too far behind: break off the running drain's write so it closes the exchange
+					abortWrite();
+					return;
+				}
+			}
+			writers.execute(this::drain);
+		}
+
+		// Only the drain task writes to the stream and closes it, so no two threads touch it at once
+		private void drain() {
+			List<byte[]> batch = new ArrayList<>();
+			while (true) {
+				synchronized (this) {
+					if (closed) break;
+					if (queue.isEmpty()) {
+						scheduled = false;
+						return;
+					}
+					batch.addAll(queue);
+					queue.clear();
+					writer = Thread.currentThread();
+					writeStartedAt = System.nanoTime();
+				}
+				try {
+					for (byte[] frame : batch) {
+						out.write(frame);
+					}
+					out.flush();
+				} catch (IOException e) {
+					markClosed();
+					break;
+				} finally {
+					synchronized (this) {
+						writer = null;
+					}
+				}
+				batch.clear();
+			}
+			// The subscriber is being dropped, so skip the final chunk: with the interrupt
+			// flag set the server's socket channel closes instead of waiting on the client
+			Thread.currentThread().interrupt();
+			exchange.close();
+			Thread.interrupted();
+		}
+
+		/**
+		 * Drops the subscriber at once and leaves closing the exchange to a writer
+		 * thread, so a stalled client never holds up the caller
+		 */
+		void close() {
+			boolean drain;
+			synchronized (this) {
+				drain = markClosed();
+				if (!drain) {
+					abortWrite();
+				}
+			}
+			if (drain) {
+				writers.execute(this::drain);
+			}
+		}
+
+		/**
+		 * Drops the subscriber if a write to it has been blocked since before the given time
+		 * @return True if it was dropped
+		 */
+		synchronized boolean closeIfStalled(long startedBefore) {
+			if (writer == null || writeStartedAt - startedBefore > 0) return false;
+			markClosed();
+			abortWrite();
+			return true;
+		}
+
+		// The server writes through an interruptible socket channel: the interrupt closes it and fails the write
+		private void abortWrite() {
+			if (writer != null) {
+				writer.interrupt();
+			}
+		}
+
+		// True if the caller must start a drain to close the exchange; false if one is running or it is done
+		private synchronized boolean markClosed() {
+			if (closed) return false;
+			closed = true;
+			queue.clear();
+			subscribers.remove(this);
+			if (scheduled) return false;
+			scheduled = true;
+			return true;
+		}
+	}
+
+	/**
+	 * @param statistics Aggregates published after each burst of changes
+	 * @param maxSubscribers Connections accepted at once
+	 * @param maxQueuedEvents Unsent events a subscriber may fall behind by before it is dropped
+	 * @param replaySize Recent events kept for Last-Event-ID reconnects
+	 * @param heartbeatSeconds Interval of keep-alive comments, which also detect dead connections and stalled writes
+	 * @param writerThreads Threads shared by all subscribers for socket writes
+	 */
+	public StudentEventBroadcaster(StatisticsAggregator statistics, int maxSubscribers, int maxQueuedEvents,
+			int replaySize, int heartbeatSeconds, int writerThreads) {
+		this.statistics = statistics;
+		this.maxSubscribers = maxSubscribers;
+		this.maxQueuedEvents = Math.max(1, maxQueuedEvents);
+		this.replaySize = Math.max(0, replaySize);
+
+		AtomicInteger writerIds = new AtomicInteger();
+		this.writers = Executors.newFixedThreadPool(Math.max(1, writerThreads), r -> {
+			Thread t = new Thread(r, "sse-writer-" + writerIds.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "sse-heartbeat");
+			t.setDaemon(true);
+			return t;
+		});
+		// A write still blocked after a whole interval means the client stopped reading
+		long stallNanos = TimeUnit.SECONDS.toNanos(heartbeatSeconds);
+		heartbeat.scheduleAtFixedRate(() -> {
+			long stalledBefore = System.nanoTime() - stallNanos;
+			for (Subscriber s : subscribers) {
+				if (!s.closeIfStalled(stalledBefore)) s.enqueue(HEARTBEAT);
+			}
+		}, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+
+		this.dispatcher = new Thread(this::dispatch, "sse-dispatcher");
+		dispatcher.setDaemon(true);
+		dispatcher.start();
+	}
+
+	/**
+	 * Takes over an exchange as an event stream; the handler thread returns immediately
+	 * @param exchange GET request for the stream
+	 * @param lastEventId Value of the Last-Event-ID header, or null
+	 * @return False if the subscriber limit is reached (nothing has been sent)
+	 * @throws IOException if the response headers cannot be sent
+	 */
+	public boolean subscribe(HttpExchange exchange, String lastEventId) throws IOException {
+		if (subscribers.size() >= maxSubscribers) {
+			return false;
+		}
+		exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+		exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+		exchange.getResponseHeaders().set("X-Accel-Buffering", "no");
+		exchange.sendResponseHeaders(200, 0);
+
+		Subscriber subscriber = new Subscriber(exchange);
+		subscriber.enqueue("retry: 3000\n\n".getBytes(StandardCharsets.US_ASCII));
+		synchronized (eventLock) {
+			long since = parseId(lastEventId);
+			if (since >= 0 && since != this.lastEventId) {
+				if (since < this.lastEventId && !recent.isEmpty() && recent.peekFirst().id <= since + 1) {
+					for (Event e : recent) {
+						if (e.id > since) subscriber.enqueue(e.frame);
+					}
+				} else {
+					// Missed more than we kept, or the ID is from before a restart: the client must reload
+					subscriber.enqueue(frame(this.lastEventId, "reset", "{}"));
+				}
+			}
+			subscribers.add(subscriber);
+		}
+		return true;
+	}
+
+	public int getSubscriberCount() {
+		return subscribers.size();
+	}
+
+	/**
+	 * Disconnects all subscribers and stops the background threads
+	 */
+	public void shutdown() {
+		running = false;
+		dispatcher.interrupt();
+		heartbeat.shutdownNow();
+		for (Subscriber s : subscribers) s.close();
+		writers.shutdown();
+	}
+
+	@Override
+	public void studentInserted(StudentBean student) {
+		incoming.add(new Change("inserted", student));
+	}
+
+	@Override
+	public void studentUpdated(StudentBean before, StudentBean after) {
+		incoming.add(new Change("updated", after));
+	}
+
+	@Override
+	public void studentDeleted(StudentBean student) {
+		incoming.add(new Change("deleted", student));
+	}
+
+	@Override
+	public void studentsCleared() {
+		incoming.add(new Change("cleared", null));
+	}
+
+	private void dispatch() {
+		while (running) {
+			try {
+				Change change = incoming.poll();
+				if (change == null) {
+					if (statisticsDirty) {
+						statisticsDirty = false;
+						JsonWriter json = new JsonWriter();
+						HttpApiServer.writeStatistics(json, statistics.snapshot());
+						publish("statistics", json.toString());
+					}
+					change = incoming.take();
+				}
+				publish(change.type, toJson(change.type, change.student));
+				statisticsDirty = true;
+			} catch (InterruptedException e) {
+				return;
+			} catch (IOException | RuntimeException e) {
+				System.err.println("Error publishing student event: " + e);
+			}
+		}
+	}
+
+	private static String toJson(String type, StudentBean student) throws IOException {
+		JsonWriter json = new JsonWriter();
+		if ("cleared".equals(type)) {
+			json.beginObject().endObject();
+		} else if ("deleted".equals(type)) {
+			json.beginObject().name("studentId").value(student.getStudentId()).endObject();
+		} else {
+			HttpApiServer.writeStudent(json, student);
+		}
+		return json.toString();
+	}
+
+	private void publish(String type, String data) {
+		synchronized (eventLock) {
+			long id = ++lastEventId;
+			Event event = new Event(id, frame(id, type, data));
+			if (replaySize > 0) {
+				if (recent.size() == replaySize) recent.removeFirst();
+				recent.addLast(event);
+			}
+			for (Subscriber s : subscribers) {
+				s.enqueue(event.frame);
+			}
+		}
+	}
+
+	private static byte[] frame(long id, String type, String data) {
+		// JSON from JsonWriter has no raw newlines, so it fits on one data: line
+		return ("id: " + id + "\nevent: " + type + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static long parseId(String value) {
+		if (value == null) return -1;
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+}
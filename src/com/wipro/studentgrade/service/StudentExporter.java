@@ -0,0 +1,208 @@
+package com.wipro.studentgrade.service;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.dao.StudentRepository;
+import com.wipro.studentgrade.dao.StudentVisitor;
+import com.wipro.studentgrade.util.JsonWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes students as CSV or JSON lines while they stream out of
+ * {@link StudentRepository#streamStudents}.
+ *
+ * Rows are encoded straight into a fixed byte buffer that is written to the
+ * stream whenever it fills, and the DAO reuses one bean for every row, so
+ * memory stays the same whether the export has ten rows or ten million. The
+ * CSV columns match the web UI's former export and are read back by
+ * {@link StudentImporter}.
+ */
+public class StudentExporter implements StudentVisitor, Closeable {
+	private static final byte[] CSV_HEADER =
+		"Student ID,Name,Mark 1,Mark 2,Mark 3,Mark 4,Mark 5,Total,Average,Grade\n".getBytes(StandardCharsets.US_ASCII);
+
+	public enum Format {
+		CSV("text/csv; charset=utf-8", "csv"),
+		JSONL("application/x-ndjson; charset=utf-8", "jsonl");
+
+		public final String contentType;
+		public final String extension;
+
+		Format(String contentType, String extension) {
+			this.contentType = contentType;
+			this.extension = extension;
+		}
+
+		/**
+		 * @param name csv or jsonl (ndjson is accepted too); null or empty means csv
+		 * @return Matching format, or null if unknown
+		 */
+		public static Format fromParam(String name) {
+			if (name == null || name.isEmpty() || "csv".equalsIgnoreCase(name)) return CSV;
+			if ("jsonl".equalsIgnoreCase(name) || "ndjson".equalsIgnoreCase(name)) return JSONL;
+			return null;
+		}
+	}
+
+	private final Format format;
+	private final OutputStream out;
+	private final JsonWriter json;
+	private final byte[] buf = new byte[65536];
+	private int count;
+	private long rows;
+
+	/**
+	 * @param format Output format
+	 * @param out Stream to write to; flushed by {@link #finish} and closed by {@link #close}
+	 */
+	public StudentExporter(Format format, OutputStream out) {
+		this.format = format;
+		this.out = out;
+		this.json = format == Format.JSONL ? new JsonWriter(out) : null;
+	}
+
+	/**
+	 * Writes the CSV header row; JSON lines have none
+	 */
+	public void begin() throws IOException {
+		if (format == Format.CSV) {
+			writeBytes(CSV_HEADER);
+		}
+	}
+
+	@Override
+	public void visit(StudentBean s) throws IOException {
+		rows++;
+		if (json != null) {
+			HttpApiServer.writeStudent(json, s);
+			return;
+		}
+		writeCsvText(s.getStudentId(), false);
+		writeByte(',');
+		writeCsvText(s.getName(), true);
+		writeByte(',');
+		writeInt(s.getMark1());
+		writeByte(',');
+		writeInt(s.getMark2());
+		writeByte(',');
+		writeInt(s.getMark3());
+		writeByte(',');
+		writeInt(s.getMark4());
+		writeByte(',');
+		writeInt(s.getMark5());
+		writeByte(',');
+		writeInt(s.getTotal());
+		writeByte(',');
+		writeInt(s.getAverage());
+		writeByte(',');
+		writeCsvText(s.getGrade(), false);
+		writeByte('\n');
+	}
+
+	/**
+	 * Writes whatever is buffered and flushes the stream
+	 */
+	public void finish() throws IOException {
+		if (json != null) {
+			if (rows > 0) {
+				json.flush();
+				out.write('\n');
+			}
+		} else {
+			out.write(buf, 0, count);
+			count = 0;
+		}
+		out.flush();
+	}
+
+	/**
+	 * Finishes the export and closes the stream, which completes a gzip stream's trailer
+	 */
+	@Override
+	public void close() throws IOException {
+		finish();
+		out.close();
+	}
+
+	/**
+	 * @return Students written so far
+	 */
+	public long getRows() {
+		return rows;
+	}
+
+	// Quotes when asked or when the value needs it, doubling embedded quotes
+	private void writeCsvText(String value, boolean alwaysQuote) throws IOException {
+		if (value == null) {
+			value = "";
+		}
+		boolean quote = alwaysQuote;
+		for (int i = 0; i < value.length() && !quote; i++) {
+			char c = value.charAt(i);
+			quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+		}
+		if (quote) writeByte('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				if (c == '"') writeByte('"');
+				writeByte(c);
+			} else {
+				// Rare in this data: encode the rest of the value through the JDK and stop
+				String rest = value.substring(i);
+				writeBytes((quote ? rest.replace("\"", "\"\"") : rest).getBytes(StandardCharsets.UTF_8));
+				break;
+			}
+		}
+		if (quote) writeByte('"');
+	}
+
+	private void writeInt(int v) throws IOException {
+		ensure(11);
+		if (v < 0) {
+			if (v == Integer.MIN_VALUE) {
+				writeBytes(String.valueOf(v).getBytes(StandardCharsets.US_ASCII));
+				return;
+			}
+			buf[count++] = '-';
+			v = -v;
+		}
+		int digits = 1;
+		for (int t = v; t >= 10; t /= 10) {
+			digits++;
+		}
+		int end = count + digits;
+		for (int p = end - 1; p >= count; p--) {
+			buf[p] = (byte) ('0' + v % 10);
+			v /= 10;
+		}
+		count = end;
+	}
+
+	private void writeByte(char c) throws IOException {
+		ensure(1);
+		buf[count++] = (byte) c;
+	}
+
+	private void writeBytes(byte[] bytes) throws IOException {
+		if (bytes.length > buf.length) {
+			out.write(buf, 0, count);
+			count = 0;
+			out.write(bytes);
+			return;
+		}
+		ensure(bytes.length);
+		System.arraycopy(bytes, 0, buf, count, bytes.length);
+		count += bytes.length;
+	}
+
+	private void ensure(int n) throws IOException {
+		if (count + n > buf.length) {
+			out.write(buf, 0, count);
+			count = 0;
+		}
+	}
+}
@@ -0,0 +1,229 @@
+package com.wipro.studentgrade.service;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.dao.StudentRepository;
+import com.wipro.studentgrade.util.InvalidMarkException;
+import com.wipro.studentgrade.util.JsonReader;
+import com.wipro.studentgrade.util.MalformedJsonException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk-loads students from CSV or JSON-lines input.
+ *
+ * Rows are read one line at a time, graded, and written through
+ * {@link StudentRepository#insertStudents(List, int)} in chunks of batchSize, so a
+ * large file never has to be held in memory. Rows that fail validation or are
+ * rejected by the database are reported with their line number and reason.
+ */
+public class StudentImporter {
+	private static final int MAX_REPORTED_ERRORS = 1000;
+
+	private final GradeProcessor gradeProcessor;
+	private final StudentRepository studentDAO;
+	private final int batchSize;
+
+	private final List<StudentBean> pending = new ArrayList<>();
+	private final List<Integer> pendingLines = new ArrayList<>();
+	private final List<RowError> errors = new ArrayList<>();
+	private int inserted;
+	private int rejected;
+
+	/** A rejected input row. */
+	public static final class RowError {
+		public final int line;
+		public final String reason;
+
+		RowError(int line, String reason) {
+			this.line = line;
+			this.reason = reason;
+		}
+	}
+
+	public StudentImporter(GradeProcessor gradeProcessor, StudentRepository studentDAO, int batchSize) {
+		this.gradeProcessor = gradeProcessor;
+		this.studentDAO = studentDAO;
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	/**
+	 * Imports CSV rows. A header row is optional; when present its columns are matched
+	 * by name (name, m1..m5, mark1..mark5, "Mark 1".."Mark 5"), otherwise the columns
+	 * are name,m1,m2,m3,m4,m5. Other columns such as the export's Total/Grade are ignored.
+	 */
+	public void importCsv(BufferedReader reader) throws IOException, SQLException {
+		int[] columns = { 0, 1, 2, 3, 4, 5 };
+		String line;
+		int lineNo = 0;
+		while ((line = reader.readLine()) != null) {
+			lineNo++;
+			if (line.trim().isEmpty()) continue;
+			List<String> fields = splitCsv(line);
+
+			if (lineNo == 1 && isHeader(fields)) {
+				columns = mapHeader(fields);
+				continue;
+			}
+
+			try {
+				StudentBean bean = new StudentBean();
+				bean.setName(field(fields, columns[0]));
+				bean.setMark1(parseMark(field(fields, columns[1]), 1));
+				bean.setMark2(parseMark(field(fields, columns[2]), 2));
+				bean.setMark3(parseMark(field(fields, columns[3]), 3));
+				bean.setMark4(parseMark(field(fields, columns[4]), 4));
+				bean.setMark5(parseMark(field(fields, columns[5]), 5));
+				accept(bean, lineNo);
+			} catch (InvalidMarkException e) {
+				reject(lineNo, e.getMessage());
+			}
+		}
+		flush();
+	}
+
+	/**
+	 * Imports one JSON object per line, e.g. {"name":"Jane Doe","m1":90,...,"m5":78}.
+	 * mark1..mark5 are accepted as field names too.
+	 */
+	public void importJsonLines(BufferedReader reader) throws IOException, SQLException {
+		String line;
+		int lineNo = 0;
+		while ((line = reader.readLine()) != null) {
+			lineNo++;
+			if (line.trim().isEmpty()) continue;
+			try {
+				JsonReader json = new JsonReader(line);
+				StudentBean bean = StudentJsonBinder.readStudent(json);
+				if (json.peek() != JsonReader.Token.END_DOCUMENT) {
+					reject(lineNo, "Expected one JSON object per line");
+					continue;
+				}
+				accept(bean, lineNo);
+			} catch (InvalidMarkException e) {
+				reject(lineNo, e.getMessage());
+			} catch (MalformedJsonException e) {
+				reject(lineNo, "Malformed JSON: " + e.getMessage());
+			}
+		}
+		flush();
+	}
+
+	private void accept(StudentBean bean, int lineNo) throws InvalidMarkException, SQLException {
+		if (bean.getName() == null || bean.getName().trim().isEmpty()) {
+			reject(lineNo, "Name is required");
+			return;
+		}
+		bean.setName(bean.getName().trim());
+		bean.setVersion(0);
+		gradeProcessor.calculateGrade(bean);
+		bean.setStudentId(studentDAO.generateId(bean.getName()));
+		pending.add(bean);
+		pendingLines.add(lineNo);
+		if (pending.size() >= batchSize) {
+			flush();
+		}
+	}
+
+	private void flush() throws SQLException {
+		if (pending.isEmpty()) return;
+		int[] results = studentDAO.insertStudents(pending, batchSize);
+		for (int i = 0; i < results.length; i++) {
+			if (results[i] > 0) {
+				inserted++;
+			} else {
+				reject(pendingLines.get(i), "Rejected by database (student " + pending.get(i).getStudentId() + ")");
+			}
+		}
+		pending.clear();
+		pendingLines.clear();
+	}
+
+	private void reject(int lineNo, String reason) {
+		rejected++;
+		if (errors.size() < MAX_REPORTED_ERRORS) {
+			errors.add(new RowError(lineNo, reason));
+		}
+	}
+
+	private static int parseMark(String value, int subject) throws InvalidMarkException {
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new InvalidMarkException("Mark " + subject + " is not a number: '" + value + "'");
+		}
+	}
+
+	private static String field(List<String> fields, int index) {
+		return index >= 0 && index < fields.size() ? fields.get(index) : "";
+	}
+
+	private static boolean isHeader(List<String> fields) {
+		for (String f : fields) {
+			if ("name".equals(normalizeHeader(f))) return true;
+		}
+		return false;
+	}
+
+	private static int[] mapHeader(List<String> header) {
+		int[] columns = { -1, -1, -1, -1, -1, -1 };
+		for (int i = 0; i < header.size(); i++) {
+			String h = normalizeHeader(header.get(i));
+			if (h.equals("name")) {
+				columns[0] = i;
+			} else if (h.length() >= 2 && Character.isDigit(h.charAt(h.length() - 1))
+					&& (h.startsWith("m") || h.startsWith("subject"))) {
+				int subject = h.charAt(h.length() - 1) - '0';
+				if (subject >= 1 && subject <= 5) columns[subject] = i;
+			}
+		}
+		return columns;
+	}
+
+	private static String normalizeHeader(String h) {
+		StringBuilder out = new StringBuilder(h.length());
+		for (int i = 0; i < h.length(); i++) {
+			char c = h.charAt(i);
+			if (Character.isLetterOrDigit(c)) out.append(Character.toLowerCase(c));
+		}
+		return out.toString();
+	}
+
+	// Splits one CSV line, honouring double-quoted fields with "" escapes
+	private static List<String> splitCsv(String line) {
+		List<String> fields = new ArrayList<>(10);
+		StringBuilder current = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"') {
+					if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+						current.append('"');
+						i++;
+					} else {
+						quoted = false;
+					}
+				} else {
+					current.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(current.toString());
+				current.setLength(0);
+			} else {
+				current.append(c);
+			}
+		}
+		fields.add(current.toString());
+		return fields;
+	}
+
+	public int getInserted() { return inserted; }
+	public int getRejected() { return rejected; }
+	public List<RowError> getErrors() { return errors; }
+}
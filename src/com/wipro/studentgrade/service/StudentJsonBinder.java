@@ -0,0 +1,98 @@
+package com.wipro.studentgrade.service;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.util.JsonReader;
+import com.wipro.studentgrade.util.MalformedJsonException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds JSON request bodies straight onto {@link StudentBean}s.
+ *
+ * Fields are read off the {@link JsonReader} as they arrive; unknown fields are
+ * skipped. Marks may be named m1..m5 or mark1..mark5. A mark that is absent is
+ * left at -1 so grade validation reports it.
+ */
+public final class StudentJsonBinder {
+
+	private StudentJsonBinder() {}
+
+	/**
+	 * Reads one student object
+	 * @param json Reader positioned at the object
+	 * @return Bound student (not yet graded)
+	 * @throws IOException if the input is not a well-formed student object
+	 */
+	public static StudentBean readStudent(JsonReader json) throws IOException {
+		StudentBean bean = new StudentBean();
+		bean.setMark1(-1);
+		bean.setMark2(-1);
+		bean.setMark3(-1);
+		bean.setMark4(-1);
+		bean.setMark5(-1);
+		bean.setVersion(-1);
+		json.beginObject();
+		while (json.hasNext()) {
+			switch (json.nextName()) {
+				case "studentId": bean.setStudentId(nextStringOrNull(json)); break;
+				case "name": bean.setName(nextStringOrNull(json)); break;
+				case "m1": case "mark1": bean.setMark1(json.nextInt()); break;
+				case "m2": case "mark2": bean.setMark2(json.nextInt()); break;
+				case "m3": case "mark3": bean.setMark3(json.nextInt()); break;
+				case "m4": case "mark4": bean.setMark4(json.nextInt()); break;
+				case "m5": case "mark5": bean.setMark5(json.nextInt()); break;
+				case "version": bean.setVersion(json.nextInt()); break;
+				default: json.skipValue();
+			}
+		}
+		json.endObject();
+		return bean;
+	}
+
+	/**
+	 * Reads a whole body holding either one student object or an array of them
+	 * @param json Reader at the start of the document
+	 * @param maxStudents Largest array accepted
+	 * @return Bound students, in input order
+	 * @throws IOException if the body is malformed, empty, too large, or has trailing data
+	 */
+	public static List<StudentBean> readStudents(JsonReader json, int maxStudents) throws IOException {
+		List<StudentBean> students = new ArrayList<>();
+		JsonReader.Token first = json.peek();
+		if (first == JsonReader.Token.BEGIN_OBJECT) {
+			students.add(readStudent(json));
+		} else if (first == JsonReader.Token.BEGIN_ARRAY) {
+			json.beginArray();
+			while (json.hasNext()) {
+				if (students.size() == maxStudents) {
+					throw new MalformedJsonException("At most " + maxStudents + " students per request");
+				}
+				students.add(readStudent(json));
+			}
+			json.endArray();
+		} else {
+			throw new MalformedJsonException("Expected a student object or an array of students");
+		}
+		expectEnd(json);
+		return students;
+	}
+
+	/**
+	 * @throws MalformedJsonException if anything follows the top-level value
+	 */
+	public static void expectEnd(JsonReader json) throws IOException {
+		if (json.peek() != JsonReader.Token.END_DOCUMENT) {
+			throw new MalformedJsonException("Unexpected data after the JSON value");
+		}
+	}
+
+	private static String nextStringOrNull(JsonReader json) throws IOException {
+		if (json.peek() == JsonReader.Token.NULL) {
+			json.nextNull();
+			return null;
+		}
+		return json.nextString();
+	}
+}
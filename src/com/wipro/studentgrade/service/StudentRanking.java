@@ -0,0 +1,173 @@
+package com.wipro.studentgrade.service;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.dao.StudentChangeListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Class rank by total, kept current from DAO change events.
+ *
+ * A Fenwick (binary indexed) tree over the 0-500 total range counts students
+ * per total. The number of students above a total, and so a rank or
+ * percentile, costs O(log 501) regardless of class size. Students are also
+ * bucketed by total, ordered by ID within a bucket. Top-N walks the buckets
+ * from 500 down and stops after n students, with no sort.
+ */
+public class StudentRanking implements StudentChangeListener {
+	public static final int MAX_TOTAL = 500;
+
+	// Fenwick tree over totals 0..MAX_TOTAL, stored at index total + 1
+	private final long[] tree = new long[MAX_TOTAL + 2];
+	// Bucket per total, created on first use
+	private final List<TreeMap<String, StudentBean>> byTotal = new ArrayList<>(Collections.nCopies(MAX_TOTAL + 1, null));
+	private final Map<String, StudentBean> byId = new HashMap<>();
+
+	/** Position of one student in the class. */
+	public static final class Rank {
+		public final StudentBean student;
+		/** 1 + number of students with a higher total; ties share a rank. */
+		public final long rank;
+		public final long ahead;
+		/** Other students with the same total. */
+		public final long tied;
+		public final long outOf;
+		/** Percentage of the class with a lower or equal total, 0-100. */
+		public final double percentile;
+
+		Rank(StudentBean student, long ahead, long tied, long outOf) {
+			this.student = student;
+			this.rank = ahead + 1;
+			this.ahead = ahead;
+			this.tied = tied;
+			this.outOf = outOf;
+			this.percentile = outOf == 0 ? 0 : 100.0 * (outOf - ahead) / outOf;
+		}
+	}
+
+	/**
+	 * Replaces the contents with students already in memory
+	 * @param students Every stored student; the beans are kept, so they must not be changed afterwards
+	 */
+	public synchronized void seed(Collection<StudentBean> students) {
+		clear();
+		for (StudentBean s : students) {
+			add(s);
+		}
+	}
+
+	public synchronized int size() {
+		return byId.size();
+	}
+
+	/**
+	 * @param studentId Student to look up
+	 * @return The student's rank by total, or null if there is no such student
+	 */
+	public synchronized Rank rank(String studentId) {
+		StudentBean student = byId.get(studentId);
+		if (student == null) {
+			return null;
+		}
+		int total = clamp(student.getTotal());
+		long atOrBelow = prefixSum(total);
+		long below = total == 0 ? 0 : prefixSum(total - 1);
+		long n = byId.size();
+		return new Rank(new StudentBean(student), n - atOrBelow, atOrBelow - below - 1, n);
+	}
+
+	/**
+	 * @param n Number of students wanted
+	 * @return Up to n students with the highest totals, highest first, ties by student ID
+	 */
+	public synchronized List<Rank> top(int n) {
+		List<Rank> top = new ArrayList<>(Math.max(0, Math.min(n, byId.size())));
+		long size = byId.size();
+		long ahead = 0;
+		for (int total = MAX_TOTAL; total >= 0 && top.size() < n; total--) {
+			TreeMap<String, StudentBean> bucket = byTotal.get(total);
+			if (bucket == null || bucket.isEmpty()) continue;
+			for (StudentBean s : bucket.values()) {
+				if (top.size() == n) break;
+				top.add(new Rank(new StudentBean(s), ahead, bucket.size() - 1, size));
+			}
+			ahead += bucket.size();
+		}
+		return top;
+	}
+
+	@Override
+	public synchronized void studentInserted(StudentBean student) {
+		remove(student.getStudentId());
+		add(student);
+	}
+
+	@Override
+	public synchronized void studentUpdated(StudentBean before, StudentBean after) {
+		remove(before.getStudentId());
+		add(after);
+	}
+
+	@Override
+	public synchronized void studentDeleted(StudentBean student) {
+		remove(student.getStudentId());
+	}
+
+	@Override
+	public synchronized void studentsCleared() {
+		clear();
+	}
+
+	private void add(StudentBean student) {
+		int total = clamp(student.getTotal());
+		byId.put(student.getStudentId(), student);
+		TreeMap<String, StudentBean> bucket = byTotal.get(total);
+		if (bucket == null) {
+			bucket = new TreeMap<>();
+			byTotal.set(total, bucket);
+		}
+		bucket.put(student.getStudentId(), student);
+		update(total, 1);
+	}
+
+	private void remove(String studentId) {
+		StudentBean old = byId.remove(studentId);
+		if (old != null) {
+			int total = clamp(old.getTotal());
+			byTotal.get(total).remove(studentId);
+			update(total, -1);
+		}
+	}
+
+	private void clear() {
+		Arrays.fill(tree, 0);
+		Collections.fill(byTotal, null);
+		byId.clear();
+	}
+
+	private void update(int total, long delta) {
+		for (int i = total + 1; i < tree.length; i += i & -i) {
+			tree[i] += delta;
+		}
+	}
+
+	// Number of students with a total of at most the given value
+	private long prefixSum(int total) {
+		long sum = 0;
+		for (int i = total + 1; i > 0; i -= i & -i) {
+			sum += tree[i];
+		}
+		return sum;
+	}
+
+	private static int clamp(int total) {
+		return total < 0 ? 0 : Math.min(total, MAX_TOTAL);
+	}
+}
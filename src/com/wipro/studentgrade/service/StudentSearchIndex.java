@@ -0,0 +1,759 @@
+package com.wipro.studentgrade.service;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.dao.StudentChangeListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Search over student names and IDs, kept current from DAO change events.
+ *
+ * Names are split into words and, with each student ID, lower-cased and
+ * stripped of accents and apostrophes to form a vocabulary of terms. A query
+ * word matches a term exactly, as a prefix, as a substring (three or more
+ * characters) or one typo away (four or more letters, against name words):
+ * an insertion, deletion, substitution or swap of neighbours. Words of one
+ * or two characters match name word prefixes only, not IDs.
+ *
+ * Each kind of match has its own index. The vocabulary is sorted, so prefixes
+ * are a range of it. Terms are indexed by their trigrams; a substring is
+ * looked for in the shortest posting list among the word's trigrams. Name
+ * words are indexed by their single-letter deletions, and the deletions of a
+ * query word lead to the terms one typo away.
+ *
+ * Every query word must match one of a student's terms. Students are ranked by
+ * the sum of each word's best match: exact, then prefix, substring, typo. Ties
+ * go to the shorter (normalized) name, then the lower ID. Each term keeps its
+ * students in that tie-break order, so the longest query word's terms can be
+ * merged best first, one kind of match at a time, checking the other words
+ * against each student's few terms. The walk stops as soon as no student left
+ * could enter the results, which for a typical query is after little more
+ * students than it returns, however many students match.
+ */
+public class StudentSearchIndex implements StudentChangeListener {
+	public static final int MAX_RESULTS = 100;
+
+	private static final int EXACT = 8;
+	private static final int PREFIX = 6;
+	private static final int SUBSTRING = 3;
+	private static final int TYPO = 2;
+	private static final int[] QUALITIES = {EXACT, PREFIX, SUBSTRING, TYPO};
+	private static final int MIN_SUBSTRING_LENGTH = 3;
+	private static final int MIN_TYPO_LENGTH = 4;
+
+	/** One search result. */
+	public static final class Match {
+		public final StudentBean student;
+		/** Sum over query words of the best match quality; higher is better. */
+		public final int score;
+
+		Match(StudentBean student, int score) {
+			this.student = student;
+			this.score = score;
+		}
+	}
+
+	// Growable list of ints
+	private static final class IntList {
+		int[] items = new int[2];
+		int size;
+
+		void add(int value) {
+			insert(size, value);
+		}
+
+		void insert(int index, int value) {
+			if (size == items.length) {
+				items = Arrays.copyOf(items, size * 2);
+			}
+			System.arraycopy(items, index, items, index + 1, size - index);
+			items[index] = value;
+			size++;
+		}
+
+		void removeAt(int index) {
+			System.arraycopy(items, index + 1, items, index, size - index - 1);
+			size--;
+		}
+
+		// For unordered lists: the last element takes the removed one's place
+		void remove(int value) {
+			for (int i = 0; i < size; i++) {
+				if (items[i] == value) {
+					items[i] = items[--size];
+					return;
+				}
+			}
+		}
+	}
+
+	private static final class Term {
+		final String text;
+		final int id;
+		/** Students with this term, in tie-break order (see compareDocs). */
+		final IntList docs = new IntList();
+
+		Term(String text, int id) {
+			this.text = text;
+			this.id = id;
+		}
+	}
+
+	// Vocabulary, name words and IDs (terms with digits) apart so short prefixes skip the IDs
+	private final NavigableMap<String, Term> nameTerms = new TreeMap<>();
+	private final NavigableMap<String, Term> idTerms = new TreeMap<>();
+	private Term[] termById = new Term[1024];
+	private int termLimit;
+	private final IntList freeTerms = new IntList();
+	private final Map<String, IntList> trigramTerms = new HashMap<>();
+	private final Map<String, IntList> deletionTerms = new HashMap<>();
+
+	// Indexed students ("documents")
+	private final Map<String, Integer> docById = new HashMap<>();
+	private StudentBean[] docs = new StudentBean[1024];
+	private String[] docIds = new String[1024];
+	private int[] docLength = new int[1024];
+	private int[][] docTerms = new int[1024][];
+	// The same terms as text, checked against the words that do not lead a search
+	private String[] docText = new String[1024];
+	private int docLimit;
+	private final IntList freeDocs = new IntList();
+
+	// Per-query scratch space; entries count only when their stamp is current, so nothing is cleared
+	private int stamp;
+	private int[] docStamp = new int[1024];
+	private int[] termStamp = new int[1024];
+
+	/**
+	 * Replaces the contents with students already in memory
+	 * @param students Every stored student; the beans are kept, so they must not be changed afterwards
+	 */
+	public synchronized void seed(Collection<StudentBean> students) {
+		clear();
+		for (StudentBean s : students) {
+			add(s);
+		}
+	}
+
+	public synchronized int size() {
+		return docById.size();
+	}
+
+	/**
+	 * @return Distinct name words and IDs in the index
+	 */
+	public synchronized int getTermCount() {
+		return nameTerms.size() + idTerms.size();
+	}
+
+	/**
+	 * @param query Words to look for in names and IDs, in any order
+	 * @param limit Most results wanted, at most {@link #MAX_RESULTS}
+	 * @return Students matching every word, best first
+	 */
+	public synchronized List<Match> search(String query, int limit) {
+		String[] words = words(normalize(query));
+		limit = Math.min(limit, MAX_RESULTS);
+		if (words.length == 0 || limit <= 0) {
+			return List.of();
+		}
+
+		// The longest word is usually the most selective, so its terms lead
+		int lead = 0;
+		int[] best = new int[words.length];
+		for (int w = 0; w < words.length; w++) {
+			best[w] = bestQuality(words[w]);
+			if (best[w] == 0) {
+				return List.of();
+			}
+			if (words[w].length() > words[lead].length()) {
+				lead = w;
+			}
+		}
+		// Most the other words can add, to know when no student left can make the results
+		int othersBest = 0;
+		for (int w = 0; w < words.length; w++) {
+			if (w != lead) othersBest += best[w];
+		}
+
+		Merge merge = new Merge(words[lead]);
+		Results results = new Results(limit);
+		int docsStamp = nextStamp();
+		while (true) {
+			if (merge.size == 0) {
+				int next = merge.nextQuality();
+				if (next == 0 || results.full() && next + othersBest < results.scores[limit - 1]) {
+					break;
+				}
+				merge.loadNextQuality();
+				continue;
+			}
+			int doc = merge.head[merge.heap[0]];
+			int quality = merge.quality;
+			if (results.full() && !results.admits(quality + othersBest, doc)) {
+				break; // Everything left ranks below the last result
+			}
+			merge.advance();
+			if (docStamp[doc] == docsStamp) continue; // Already seen through a better or equal term
+			docStamp[doc] = docsStamp;
+
+			int score = quality;
+			for (int w = 0; w < words.length && score > 0; w++) {
+				if (w == lead) continue;
+				int wordQuality = bestQuality(words[w], docText[doc]);
+				score = wordQuality > 0 ? score + wordQuality : 0;
+			}
+			if (score > 0) {
+				results.offer(score, doc);
+			}
+		}
+
+		List<Match> matches = new ArrayList<>(results.size);
+		for (int i = 0; i < results.size; i++) {
+			matches.add(new Match(new StudentBean(docs[results.docs[i]]), results.scores[i]));
+		}
+		return matches;
+	}
+
+	@Override
+	public synchronized void studentInserted(StudentBean student) {
+		remove(student.getStudentId());
+		add(student);
+	}
+
+	@Override
+	public synchronized void studentUpdated(StudentBean before, StudentBean after) {
+		Integer doc = docById.get(before.getStudentId());
+		if (doc != null && before.getStudentId().equals(after.getStudentId())
+				&& normalize(after.getName()).equals(normalize(docs[doc].getName()))) {
+			docs[doc] = after; // Same terms, nothing to reindex
+			return;
+		}
+		remove(before.getStudentId());
+		add(after);
+	}
+
+	@Override
+	public synchronized void studentDeleted(StudentBean student) {
+		remove(student.getStudentId());
+	}
+
+	@Override
+	public synchronized void studentsCleared() {
+		clear();
+	}
+
+	/**
+	 * @param word Normalized query word
+	 * @param terms A student's terms, separated by spaces
+	 * @return How well the word matches the best of the terms, 0 for not at all
+	 */
+	static int bestQuality(String word, String terms) {
+		int best = 0;
+		for (int start = 0, end; start < terms.length() && best < EXACT; start = end + 1) {
+			end = terms.indexOf(' ', start);
+			if (end < 0) end = terms.length();
+			best = Math.max(best, quality(word, terms, start, end));
+		}
+		return best;
+	}
+
+	// How well the word matches terms[start, end); the same rules the indexes follow
+	private static int quality(String word, String terms, int start, int end) {
+		int n = word.length();
+		boolean isShort = n < MIN_SUBSTRING_LENGTH;
+		if (n <= end - start && terms.startsWith(word, start)) {
+			if (isShort && hasDigit(terms, start, end)) return 0;
+			return end - start == n ? EXACT : PREFIX;
+		}
+		if (isShort) return 0;
+		int at = terms.indexOf(word, start + 1);
+		if (at > 0 && at + n <= end) return SUBSTRING;
+		if (Math.abs(end - start - n) <= 1 && typoWord(word)) {
+			String term = terms.substring(start, end);
+			if (typoTerm(term) && withinOneEdit(word, term)) return TYPO;
+		}
+		return 0;
+	}
+
+	// Best quality any term could give the word; cheap lookups, so an upper bound for substrings and typos
+	private int bestQuality(String word) {
+		boolean isShort = word.length() < MIN_SUBSTRING_LENGTH;
+		if (isShort && hasDigit(word)) {
+			return 0;
+		}
+		if (termOf(word) != null) {
+			return EXACT;
+		}
+		if (hasPrefix(nameTerms, word) || !isShort && hasPrefix(idTerms, word)) {
+			return PREFIX;
+		}
+		if (!isShort && rarestTrigram(word) != null) {
+			return SUBSTRING;
+		}
+		if (typoWord(word)) {
+			if (deletionTerms.containsKey(word)) return TYPO;
+			for (int i = 0; i < word.length(); i++) {
+				if (deletionTerms.containsKey(deleteAt(word, i))) return TYPO;
+			}
+		}
+		return 0;
+	}
+
+	private static boolean hasPrefix(NavigableMap<String, Term> vocabulary, String word) {
+		String next = vocabulary.ceilingKey(word);
+		return next != null && next.startsWith(word);
+	}
+
+	// Terms the word matches with one quality, each once
+	private void collectTerms(String word, int quality, IntList out) {
+		switch (quality) {
+		case EXACT:
+			Term term = termOf(word);
+			if (term != null) out.add(term.id);
+			break;
+		case PREFIX:
+			collectPrefixed(nameTerms, word, out);
+			if (word.length() >= MIN_SUBSTRING_LENGTH) {
+				collectPrefixed(idTerms, word, out);
+			}
+			break;
+		case SUBSTRING:
+			// Any term containing the word has all its trigrams, so the rarest one is enough to scan
+			IntList rarest = rarestTrigram(word);
+			for (int i = 0; rarest != null && i < rarest.size; i++) {
+				String text = termById[rarest.items[i]].text;
+				if (!text.startsWith(word) && text.indexOf(word, 1) > 0) out.add(rarest.items[i]);
+			}
+			break;
+		case TYPO:
+			int wordStamp = nextStamp();
+			collectTypos(word, word, wordStamp, out);
+			for (int i = 0; i < word.length(); i++) {
+				collectTypos(word, deleteAt(word, i), wordStamp, out);
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void collectPrefixed(NavigableMap<String, Term> vocabulary, String word, IntList out) {
+		for (Map.Entry<String, Term> e : vocabulary.tailMap(word, false).entrySet()) {
+			if (!e.getKey().startsWith(word)) break;
+			out.add(e.getValue().id);
+		}
+	}
+
+	private void collectTypos(String word, String key, int wordStamp, IntList out) {
+		IntList candidates = deletionTerms.get(key);
+		if (candidates == null) return;
+		for (int i = 0; i < candidates.size; i++) {
+			int id = candidates.items[i];
+			if (termStamp[id] != wordStamp) {
+				termStamp[id] = wordStamp;
+				String text = termById[id].text;
+				// Terms containing the word were already matched better
+				if (!text.contains(word) && withinOneEdit(word, text)) out.add(id);
+			}
+		}
+	}
+
+	private IntList rarestTrigram(String word) {
+		IntList rarest = null;
+		for (int i = 0; i + 3 <= word.length(); i++) {
+			IntList list = trigramTerms.get(word.substring(i, i + 3));
+			if (list == null) return null;
+			if (rarest == null || list.size < rarest.size) rarest = list;
+		}
+		return rarest;
+	}
+
+	// Tie-break order of students with equal scores: shorter normalized name, then lower ID
+	private int compareDocs(int a, int b) {
+		if (docLength[a] != docLength[b]) {
+			return docLength[a] < docLength[b] ? -1 : 1;
+		}
+		return docIds[a].compareTo(docIds[b]);
+	}
+
+	// Binary min-heap of cursors into the posting lists of one word's terms. Terms
+	// are loaded one quality at a time, best first, so worse matches cost nothing
+	// when the results fill up before reaching them.
+	private final class Merge {
+		final String word;
+		final int[] qualities;
+		int nextQuality;
+		int quality;
+
+		final IntList terms = new IntList();
+		int[] position = new int[0];
+		// Each cursor's current student and sort key, copied out to keep comparisons local
+		int[] head = new int[0];
+		int[] headLength = new int[0];
+		String[] headId = new String[0];
+		int[] heap = new int[0];
+		int size;
+
+		Merge(String word) {
+			this.word = word;
+			int kinds = word.length() < MIN_SUBSTRING_LENGTH ? 2 : typoWord(word) ? 4 : 3;
+			this.qualities = Arrays.copyOf(QUALITIES, kinds);
+		}
+
+		// Quality of the next terms to load, or 0 if there are none
+		int nextQuality() {
+			return nextQuality < qualities.length ? qualities[nextQuality] : 0;
+		}
+
+		void loadNextQuality() {
+			quality = qualities[nextQuality++];
+			terms.size = 0;
+			collectTerms(word, quality, terms);
+			int n = terms.size;
+			if (heap.length < n) {
+				position = new int[n];
+				head = new int[n];
+				headLength = new int[n];
+				headId = new String[n];
+				heap = new int[n];
+			}
+			for (int i = 0; i < n; i++) {
+				position[i] = 0;
+				setHead(i);
+				heap[i] = i;
+			}
+			size = n;
+			for (int i = size / 2 - 1; i >= 0; i--) {
+				siftDown(i);
+			}
+		}
+
+		// Moves the top cursor to its next student, dropping it when its list is done
+		void advance() {
+			int cursor = heap[0];
+			if (++position[cursor] == termById[terms.items[cursor]].docs.size) {
+				heap[0] = heap[--size];
+			} else {
+				setHead(cursor);
+			}
+			siftDown(0);
+		}
+
+		private void setHead(int cursor) {
+			int doc = termById[terms.items[cursor]].docs.items[position[cursor]];
+			head[cursor] = doc;
+			headLength[cursor] = docLength[doc];
+			headId[cursor] = docIds[doc];
+		}
+
+		private boolean before(int a, int b) {
+			if (headLength[a] != headLength[b]) return headLength[a] < headLength[b];
+			return headId[a].compareTo(headId[b]) < 0;
+		}
+
+		private void siftDown(int i) {
+			if (i >= size) return;
+			int cursor = heap[i];
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= size) break;
+				if (child + 1 < size && before(heap[child + 1], heap[child])) child++;
+				if (!before(heap[child], cursor)) break;
+				heap[i] = heap[child];
+				i = child;
+			}
+			heap[i] = cursor;
+		}
+	}
+
+	// The best `limit` students offered so far, best first
+	private final class Results {
+		final int[] docs;
+		final int[] scores;
+		int size;
+
+		Results(int limit) {
+			docs = new int[limit];
+			scores = new int[limit];
+		}
+
+		boolean full() {
+			return size == docs.length;
+		}
+
+		// Whether a student with this score would rank above the current last result
+		boolean admits(int score, int doc) {
+			if (!full()) return true;
+			int last = size - 1;
+			return score > scores[last] || score == scores[last] && compareDocs(doc, docs[last]) < 0;
+		}
+
+		void offer(int score, int doc) {
+			if (!admits(score, doc)) return;
+			int i = full() ? size - 1 : size++;
+			while (i > 0 && (score > scores[i - 1] || score == scores[i - 1] && compareDocs(doc, docs[i - 1]) < 0)) {
+				docs[i] = docs[i - 1];
+				scores[i] = scores[i - 1];
+				i--;
+			}
+			docs[i] = doc;
+			scores[i] = score;
+		}
+	}
+
+	private void add(StudentBean student) {
+		int doc = freeDocs.size > 0 ? freeDocs.items[--freeDocs.size] : docLimit++;
+		if (doc == docs.length) {
+			int capacity = docs.length * 2;
+			docs = Arrays.copyOf(docs, capacity);
+			docIds = Arrays.copyOf(docIds, capacity);
+			docLength = Arrays.copyOf(docLength, capacity);
+			docTerms = Arrays.copyOf(docTerms, capacity);
+			docText = Arrays.copyOf(docText, capacity);
+			docStamp = Arrays.copyOf(docStamp, capacity);
+		}
+		String name = normalize(student.getName());
+		docs[doc] = student;
+		docIds[doc] = student.getStudentId();
+		docLength[doc] = name.length();
+		docById.put(student.getStudentId(), doc);
+
+		List<String> texts = new ArrayList<>();
+		for (String word : words(name)) {
+			if (!texts.contains(word)) texts.add(word);
+		}
+		String id = normalize(student.getStudentId()).replace(" ", "");
+		if (!id.isEmpty() && !texts.contains(id)) texts.add(id);
+
+		int[] ids = new int[texts.size()];
+		for (int i = 0; i < ids.length; i++) {
+			Term term = termOf(texts.get(i));
+			if (term == null) {
+				term = newTerm(texts.get(i));
+			}
+			term.docs.insert(docPosition(term, doc), doc);
+			ids[i] = term.id;
+		}
+		docTerms[doc] = ids;
+		docText[doc] = String.join(" ", texts);
+	}
+
+	private void remove(String studentId) {
+		Integer doc = docById.remove(studentId);
+		if (doc == null) return;
+		for (int id : docTerms[doc]) {
+			Term term = termById[id];
+			int at = docPosition(term, doc);
+			if (at < term.docs.size && term.docs.items[at] == doc) {
+				term.docs.removeAt(at);
+			}
+			if (term.docs.size == 0) {
+				dropTerm(term);
+			}
+		}
+		docs[doc] = null;
+		docIds[doc] = null;
+		docTerms[doc] = null;
+		docText[doc] = null;
+		freeDocs.add(doc);
+	}
+
+	// Where a student is, or belongs, in a term's ordered posting list
+	private int docPosition(Term term, int doc) {
+		int low = 0, high = term.docs.size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (compareDocs(term.docs.items[mid], doc) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private void clear() {
+		nameTerms.clear();
+		idTerms.clear();
+		Arrays.fill(termById, null);
+		termLimit = 0;
+		freeTerms.size = 0;
+		trigramTerms.clear();
+		deletionTerms.clear();
+		docById.clear();
+		Arrays.fill(docs, null);
+		Arrays.fill(docIds, null);
+		Arrays.fill(docTerms, null);
+		Arrays.fill(docText, null);
+		docLimit = 0;
+		freeDocs.size = 0;
+	}
+
+	private Term termOf(String text) {
+		return (hasDigit(text) ? idTerms : nameTerms).get(text);
+	}
+
+	private Term newTerm(String text) {
+		int id = freeTerms.size > 0 ? freeTerms.items[--freeTerms.size] : termLimit++;
+		if (id == termById.length) {
+			int capacity = termById.length * 2;
+			termById = Arrays.copyOf(termById, capacity);
+			termStamp = Arrays.copyOf(termStamp, capacity);
+		}
+		Term term = new Term(text, id);
+		termById[id] = term;
+		(hasDigit(text) ? idTerms : nameTerms).put(text, term);
+		for (String gram : trigrams(text)) {
+			trigramTerms.computeIfAbsent(gram, g -> new IntList()).add(id);
+		}
+		for (String key : deletionKeys(text)) {
+			deletionTerms.computeIfAbsent(key, k -> new IntList()).add(id);
+		}
+		return term;
+	}
+
+	private void dropTerm(Term term) {
+		(hasDigit(term.text) ? idTerms : nameTerms).remove(term.text);
+		for (String gram : trigrams(term.text)) {
+			unlist(trigramTerms, gram, term.id);
+		}
+		for (String key : deletionKeys(term.text)) {
+			unlist(deletionTerms, key, term.id);
+		}
+		termById[term.id] = null;
+		freeTerms.add(term.id);
+	}
+
+	private static void unlist(Map<String, IntList> index, String key, int id) {
+		IntList list = index.get(key);
+		if (list == null) return;
+		list.remove(id);
+		if (list.size == 0) {
+			index.remove(key);
+		}
+	}
+
+	private int nextStamp() {
+		if (++stamp == Integer.MAX_VALUE) {
+			Arrays.fill(docStamp, 0);
+			Arrays.fill(termStamp, 0);
+			stamp = 1;
+		}
+		return stamp;
+	}
+
+	// Every trigram of a term, each once
+	private static List<String> trigrams(String text) {
+		List<String> grams = new ArrayList<>(Math.max(0, text.length() - 2));
+		for (int i = 0; i + 3 <= text.length(); i++) {
+			String gram = text.substring(i, i + 3);
+			if (!grams.contains(gram)) grams.add(gram);
+		}
+		return grams;
+	}
+
+	// A name word and its single-letter deletions; IDs and short words get no typo matching
+	private static List<String> deletionKeys(String text) {
+		if (!typoTerm(text)) {
+			return List.of();
+		}
+		List<String> keys = new ArrayList<>(text.length() + 1);
+		keys.add(text);
+		for (int i = 0; i < text.length(); i++) {
+			String key = deleteAt(text, i);
+			if (!keys.contains(key)) keys.add(key);
+		}
+		return keys;
+	}
+
+	private static boolean typoWord(String word) {
+		return word.length() >= MIN_TYPO_LENGTH && isLetters(word);
+	}
+
+	// One edit from a typo word, so at least one letter shorter
+	private static boolean typoTerm(String term) {
+		return term.length() >= MIN_TYPO_LENGTH - 1 && isLetters(term);
+	}
+
+	private static String deleteAt(String s, int i) {
+		return s.substring(0, i) + s.substring(i + 1);
+	}
+
+	// Optimal string alignment distance of at most 1: one insert, delete, substitute or adjacent swap
+	static boolean withinOneEdit(String a, String b) {
+		int la = a.length(), lb = b.length();
+		if (Math.abs(la - lb) > 1) return false;
+		int i = 0;
+		while (i < la && i < lb && a.charAt(i) == b.charAt(i)) i++;
+		if (i == la || i == lb) return true; // Equal, or one extra letter at the end
+		if (la == lb) {
+			if (a.regionMatches(i + 1, b, i + 1, la - i - 1)) return true;
+			return i + 1 < la && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+				&& a.regionMatches(i + 2, b, i + 2, la - i - 2);
+		}
+		return la > lb ? a.regionMatches(i + 1, b, i, lb - i) : b.regionMatches(i + 1, a, i, la - i);
+	}
+
+	private static boolean isLetters(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			if (!Character.isLetter(s.charAt(i))) return false;
+		}
+		return true;
+	}
+
+	private static boolean hasDigit(String s) {
+		return hasDigit(s, 0, s.length());
+	}
+
+	private static boolean hasDigit(String s, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (Character.isDigit(s.charAt(i))) return true;
+		}
+		return false;
+	}
+
+	private static String[] words(String normalized) {
+		return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+	}
+
+	/**
+	 * @return Lower-case letters and digits, accents and apostrophes removed, other characters as single spaces
+	 */
+	static String normalize(String s) {
+		if (s == null) return "";
+		String text = s;
+		for (int i = 0; i < s.length(); i++) {
+			if (s.charAt(i) >= 0x80) {
+				text = Normalizer.normalize(s, Normalizer.Form.NFD);
+				break;
+			}
+		}
+		StringBuilder out = new StringBuilder(text.length());
+		boolean space = true;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '\'' || c == '\u2019' || Character.getType(c) == Character.NON_SPACING_MARK) {
+				continue;
+			}
+			if (Character.isLetterOrDigit(c)) {
+				out.append(Character.toLowerCase(c));
+				space = false;
+			} else if (!space) {
+				out.append(' ');
+				space = true;
+			}
+		}
+		int end = out.length();
+		if (end > 0 && out.charAt(end - 1) == ' ') out.setLength(end - 1);
+		return out.toString();
+	}
+}
@@ -0,0 +1,62 @@
+package com.wipro.studentgrade.test;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.service.StudentJsonBinder;
+import com.wipro.studentgrade.util.JsonReader;
+import com.wipro.studentgrade.util.MalformedJsonException;
+import java.io.IOException;
+
+public class TestJsonReader {
+
+    public static void main(String[] args) {
+        System.out.println("=== Testing JSON Student Binding ===\n");
+
+        String marks = "\"m1\":90,\"m2\":80,\"m3\":70,\"m4\":60,\"m5\":50";
+        int failures = 0;
+
+        failures += check("Test Case 1: Well-formed student (Expected: accepted)",
+                "{\"name\":\"Jane Doe\"," + marks + "}", true);
+        failures += check("Test Case 2: Numbers, literals and skipped fields (Expected: accepted)",
+                "{\"name\":\"Jane\"," + marks + ",\"x\":[true,false,null,-0.5e+3,0,12E2]}", true);
+        failures += check("Test Case 3: Number followed by letters as a name (Expected: rejected)",
+                "{\"name\":12abc," + marks + "}", false);
+        failures += check("Test Case 4: Truncated true in a skipped field (Expected: rejected)",
+                "{\"name\":\"Jane\"," + marks + ",\"x\":tru}", false);
+        failures += check("Test Case 5: Malformed number in a skipped field (Expected: rejected)",
+                "{\"name\":\"Jane\"," + marks + ",\"y\":--1.2.3}", false);
+        failures += check("Test Case 6: Leading zero (Expected: rejected)",
+                "{\"name\":\"Jane\",\"m1\":090,\"m2\":80,\"m3\":70,\"m4\":60,\"m5\":50}", false);
+        failures += check("Test Case 7: Misspelled null (Expected: rejected)",
+                "{\"name\":\"Jane\"," + marks + ",\"x\":nul}", false);
+        failures += check("Test Case 8: Missing exponent digits (Expected: rejected)",
+                "{\"name\":\"Jane\"," + marks + ",\"x\":1e}", false);
+
+        System.out.println(failures == 0 ? "All JSON cases passed" : failures + " JSON case(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static int check(String title, String json, boolean valid) {
+        System.out.println(title);
+        System.out.println("Input: " + json);
+        boolean accepted;
+        try {
+            JsonReader reader = new JsonReader(json);
+            StudentBean bean = StudentJsonBinder.readStudent(reader);
+            StudentJsonBinder.expectEnd(reader);
+            System.out.println("Accepted: name=" + bean.getName() + ", m1=" + bean.getMark1());
+            accepted = true;
+        } catch (MalformedJsonException e) {
+            System.out.println("Rejected: " + e.getMessage());
+            accepted = false;
+        } catch (IOException e) {
+            System.out.println("Error: " + e);
+            accepted = false;
+        }
+        boolean passed = accepted == valid;
+        System.out.println(passed ? "PASS" : "FAIL");
+        System.out.println();
+        return passed ? 0 : 1;
+    }
+}
@@ -0,0 +1,224 @@
+package com.wipro.studentgrade.test;
+
+import com.wipro.studentgrade.bean.StudentBean;
+import com.wipro.studentgrade.dao.LogStudentRepository;
+import com.wipro.studentgrade.dao.StudentQuery;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class TestStudentLog {
+
+    private static final int STUDENTS = 300;
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("student-log-test");
+        System.out.println("=== Testing Student Log Engine ===\n");
+
+        // Test Case 1: The last record is cut short - Expected: it is dropped, the rest replays
+        System.out.println("Test Case 1: Log truncated mid-record (Expected: last student dropped, reopens cleanly)");
+        Path log = populate(dir.resolve("truncated.log"));
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(lastNonZeroByte(log) + 1 - 4);
+        }
+        check("First open recovers " + (STUDENTS - 1) + " students", countAfterOpen(log) == STUDENTS - 1);
+        check("Second open recovers " + (STUDENTS - 1) + " students", countAfterOpen(log) == STUDENTS - 1);
+        try (LogStudentRepository repository = new LogStudentRepository(log, 20, false)) {
+            check("Writes continue after recovery", repository.insertStudent(student("S_NEW", "New", "A")).contains("successfully")
+                    && repository.getStudentById("S_NEW") != null);
+        }
+        System.out.println();
+
+        // Test Case 2: A byte in the middle is damaged - Expected: the log is refused, not truncated
+        System.out.println("Test Case 2: Damage followed by intact records (Expected: open refused, file untouched)");
+        log = populate(dir.resolve("damaged.log"));
+        byte[] bytes = Files.readAllBytes(log);
+        bytes[(int) lastNonZeroByte(log) / 4] ^= 1;
+        Files.write(log, bytes);
+        check("Open is refused", refusesToOpen(log));
+        check("File is left as it was", Arrays.equals(bytes, Files.readAllBytes(log)));
+        System.out.println();
+
+        // Test Case 3: Compaction - Expected: row ids and ID sequences survive it and a restart
+        System.out.println("Test Case 3: Compaction (Expected: same row ids, sequences continue)");
+        log = populate(dir.resolve("compacted.log"));
+        List<String> issued = new ArrayList<>();
+        Map<String, Long> rowIds;
+        try (LogStudentRepository repository = new LogStudentRepository(log, 20, false)) {
+            for (int i = 0; i < 30; i++) {
+                issued.add(repository.generateId("Compaction Check"));
+            }
+            for (int i = 0; i < STUDENTS; i += 3) {
+                repository.deleteStudent(id(i));
+            }
+            rowIds = rowIds(repository);
+            long garbage = repository.getGarbageBytes();
+            long size = repository.getLogBytes();
+            repository.compact();
+            // What remains counted as garbage is the rewritten row id and sequence records
+            check("Garbage is reclaimed", repository.getGarbageBytes() < garbage && repository.getLogBytes() < size);
+            check("Row ids are unchanged after compaction", rowIds.equals(rowIds(repository)));
+        }
+        try (LogStudentRepository repository = new LogStudentRepository(log, 20, false)) {
+            check("Row ids are unchanged after reopening", rowIds.equals(rowIds(repository)));
+            String next = repository.generateId("Compaction Check");
+            check("Next ID " + next + " was never issued and sorts after " + issued.get(issued.size() - 1),
+                    !issued.contains(next) && next.compareTo(issued.get(issued.size() - 1)) > 0);
+            long highest = rowIds.values().stream().mapToLong(Long::longValue).max().orElse(0);
+            repository.insertStudent(student("S_AFTER", "After", "B"));
+            check("New rows get row ids above every earlier one", rowIds(repository).get("S_AFTER") > highest);
+        }
+        System.out.println();
+
+        // Test Case 4: Keyset paging - Expected: every page size yields the full ordering exactly once
+        System.out.println("Test Case 4: Cursor paging across sort fields and directions (Expected: same order as a full sort)");
+        log = populate(dir.resolve("paged.log"));
+        try (LogStudentRepository repository = new LogStudentRepository(log, 20, false)) {
+            List<StudentBean> all = repository.getAllStudents();
+            for (StudentQuery.SortField sort : StudentQuery.SortField.values()) {
+                for (boolean descending : new boolean[] { false, true }) {
+                    for (String grade : new String[] { null, "B" }) {
+                        List<String> expected = expectedOrder(all, sort, descending, grade, rowIds(repository));
+                        boolean same = true;
+                        for (int limit : new int[] { 1, 7, 50 }) {
+                            same &= expected.equals(pageThrough(repository, sort, descending, grade, limit));
+                        }
+                        check(sort + (descending ? " desc" : " asc") + (grade == null ? "" : ", grade " + grade), same);
+                    }
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.println(failures == 0 ? "All log cases passed" : failures + " log check(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Writes STUDENTS students with mixed names, grades and totals, then closes the log
+    private static Path populate(Path log) throws Exception {
+        Files.deleteIfExists(log);
+        String[] names = { "amy", "Bob", "émile", "zoë", "😀 Smile", "", "al" };
+        String[] grades = { "A", "B", "C", "É" };
+        Random random = new Random(42);
+        List<StudentBean> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            StudentBean bean = student(id(i), names[random.nextInt(names.length)], grades[random.nextInt(grades.length)]);
+            bean.setTotal(random.nextInt(20));
+            bean.setAverage(random.nextInt(5));
+            students.add(bean);
+        }
+        try (LogStudentRepository repository = new LogStudentRepository(log, 20, false)) {
+            repository.insertStudents(students, 50);
+        }
+        return log;
+    }
+
+    private static StudentBean student(String id, String name, String grade) {
+        StudentBean bean = new StudentBean();
+        bean.setStudentId(id);
+        bean.setName(name);
+        bean.setGrade(grade);
+        return bean;
+    }
+
+    private static String id(int i) {
+        return String.format("S%04d", i);
+    }
+
+    // The file is preallocated with zeros, so the last non-zero byte is inside the last record
+    private static long lastNonZeroByte(Path log) throws IOException {
+        byte[] bytes = Files.readAllBytes(log);
+        int i = bytes.length - 1;
+        while (bytes[i] == 0) {
+            i--;
+        }
+        return i;
+    }
+
+    private static int countAfterOpen(Path log) throws IOException {
+        try (LogStudentRepository repository = new LogStudentRepository(log, 20, false)) {
+            return repository.getStudentCount();
+        }
+    }
+
+    private static boolean refusesToOpen(Path log) {
+        try (LogStudentRepository repository = new LogStudentRepository(log, 20, false)) {
+            return false;
+        } catch (IOException e) {
+            System.out.println("Refused: " + e.getMessage());
+            return true;
+        }
+    }
+
+    private static Map<String, Long> rowIds(LogStudentRepository repository) throws Exception {
+        Map<String, Long> rowIds = new HashMap<>();
+        repository.scanRows(false, (rowId, s) -> rowIds.put(s.getStudentId(), rowId));
+        return rowIds;
+    }
+
+    private static List<String> pageThrough(LogStudentRepository repository, StudentQuery.SortField sort,
+                                            boolean descending, String grade, int limit) throws Exception {
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            StudentQuery query = new StudentQuery();
+            query.setSort(sort);
+            query.setDescending(descending);
+            query.setGrade(grade);
+            query.setLimit(limit);
+            if (cursor != null) {
+                query.setAfter(cursor);
+            }
+            repository.streamStudents(query, s -> ids.add(s.getStudentId()));
+            cursor = query.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    // Sort value then row id; text compares as UTF-8 bytes, like SQLite's BINARY collation
+    private static List<String> expectedOrder(List<StudentBean> all, StudentQuery.SortField sort, boolean descending,
+                                              String grade, Map<String, Long> rowIds) {
+        Comparator<StudentBean> order;
+        switch (sort) {
+            case NAME: order = Comparator.comparing(s -> utf8(s.getName()), Arrays::compareUnsigned); break;
+            case GRADE: order = Comparator.comparing(s -> utf8(s.getGrade()), Arrays::compareUnsigned); break;
+            case STUDENT_ID: order = Comparator.comparing(s -> utf8(s.getStudentId()), Arrays::compareUnsigned); break;
+            case TOTAL: order = Comparator.comparingInt(StudentBean::getTotal); break;
+            case AVERAGE: order = Comparator.comparingDouble(StudentBean::getAverage); break;
+            default: order = (a, b) -> 0;
+        }
+        order = order.thenComparingLong(s -> rowIds.get(s.getStudentId()));
+        if (descending) {
+            order = order.reversed();
+        }
+        List<String> ids = new ArrayList<>();
+        all.stream().filter(s -> grade == null || grade.equals(s.getGrade())).sorted(order)
+                .forEach(s -> ids.add(s.getStudentId()));
+        return ids;
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void check(String description, boolean passed) {
+        System.out.println((passed ? "PASS: " : "FAIL: ") + description);
+        if (!passed) {
+            failures++;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.wipro.studentgrade.util;
+
+public class ConcurrentUpdateException extends Exception {
+    
+    public ConcurrentUpdateException(String studentId) {
+        super("Student " + studentId + " was modified by someone else; reload and try again");
+    }
+    
+    @Override
+    public String toString() {
+        return "ConcurrentUpdateException: " + getMessage();
+    }
+}
@@ -0,0 +1,374 @@
+package com.wipro.studentgrade.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small bounded JDBC connection pool used by {@link DatabaseUtil}.
+ *
+ * Connections handed out are proxies whose close() returns the physical
+ * connection to the pool. Idle connections are kept LIFO so the warmest one
+ * is reused first, and a background housekeeper evicts connections idle for
+ * longer than the configured timeout and reports borrowed connections that
+ * were never returned. A report names the borrowing thread; the borrowing
+ * stack is only captured with pool.leakDetectionStackTraces=true, since
+ * filling one in on every borrow costs more than the borrow itself.
+ */
+public class ConnectionPool {
+
+	/** Opens a new physical connection. */
+	public interface ConnectionFactory {
+		Connection create() throws SQLException;
+	}
+
+	private final ConnectionFactory factory;
+	private final int minIdle;
+	private final int maxSize;
+	private final long maxWaitMillis;
+	private final long idleTimeoutMillis;
+	private final long validateAfterIdleMillis;
+	private final int validationTimeoutSeconds;
+	private final long leakThresholdMillis;
+	private final boolean leakStackTraces;
+
+	private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+	private final Set<PooledEntry> borrowed = ConcurrentHashMap.newKeySet();
+	private final Semaphore permits;
+	private final AtomicInteger totalConnections = new AtomicInteger();
+	private final ScheduledExecutorService housekeeper;
+	private volatile boolean closed;
+
+	// Metrics
+	private final LongAdder borrowCount = new LongAdder();
+	private final LongAdder waitNanosTotal = new LongAdder();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+	private final LongAdder timeoutCount = new LongAdder();
+	private final LongAdder createdCount = new LongAdder();
+	private final LongAdder destroyedCount = new LongAdder();
+	private final LongAdder leakCount = new LongAdder();
+
+	public ConnectionPool(ConnectionFactory factory, Properties props) {
+		this.factory = factory;
+		this.maxSize = Math.max(1, intProp(props, "pool.maxSize", 10));
+		this.minIdle = Math.min(maxSize, Math.max(0, intProp(props, "pool.minIdle", 1)));
+		this.maxWaitMillis = longProp(props, "pool.maxWaitMillis", 5000);
+		this.idleTimeoutMillis = longProp(props, "pool.idleTimeoutMillis", 300000);
+		this.validateAfterIdleMillis = longProp(props, "pool.validateAfterIdleMillis", 500);
+		this.validationTimeoutSeconds = intProp(props, "pool.validationTimeoutSeconds", 2);
+		this.leakThresholdMillis = longProp(props, "pool.leakDetectionThresholdMillis", 60000);
+		this.leakStackTraces = leakThresholdMillis > 0
+				&& Boolean.parseBoolean(props.getProperty("pool.leakDetectionStackTraces", "false").trim());
+		this.permits = new Semaphore(maxSize, true);
+
+		long interval = Math.max(1000, longProp(props, "pool.housekeepingIntervalMillis", 30000));
+		this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "connection-pool-housekeeper");
+			t.setDaemon(true);
+			return t;
+		});
+		housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Borrows a connection, waiting up to pool.maxWaitMillis for one to free up
+	 * @return Pooled connection; closing it returns it to the pool
+	 * @throws SQLException if the pool is exhausted or a connection cannot be opened
+	 */
+	public Connection getConnection() throws SQLException {
+		if (closed) {
+			throw new SQLException("Connection pool is closed");
+		}
+		long start = System.nanoTime();
+		try {
+			if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+				timeoutCount.increment();
+				throw new SQLException("Timed out after " + maxWaitMillis + "ms waiting for a database connection ("
+						+ borrowed.size() + " in use, max " + maxSize + ")");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a database connection", e);
+		}
+
+		try {
+			PooledEntry entry = takeIdleOrCreate();
+			entry.borrowedAt = System.currentTimeMillis();
+			entry.borrowThread = Thread.currentThread().getName();
+			entry.borrowSite = leakStackTraces ? new Throwable("Connection borrowed here") : null;
+			entry.leakReported = false;
+			borrowed.add(entry);
+			recordWait(System.nanoTime() - start);
+			return entry.newHandle();
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	private PooledEntry takeIdleOrCreate() throws SQLException {
+		while (true) {
+			PooledEntry entry;
+			while ((entry = idle.pollFirst()) != null) {
+				if (isUsable(entry)) {
+					return entry;
+				}
+				destroy(entry);
+			}
+			if (reserveSlot()) {
+				return new PooledEntry(createReserved());
+			}
+			// Every slot is taken while we hold a permit, so the housekeeper is opening an idle one
+			Thread.onSpinWait();
+		}
+	}
+
+	// Claims room for one more physical connection, up to maxSize
+	private boolean reserveSlot() {
+		int current;
+		do {
+			current = totalConnections.get();
+			if (current >= maxSize) {
+				return false;
+			}
+		} while (!totalConnections.compareAndSet(current, current + 1));
+		return true;
+	}
+
+	// Opens a connection into a slot taken with reserveSlot, giving the slot back if that fails
+	private Connection createReserved() throws SQLException {
+		try {
+			Connection raw = factory.create();
+			createdCount.increment();
+			return raw;
+		} catch (SQLException | RuntimeException e) {
+			totalConnections.decrementAndGet();
+			throw e;
+		}
+	}
+
+	private boolean isUsable(PooledEntry entry) {
+		if (System.currentTimeMillis() - entry.lastReturnedAt < validateAfterIdleMillis) {
+			return true;
+		}
+		try {
+			return entry.raw.isValid(validationTimeoutSeconds);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	private void recordWait(long nanos) {
+		borrowCount.increment();
+		waitNanosTotal.add(nanos);
+		long prev;
+		while (nanos > (prev = maxWaitNanos.get())) {
+			if (maxWaitNanos.compareAndSet(prev, nanos)) break;
+		}
+	}
+
+	private void release(PooledEntry entry) {
+		if (!borrowed.remove(entry)) {
+			return;
+		}
+		entry.borrowSite = null;
+		boolean reusable = !closed;
+		try {
+			if (reusable && entry.raw.isClosed()) {
+				reusable = false;
+			}
+			if (reusable && !entry.raw.getAutoCommit()) {
+				entry.raw.rollback();
+				entry.raw.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			reusable = false;
+		}
+		if (reusable) {
+			entry.lastReturnedAt = System.currentTimeMillis();
+			idle.offerFirst(entry);
+		} else {
+			destroy(entry);
+		}
+		permits.release();
+	}
+
+	private void destroy(PooledEntry entry) {
+		totalConnections.decrementAndGet();
+		destroyedCount.increment();
+		try {
+			entry.raw.close();
+		} catch (SQLException ignored) {
+			// Connection is being discarded anyway
+		}
+	}
+
+	private void housekeep() {
+		long now = System.currentTimeMillis();
+
+		// Evict connections idle past the timeout, oldest first, keeping minIdle
+		Iterator<PooledEntry> it = idle.descendingIterator();
+		while (it.hasNext() && idle.size() > minIdle) {
+			PooledEntry entry = it.next();
+			if (now - entry.lastReturnedAt > idleTimeoutMillis && idle.remove(entry)) {
+				destroy(entry);
+			}
+		}
+
+		// Top idle connections back up to minIdle
+		while (!closed && idle.size() < minIdle && reserveSlot()) {
+			try {
+				PooledEntry entry = new PooledEntry(createReserved());
+				entry.lastReturnedAt = now;
+				idle.offerLast(entry);
+			} catch (SQLException e) {
+				System.err.println("Connection pool could not pre-open connection: " + e.getMessage());
+				break;
+			}
+		}
+
+		if (leakThresholdMillis > 0) {
+			for (PooledEntry entry : borrowed) {
+				if (!entry.leakReported && now - entry.borrowedAt > leakThresholdMillis) {
+					entry.leakReported = true;
+					leakCount.increment();
+					Throwable site = entry.borrowSite;
+					System.err.println("Possible connection leak: connection held for " + (now - entry.borrowedAt)
+							+ "ms by thread " + entry.borrowThread
+							+ (site != null ? "" : " (set pool.leakDetectionStackTraces=true to log where it was borrowed)"));
+					if (site != null) {
+						site.printStackTrace();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Closes idle connections and stops the housekeeper. Borrowed connections
+	 * are closed when they are returned.
+	 */
+	public void close() {
+		closed = true;
+		housekeeper.shutdownNow();
+		PooledEntry entry;
+		while ((entry = idle.pollFirst()) != null) {
+			destroy(entry);
+		}
+	}
+
+	public int getActiveCount() { return borrowed.size(); }
+	public int getIdleCount() { return idle.size(); }
+	public int getTotalCount() { return totalConnections.get(); }
+	public int getMaxSize() { return maxSize; }
+	public int getPendingCount() { return permits.getQueueLength(); }
+	public long getBorrowCount() { return borrowCount.sum(); }
+	public long getTimeoutCount() { return timeoutCount.sum(); }
+	public long getCreatedCount() { return createdCount.sum(); }
+	public long getDestroyedCount() { return destroyedCount.sum(); }
+	public long getLeakCount() { return leakCount.sum(); }
+	public long getTotalWaitNanos() { return waitNanosTotal.sum(); }
+	public long getMaxWaitNanos() { return maxWaitNanos.get(); }
+
+	public double getAverageWaitMillis() {
+		long count = borrowCount.sum();
+		return count == 0 ? 0 : waitNanosTotal.sum() / 1_000_000.0 / count;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ConnectionPool[active=%d, idle=%d, total=%d/%d, pending=%d, borrows=%d, avgWait=%.3fms, maxWait=%.3fms, timeouts=%d, leaks=%d]",
+				getActiveCount(), getIdleCount(), getTotalCount(), maxSize, getPendingCount(), getBorrowCount(),
+				getAverageWaitMillis(), getMaxWaitNanos() / 1_000_000.0, getTimeoutCount(), getLeakCount());
+	}
+
+	private static int intProp(Properties props, String key, int def) {
+		return (int) longProp(props, key, def);
+	}
+
+	private static long longProp(Properties props, String key, long def) {
+		String v = props.getProperty(key);
+		if (v == null || v.trim().isEmpty()) return def;
+		try {
+			return Long.parseLong(v.trim());
+		} catch (NumberFormatException e) {
+			System.err.println("Ignoring invalid value for " + key + ": " + v);
+			return def;
+		}
+	}
+
+	private final class PooledEntry {
+		final Connection raw;
+		volatile long borrowedAt;
+		volatile long lastReturnedAt;
+		volatile String borrowThread;
+		volatile Throwable borrowSite;
+		volatile boolean leakReported;
+
+		PooledEntry(Connection raw) {
+			this.raw = raw;
+		}
+
+		Connection newHandle() {
+			return (Connection) Proxy.newProxyInstance(
+					Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class },
+					new Handle(this));
+		}
+	}
+
+	// Logical connection handed to callers; close() returns it to the pool once
+	private final class Handle implements InvocationHandler {
+		private final PooledEntry entry;
+		private final AtomicBoolean handleClosed = new AtomicBoolean();
+
+		Handle(PooledEntry entry) {
+			this.entry = entry;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "close":
+					if (handleClosed.compareAndSet(false, true)) {
+						release(entry);
+					}
+					return null;
+				case "isClosed":
+					return handleClosed.get() || entry.raw.isClosed();
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "PooledConnection[" + entry.raw + "]";
+				default:
+					break;
+			}
+			if (handleClosed.get()) {
+				throw new SQLException("Connection has already been returned to the pool");
+			}
+			try {
+				return method.invoke(entry.raw, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
@@ -15,10 +15,12 @@ public class DatabaseUtil {
 	private static String jdbcUrl;
 	private static String username;
 	private static String password;
+	private static ConnectionPool pool;
 
 	static {
 		loadConfiguration();
 		loadDriverClass();
+		initializePool();
 	}
 
 	private static void loadConfiguration() {
@@ -36,6 +38,19 @@ public class DatabaseUtil {
 		} catch (IOException ignored) {
 			// Use defaults if properties file not found
 		}
+
+		// -Djdbc.url=... etc. override db.properties (used by the benchmark harness)
+		for (String key : System.getProperties().stringPropertyNames()) {
+			if (key.startsWith("jdbc.") || key.startsWith("pool.") || key.startsWith("sqlite.")
+					|| key.startsWith("cache.") || key.startsWith("id.") || key.startsWith("storage.")
+					|| key.startsWith("log.")) {
+				PROPS.setProperty(key, System.getProperty(key));
+			}
+		}
+		driverClass = PROPS.getProperty("jdbc.driverClass", driverClass);
+		jdbcUrl = PROPS.getProperty("jdbc.url", jdbcUrl);
+		username = PROPS.getProperty("jdbc.username", username);
+		password = PROPS.getProperty("jdbc.password", password);
 	}
 
 	private static void loadDriverClass() {
@@ -48,17 +63,102 @@ public class DatabaseUtil {
 		}
 	}
 
+	private static void initializePool() {
+		if (!usesJdbcStorage() || !Boolean.parseBoolean(PROPS.getProperty("pool.enabled", "true"))) {
+			return;
+		}
+		pool = new ConnectionPool(DatabaseUtil::openPhysicalConnection, PROPS);
+		Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "connection-pool-shutdown"));
+	}
+
+	/**
+	 * Borrows a connection from the pool (or opens one directly when pool.enabled=false).
+	 * Callers must close the connection to return it.
+	 */
 	public static Connection getConnection() throws SQLException {
+		long start = System.nanoTime();
+		try {
+			if (pool != null) {
+				return pool.getConnection();
+			}
+			return openPhysicalConnection();
+		} finally {
+			Metrics.CONNECTION_ACQUIRE.recordSince(start);
+		}
+	}
+
+	private static Connection openPhysicalConnection() throws SQLException {
+		Connection conn;
 		if (username == null || username.isEmpty()) {
-			return DriverManager.getConnection(jdbcUrl);
+			conn = DriverManager.getConnection(jdbcUrl);
+		} else {
+			conn = DriverManager.getConnection(jdbcUrl, username, password);
+		}
+		if (isSqlite()) {
+			try {
+				applySqlitePragmas(conn);
+			} catch (SQLException e) {
+				conn.close();
+				throw e;
+			}
+		}
+		return conn;
+	}
+
+	// Per-connection SQLite tuning; values are whitelisted numbers/keywords from db.properties
+	private static void applySqlitePragmas(Connection conn) throws SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			// WAL lets readers run alongside the single writer; NORMAL is durable in WAL except on power loss
+			stmt.execute("PRAGMA journal_mode=" + pragmaKeyword("sqlite.journalMode", "WAL"));
+			stmt.execute("PRAGMA synchronous=" + pragmaKeyword("sqlite.synchronous", "NORMAL"));
+			stmt.execute("PRAGMA busy_timeout=" + pragmaNumber("sqlite.busyTimeoutMillis", 5000));
+			stmt.execute("PRAGMA mmap_size=" + pragmaNumber("sqlite.mmapSize", 268435456L));
+			// Negative cache_size is in KiB rather than pages
+			stmt.execute("PRAGMA cache_size=-" + pragmaNumber("sqlite.cacheSizeKb", 16384));
+			stmt.execute("PRAGMA temp_store=MEMORY");
+		}
+	}
+
+	private static String pragmaKeyword(String key, String def) {
+		String v = getProperty(key, def);
+		return v.matches("[A-Za-z]+") ? v.toUpperCase() : def;
+	}
+
+	private static long pragmaNumber(String key, long def) {
+		try {
+			return Math.max(0, Long.parseLong(getProperty(key, String.valueOf(def))));
+		} catch (NumberFormatException e) {
+			return def;
 		}
-		return DriverManager.getConnection(jdbcUrl, username, password);
 	}
 
+	/**
+	 * @param key Property name in db.properties
+	 * @param def Value to use when the property is not set
+	 * @return Configured value or the default
+	 */
+	public static String getProperty(String key, String def) {
+		String v = PROPS.getProperty(key);
+		return v == null || v.trim().isEmpty() ? def : v.trim();
+	}
+
+	/**
+	 * @return The connection pool, or null when pooling is disabled
+	 */
+	public static ConnectionPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Applies any pending schema migrations (see {@link SchemaMigrator}); safe to call on every startup.
+	 */
 	public static void initializeDatabase() {
-		try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
-			String ddl = resolveCreateTableDDL(jdbcUrl);
-			stmt.execute(ddl);
+		if (!usesJdbcStorage()) {
+			System.out.println("Using the " + getProperty("storage.engine", "jdbc") + " storage engine; no database to initialize");
+			return;
+		}
+		try (Connection conn = getConnection()) {
+			SchemaMigrator.migrate(conn, isSqlite());
 			System.out.println("Database initialized successfully!");
 		} catch (SQLException e) {
 			System.err.println("Error initializing database: " + e.getMessage());
@@ -66,42 +166,17 @@ public class DatabaseUtil {
 		}
 	}
 
-	private static String resolveCreateTableDDL(String url) {
-		boolean isSqlite = url != null && url.toLowerCase().contains("sqlite");
-		if (isSqlite) {
-			return """
-				CREATE TABLE IF NOT EXISTS students (
-					id INTEGER PRIMARY KEY AUTOINCREMENT,
-					student_id VARCHAR(20) UNIQUE NOT NULL,
-					name VARCHAR(100) NOT NULL,
-					mark1 INTEGER NOT NULL,
-					mark2 INTEGER NOT NULL,
-					mark3 INTEGER NOT NULL,
-					mark4 INTEGER NOT NULL,
-					mark5 INTEGER NOT NULL,
-					total INTEGER NOT NULL,
-					average INTEGER NOT NULL,
-					grade VARCHAR(2) NOT NULL,
-					created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-				)
-				""";
-		}
-		// MySQL / MariaDB friendly DDL
-		return """
-			CREATE TABLE IF NOT EXISTS students (
-				id INT AUTO_INCREMENT PRIMARY KEY,
-				student_id VARCHAR(20) UNIQUE NOT NULL,
-				name VARCHAR(100) NOT NULL,
-				mark1 INT NOT NULL,
-				mark2 INT NOT NULL,
-				mark3 INT NOT NULL,
-				mark4 INT NOT NULL,
-				mark5 INT NOT NULL,
-				total INT NOT NULL,
-				average INT NOT NULL,
-				grade VARCHAR(2) NOT NULL,
-				created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-			) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
-			""";
+	/**
+	 * @return True unless storage.engine selects a store that does not use JDBC
+	 */
+	public static boolean usesJdbcStorage() {
+		return "jdbc".equalsIgnoreCase(getProperty("storage.engine", "jdbc"));
+	}
+
+	/**
+	 * @return True when the configured JDBC URL points at SQLite
+	 */
+	public static boolean isSqlite() {
+		return jdbcUrl != null && jdbcUrl.toLowerCase().contains("sqlite");
 	}
 }
@@ -0,0 +1,369 @@
+package com.wipro.studentgrade.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Minimal pull parser for JSON request bodies.
+ *
+ * Values are consumed one token at a time straight from the Reader, so callers
+ * can bind fields as they arrive instead of building an intermediate tree.
+ * Several top-level values may follow each other, which is how JSON-lines
+ * input is read: keep calling peek() until it returns END_DOCUMENT.
+ */
+public class JsonReader {
+	public enum Token {
+		BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+	}
+
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_ARRAY = 2;
+	private static final int NONEMPTY_ARRAY = 3;
+	private static final int EMPTY_OBJECT = 4;
+	private static final int DANGLING_NAME = 5;
+	private static final int NONEMPTY_OBJECT = 6;
+
+	private final Reader in;
+	private final char[] buffer;
+	private int pos;
+	private int limit;
+	private long consumed;
+
+	private int[] stack = new int[16];
+	private int stackSize = 1;
+	private Token peeked;
+	private final StringBuilder scratch = new StringBuilder(32);
+
+	public JsonReader(Reader in) {
+		this(in, 4096);
+	}
+
+	public JsonReader(String json) {
+		this(new StringReader(json), Math.max(16, Math.min(4096, json.length())));
+	}
+
+	private JsonReader(Reader in, int bufferSize) {
+		this.in = in;
+		this.buffer = new char[bufferSize];
+		stack[0] = EMPTY_DOCUMENT;
+	}
+
+	/**
+	 * @return The type of the next token without consuming it
+	 * @throws IOException if the input is not well-formed JSON
+	 */
+	public Token peek() throws IOException {
+		if (peeked != null) {
+			return peeked;
+		}
+		int c;
+		switch (stack[stackSize - 1]) {
+			case EMPTY_ARRAY:
+				stack[stackSize - 1] = NONEMPTY_ARRAY;
+				c = nextNonWhitespace();
+				if (c == ']') return peeked = Token.END_ARRAY;
+				if (c == -1) throw syntaxError("Unexpected end of input");
+				pos--;
+				break;
+			case NONEMPTY_ARRAY:
+				c = nextNonWhitespace();
+				if (c == ']') return peeked = Token.END_ARRAY;
+				if (c != ',') throw syntaxError("Expected ',' or ']'");
+				break;
+			case EMPTY_OBJECT:
+			case NONEMPTY_OBJECT:
+				c = nextNonWhitespace();
+				if (c == '}') return peeked = Token.END_OBJECT;
+				if (stack[stackSize - 1] == NONEMPTY_OBJECT) {
+					if (c != ',') throw syntaxError("Expected ',' or '}'");
+					c = nextNonWhitespace();
+				}
+				if (c != '"') throw syntaxError("Expected a quoted field name");
+				stack[stackSize - 1] = DANGLING_NAME;
+				return peeked = Token.NAME;
+			case DANGLING_NAME:
+				if (nextNonWhitespace() != ':') throw syntaxError("Expected ':'");
+				stack[stackSize - 1] = NONEMPTY_OBJECT;
+				break;
+			case EMPTY_DOCUMENT:
+				stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+				break;
+			case NONEMPTY_DOCUMENT:
+				if (nextNonWhitespace() == -1) return peeked = Token.END_DOCUMENT;
+				pos--;
+				break;
+			default:
+				throw new IllegalStateException("Corrupt reader state");
+		}
+
+		c = nextNonWhitespace();
+		switch (c) {
+			case '{': return peeked = Token.BEGIN_OBJECT;
+			case '[': return peeked = Token.BEGIN_ARRAY;
+			case '"': return peeked = Token.STRING;
+			case 't':
+			case 'f':
+				pos--;
+				return peeked = Token.BOOLEAN;
+			case 'n':
+				pos--;
+				return peeked = Token.NULL;
+			case -1:
+				throw syntaxError("Unexpected end of input");
+			default:
+				if (c == '-' || (c >= '0' && c <= '9')) {
+					pos--;
+					return peeked = Token.NUMBER;
+				}
+				throw syntaxError("Unexpected character '" + (char) c + "'");
+		}
+	}
+
+	public void beginObject() throws IOException {
+		expect(Token.BEGIN_OBJECT);
+		push(EMPTY_OBJECT);
+	}
+
+	public void endObject() throws IOException {
+		expect(Token.END_OBJECT);
+		stackSize--;
+	}
+
+	public void beginArray() throws IOException {
+		expect(Token.BEGIN_ARRAY);
+		push(EMPTY_ARRAY);
+	}
+
+	public void endArray() throws IOException {
+		expect(Token.END_ARRAY);
+		stackSize--;
+	}
+
+	/**
+	 * @return true if the current array or object has another element
+	 */
+	public boolean hasNext() throws IOException {
+		Token t = peek();
+		return t != Token.END_OBJECT && t != Token.END_ARRAY && t != Token.END_DOCUMENT;
+	}
+
+	public String nextName() throws IOException {
+		expect(Token.NAME);
+		return readString();
+	}
+
+	/**
+	 * @return String value; numbers and booleans are returned as their literal text
+	 */
+	public String nextString() throws IOException {
+		Token t = peek();
+		peeked = null;
+		switch (t) {
+			case STRING: return readString();
+			case NUMBER:
+			case BOOLEAN: return readLiteral();
+			default: throw syntaxError("Expected a string but was " + t);
+		}
+	}
+
+	/**
+	 * @return Integer value; quoted integers such as "85" are accepted as well
+	 */
+	public int nextInt() throws IOException {
+		Token t = peek();
+		String text;
+		if (t == Token.NUMBER) {
+			peeked = null;
+			text = readLiteral();
+		} else if (t == Token.STRING) {
+			peeked = null;
+			text = readString().trim();
+		} else {
+			throw syntaxError("Expected a number but was " + t);
+		}
+		try {
+			return Integer.parseInt(text);
+		} catch (NumberFormatException e) {
+			try {
+				double d = Double.parseDouble(text);
+				if (d == (int) d) return (int) d;
+			} catch (NumberFormatException ignored) {
+				// Reported below
+			}
+			throw syntaxError("Expected an integer but was '" + text + "'");
+		}
+	}
+
+	public boolean nextBoolean() throws IOException {
+		expect(Token.BOOLEAN);
+		String literal = readLiteral();
+		if ("true".equals(literal)) return true;
+		if ("false".equals(literal)) return false;
+		throw syntaxError("Expected a boolean but was '" + literal + "'");
+	}
+
+	public void nextNull() throws IOException {
+		expect(Token.NULL);
+		String literal = readLiteral();
+		if (!"null".equals(literal)) throw syntaxError("Expected null but was '" + literal + "'");
+	}
+
+	/**
+	 * Skips the next value, including any nested arrays or objects
+	 */
+	public void skipValue() throws IOException {
+		int depth = 0;
+		do {
+			switch (peek()) {
+				case BEGIN_OBJECT: beginObject(); depth++; break;
+				case BEGIN_ARRAY: beginArray(); depth++; break;
+				case END_OBJECT: endObject(); depth--; break;
+				case END_ARRAY: endArray(); depth--; break;
+				case NAME: nextName(); break;
+				case STRING: nextString(); break;
+				case NUMBER:
+				case BOOLEAN: nextString(); break;
+				case NULL: nextNull(); break;
+				default: throw syntaxError("Unexpected end of input");
+			}
+		} while (depth > 0);
+	}
+
+	private void expect(Token expected) throws IOException {
+		Token t = peek();
+		if (t != expected) {
+			throw syntaxError("Expected " + expected + " but was " + t);
+		}
+		peeked = null;
+	}
+
+	private void push(int context) throws MalformedJsonException {
+		if (stackSize == stack.length) {
+			if (stackSize >= 256) throw syntaxError("JSON nested too deeply");
+			int[] bigger = new int[stackSize * 2];
+			System.arraycopy(stack, 0, bigger, 0, stackSize);
+			stack = bigger;
+		}
+		stack[stackSize++] = context;
+	}
+
+	private int read() throws IOException {
+		if (pos == limit) {
+			consumed += limit;
+			limit = in.read(buffer, 0, buffer.length);
+			pos = 0;
+			if (limit <= 0) {
+				limit = 0;
+				return -1;
+			}
+		}
+		return buffer[pos++];
+	}
+
+	private int nextNonWhitespace() throws IOException {
+		int c;
+		do {
+			c = read();
+		} while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+		return c;
+	}
+
+	// Reads a string body; the opening quote has already been consumed
+	private String readString() throws IOException {
+		scratch.setLength(0);
+		while (true) {
+			int c = read();
+			if (c == '"') {
+				return scratch.toString();
+			}
+			if (c == -1) {
+				throw syntaxError("Unterminated string");
+			}
+			if (c == '\\') {
+				c = read();
+				switch (c) {
+					case '"': case '\\': case '/': scratch.append((char) c); break;
+					case 'n': scratch.append('\n'); break;
+					case 'r': scratch.append('\r'); break;
+					case 't': scratch.append('\t'); break;
+					case 'b': scratch.append('\b'); break;
+					case 'f': scratch.append('\f'); break;
+					case 'u':
+						int code = 0;
+						for (int i = 0; i < 4; i++) {
+							int digit = Character.digit(read(), 16);
+							if (digit < 0) throw syntaxError("Invalid \\u escape");
+							code = (code << 4) | digit;
+						}
+						scratch.append((char) code);
+						break;
+					default:
+						throw syntaxError("Invalid escape sequence");
+				}
+			} else if (c < 0x20) {
+				throw syntaxError("Unescaped control character in string");
+			} else {
+				scratch.append((char) c);
+			}
+		}
+	}
+
+	// Reads an unquoted number, true, false or null
+	private String readLiteral() throws IOException {
+		scratch.setLength(0);
+		while (true) {
+			int c = read();
+			if ((c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || c == '-' || c == '+' || c == '.' || c == 'E') {
+				scratch.append((char) c);
+			} else {
+				if (c != -1) pos--;
+				break;
+			}
+		}
+		if (scratch.length() == 0) throw syntaxError("Expected a value");
+		String literal = scratch.toString();
+		if (!isNumber(literal) && !"true".equals(literal) && !"false".equals(literal) && !"null".equals(literal)) {
+			throw syntaxError("Invalid literal '" + literal + "'");
+		}
+		return literal;
+	}
+
+	// -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?
+	private static boolean isNumber(String s) {
+		int i = 0;
+		int n = s.length();
+		if (i < n && s.charAt(i) == '-') i++;
+		if (i == n) return false;
+		if (s.charAt(i) == '0') {
+			i++;
+		} else {
+			int start = i;
+			i = skipDigits(s, i);
+			if (i == start) return false;
+		}
+		if (i < n && s.charAt(i) == '.') {
+			int start = ++i;
+			i = skipDigits(s, i);
+			if (i == start) return false;
+		}
+		if (i < n && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+			i++;
+			if (i < n && (s.charAt(i) == '+' || s.charAt(i) == '-')) i++;
+			int start = i;
+			i = skipDigits(s, i);
+			if (i == start) return false;
+		}
+		return i == n;
+	}
+
+	private static int skipDigits(String s, int i) {
+		while (i < s.length() && s.charAt(i) >= '0' && s.charAt(i) <= '9') i++;
+		return i;
+	}
+
+	private MalformedJsonException syntaxError(String message) {
+		return new MalformedJsonException(message + " at character " + (consumed + pos));
+	}
+}
@@ -0,0 +1,336 @@
+package com.wipro.studentgrade.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming JSON writer that encodes straight to UTF-8 bytes.
+ *
+ * Numbers are formatted digit by digit and strings that need no escaping
+ * (printable ASCII without quotes or backslashes, e.g. IDs, grades and most
+ * names) are copied byte for byte, so writing a row allocates nothing.
+ * Without an OutputStream the buffer grows and is read back with
+ * {@link #writeTo} or {@link #toString}; with one, it is flushed whenever it
+ * fills up. Commas and colons are inserted automatically.
+ */
+public class JsonWriter {
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_ARRAY = 2;
+	private static final int NONEMPTY_ARRAY = 3;
+	private static final int EMPTY_OBJECT = 4;
+	private static final int DANGLING_NAME = 5;
+	private static final int NONEMPTY_OBJECT = 6;
+
+	private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] MIN_LONG = String.valueOf(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
+	private final OutputStream out;
+	private byte[] buf;
+	private int count;
+
+	private int[] stack = new int[16];
+	private int stackSize = 1;
+
+	/** Writes into a growable in-memory buffer. */
+	public JsonWriter() {
+		this(null, 256);
+	}
+
+	/** Writes through a fixed buffer to a stream; call {@link #flush} when done. */
+	public JsonWriter(OutputStream out) {
+		this(out, 8192);
+	}
+
+	private JsonWriter(OutputStream out, int bufferSize) {
+		this.out = out;
+		this.buf = new byte[bufferSize];
+		stack[0] = EMPTY_DOCUMENT;
+	}
+
+	public JsonWriter beginObject() throws IOException {
+		beforeValue();
+		push(EMPTY_OBJECT);
+		writeByte('{');
+		return this;
+	}
+
+	public JsonWriter endObject() throws IOException {
+		int top = peek();
+		if (top != EMPTY_OBJECT && top != NONEMPTY_OBJECT) {
+			throw new IllegalStateException("Not inside an object");
+		}
+		stackSize--;
+		writeByte('}');
+		return this;
+	}
+
+	public JsonWriter beginArray() throws IOException {
+		beforeValue();
+		push(EMPTY_ARRAY);
+		writeByte('[');
+		return this;
+	}
+
+	public JsonWriter endArray() throws IOException {
+		int top = peek();
+		if (top != EMPTY_ARRAY && top != NONEMPTY_ARRAY) {
+			throw new IllegalStateException("Not inside an array");
+		}
+		stackSize--;
+		writeByte(']');
+		return this;
+	}
+
+	/**
+	 * Writes a member name; the next call must write its value
+	 * @param name Member name
+	 */
+	public JsonWriter name(String name) throws IOException {
+		int top = peek();
+		if (top == NONEMPTY_OBJECT) {
+			writeByte(',');
+		} else if (top != EMPTY_OBJECT) {
+			throw new IllegalStateException("Name outside an object or after another name");
+		}
+		stack[stackSize - 1] = DANGLING_NAME;
+		writeString(name);
+		writeByte(':');
+		return this;
+	}
+
+	/** Writes a string value, or null when the string is null. */
+	public JsonWriter value(String value) throws IOException {
+		if (value == null) {
+			return nullValue();
+		}
+		beforeValue();
+		writeString(value);
+		return this;
+	}
+
+	public JsonWriter value(long value) throws IOException {
+		beforeValue();
+		writeLong(value);
+		return this;
+	}
+
+	public JsonWriter value(boolean value) throws IOException {
+		beforeValue();
+		writeAscii(value ? "true" : "false");
+		return this;
+	}
+
+	/** Writes a finite double; NaN and infinities are written as null. */
+	public JsonWriter value(double value) throws IOException {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			return nullValue();
+		}
+		if (value == (long) value && Math.abs(value) < 1e15) {
+			beforeValue();
+			writeLong((long) value);
+			return this;
+		}
+		beforeValue();
+		writeAscii(Double.toString(value));
+		return this;
+	}
+
+	public JsonWriter nullValue() throws IOException {
+		beforeValue();
+		writeAscii("null");
+		return this;
+	}
+
+	/**
+	 * @return Bytes buffered so far (everything written, for an in-memory writer)
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Copies the buffered bytes to a stream without an intermediate array
+	 * @param target Stream to write to
+	 */
+	public void writeTo(OutputStream target) throws IOException {
+		target.write(buf, 0, count);
+	}
+
+	/**
+	 * Writes buffered bytes to the underlying stream, if any, and flushes it
+	 */
+	public void flush() throws IOException {
+		if (out != null) {
+			out.write(buf, 0, count);
+			count = 0;
+			out.flush();
+		}
+	}
+
+	/**
+	 * Clears the buffer and state so the writer can be reused for a new document
+	 */
+	public void reset() {
+		count = 0;
+		stackSize = 1;
+		stack[0] = EMPTY_DOCUMENT;
+	}
+
+	@Override
+	public String toString() {
+		return new String(buf, 0, count, StandardCharsets.UTF_8);
+	}
+
+	private int peek() {
+		return stack[stackSize - 1];
+	}
+
+	private void push(int state) {
+		if (stackSize == stack.length) {
+			stack = Arrays.copyOf(stack, stackSize * 2);
+		}
+		stack[stackSize++] = state;
+	}
+
+	private void beforeValue() throws IOException {
+		switch (peek()) {
+			case EMPTY_DOCUMENT:
+				stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+				break;
+			case NONEMPTY_DOCUMENT:
+				// Consecutive top-level values, e.g. JSON lines
+				writeByte('\n');
+				break;
+			case EMPTY_ARRAY:
+				stack[stackSize - 1] = NONEMPTY_ARRAY;
+				break;
+			case NONEMPTY_ARRAY:
+				writeByte(',');
+				break;
+			case DANGLING_NAME:
+				stack[stackSize - 1] = NONEMPTY_OBJECT;
+				break;
+			default:
+				throw new IllegalStateException("Value inside an object needs a name first");
+		}
+	}
+
+	private void writeString(String s) throws IOException {
+		int len = s.length();
+		ensure(len + 2);
+		buf[count++] = '"';
+		// Fast path: copy printable ASCII that needs no escaping
+		int i = 0;
+		for (; i < len; i++) {
+			char c = s.charAt(i);
+			if (c < 0x20 || c >= 0x7f || c == '"' || c == '\\') {
+				break;
+			}
+			buf[count++] = (byte) c;
+		}
+		if (i < len) {
+			writeEscaped(s, i);
+		}
+		writeByte('"');
+	}
+
+	private void writeEscaped(String s, int from) throws IOException {
+		for (int i = from; i < s.length(); i++) {
+			char c = s.charAt(i);
+			ensure(6);
+			if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+				buf[count++] = (byte) c;
+			} else if (c == '"' || c == '\\') {
+				buf[count++] = '\\';
+				buf[count++] = (byte) c;
+			} else if (c == '\n') {
+				buf[count++] = '\\';
+				buf[count++] = 'n';
+			} else if (c == '\r') {
+				buf[count++] = '\\';
+				buf[count++] = 'r';
+			} else if (c == '\t') {
+				buf[count++] = '\\';
+				buf[count++] = 't';
+			} else if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+				// Control characters, plus separators that break JavaScript string literals
+				buf[count++] = '\\';
+				buf[count++] = 'u';
+				buf[count++] = HEX[(c >> 12) & 0xf];
+				buf[count++] = HEX[(c >> 8) & 0xf];
+				buf[count++] = HEX[(c >> 4) & 0xf];
+				buf[count++] = HEX[c & 0xf];
+			} else if (c < 0x800) {
+				buf[count++] = (byte) (0xc0 | (c >> 6));
+				buf[count++] = (byte) (0x80 | (c & 0x3f));
+			} else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+				int cp = Character.toCodePoint(c, s.charAt(++i));
+				buf[count++] = (byte) (0xf0 | (cp >> 18));
+				buf[count++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+				buf[count++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+				buf[count++] = (byte) (0x80 | (cp & 0x3f));
+			} else if (Character.isSurrogate(c)) {
+				// Unpaired surrogate: same replacement String.getBytes would use
+				buf[count++] = '?';
+			} else {
+				buf[count++] = (byte) (0xe0 | (c >> 12));
+				buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+				buf[count++] = (byte) (0x80 | (c & 0x3f));
+			}
+		}
+	}
+
+	private void writeLong(long v) throws IOException {
+		if (v == Long.MIN_VALUE) {
+			ensure(MIN_LONG.length);
+			System.arraycopy(MIN_LONG, 0, buf, count, MIN_LONG.length);
+			count += MIN_LONG.length;
+			return;
+		}
+		ensure(20);
+		if (v < 0) {
+			buf[count++] = '-';
+			v = -v;
+		}
+		int digits = 1;
+		for (long t = v; t >= 10; t /= 10) {
+			digits++;
+		}
+		int end = count + digits;
+		for (int p = end - 1; p >= count; p--) {
+			buf[p] = (byte) ('0' + (v % 10));
+			v /= 10;
+		}
+		count = end;
+	}
+
+	private void writeAscii(String s) throws IOException {
+		ensure(s.length());
+		for (int i = 0; i < s.length(); i++) {
+			buf[count++] = (byte) s.charAt(i);
+		}
+	}
+
+	private void writeByte(char c) throws IOException {
+		ensure(1);
+		buf[count++] = (byte) c;
+	}
+
+	// Makes room for n more bytes: flush to the stream, or grow the in-memory buffer
+	private void ensure(int n) throws IOException {
+		if (count + n <= buf.length) {
+			return;
+		}
+		if (out != null && count > 0) {
+			out.write(buf, 0, count);
+			count = 0;
+			if (n <= buf.length) {
+				return;
+			}
+		}
+		buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + n));
+	}
+}
@@ -0,0 +1,121 @@
+package com.wipro.studentgrade.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the style of HdrHistogram.
+ *
+ * Durations are kept in microseconds. Values below 16 get a bucket each; above that
+ * every power of two is split into 16 equal sub-buckets, so a bucket is never wider
+ * than 1/16 (about 6%) of the values it holds. Recording is a shift, a
+ * leading-zero count and one atomic increment, and allocates nothing. Durations up to
+ * about six days are covered; longer ones land in the last bucket.
+ *
+ * Prometheus wants cumulative counts at fixed boundaries, so {@link #writePrometheus}
+ * adds up the buckets that start below each boundary.
+ */
+public final class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_EXPONENT = 38;
+	private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+	/** Upper bounds, in seconds, of the buckets written for Prometheus. */
+	private static final String[] BOUND_LABELS = {
+		"0.0001", "0.00025", "0.0005", "0.001", "0.0025", "0.005", "0.01", "0.025", "0.05", "0.1", "0.25", "0.5",
+		"1", "2.5", "5", "10"
+	};
+	private static final long[] BOUND_MICROS = new long[BOUND_LABELS.length];
+	static {
+		for (int i = 0; i < BOUND_LABELS.length; i++) {
+			BOUND_MICROS[i] = Math.round(Double.parseDouble(BOUND_LABELS[i]) * 1_000_000);
+		}
+	}
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sumNanos = new LongAdder();
+
+	/**
+	 * @param nanos Duration in nanoseconds; negative values count as 0
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) nanos = 0;
+		counts.incrementAndGet(bucketOf(nanos / 1000));
+		count.increment();
+		sumNanos.add(nanos);
+	}
+
+	/**
+	 * @param startNanos Value of System.nanoTime() when the timed work began
+	 */
+	public void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getSumNanos() {
+		return sumNanos.sum();
+	}
+
+	/**
+	 * Appends the _bucket, _sum and _count series of one histogram
+	 * @param out Exposition being built
+	 * @param name Metric name, without suffix
+	 * @param labels Label pairs such as path="/api/students", or empty
+	 */
+	public void writePrometheus(StringBuilder out, String name, String labels) {
+		long[] snapshot = snapshot();
+		String sep = labels.isEmpty() ? "" : ",";
+		long cumulative = 0;
+		int bucket = 0;
+		for (int b = 0; b < BOUND_LABELS.length; b++) {
+			while (bucket < snapshot.length && lowerBound(bucket) < BOUND_MICROS[b]) {
+				cumulative += snapshot[bucket++];
+			}
+			out.append(name).append("_bucket{").append(labels).append(sep)
+			   .append("le=\"").append(BOUND_LABELS[b]).append("\"} ").append(cumulative).append('\n');
+		}
+		while (bucket < snapshot.length) {
+			cumulative += snapshot[bucket++];
+		}
+		// Bucket counts are read before count and sum, so +Inf uses the same snapshot
+		out.append(name).append("_bucket{").append(labels).append(sep).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+		String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+		out.append(name).append("_sum").append(braces).append(' ').append(sumNanos.sum() / 1e9).append('\n');
+		out.append(name).append("_count").append(braces).append(' ').append(cumulative).append('\n');
+	}
+
+	private long[] snapshot() {
+		long[] snapshot = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+		}
+		return snapshot;
+	}
+
+	static int bucketOf(long micros) {
+		if (micros < SUB_BUCKETS) {
+			return (int) micros;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		if (exponent > MAX_EXPONENT) {
+			return BUCKETS - 1;
+		}
+		int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	static long lowerBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long sub = bucket % SUB_BUCKETS;
+		return (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+	}
+}
@@ -0,0 +1,15 @@
+package com.wipro.studentgrade.util;
+
+import java.io.IOException;
+
+public class MalformedJsonException extends IOException {
+
+    public MalformedJsonException(String message) {
+        super(message);
+    }
+
+    @Override
+    public String toString() {
+        return "MalformedJsonException: " + getMessage();
+    }
+}
@@ -0,0 +1,192 @@
+package com.wipro.studentgrade.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide metrics, written in the Prometheus text format by {@link #writePrometheus}.
+ *
+ * Instruments are created once, when an endpoint is registered or a DAO class
+ * loads, and kept in fields by whoever records into them. Recording then only
+ * touches LongAdders and atomic arrays: no locks, no map lookups, no allocation.
+ * Values that other components already count (pool, cache, executor) are
+ * registered as gauges or counters read when metrics are scraped.
+ */
+public final class Metrics {
+	private static final String PREFIX = "studentgrade_";
+	private static final int MAX_STATUS = 600;
+
+	private static final Map<String, Endpoint> ENDPOINTS = new ConcurrentHashMap<>();
+	private static final Map<String, Operation> OPERATIONS = new ConcurrentHashMap<>();
+	private static final Map<String, Sampled> SAMPLED = new ConcurrentHashMap<>();
+
+	/** Time to borrow a connection from the pool, or to open one when pooling is off. */
+	public static final LatencyHistogram CONNECTION_ACQUIRE = new LatencyHistogram();
+
+	private Metrics() {
+	}
+
+	/** Requests, status codes and latency of one HTTP context. */
+	public static final class Endpoint {
+		private final String labels;
+		private final AtomicLongArray statuses = new AtomicLongArray(MAX_STATUS);
+		private final LatencyHistogram latency = new LatencyHistogram();
+
+		private Endpoint(String path) {
+			this.labels = "path=\"" + escape(path) + "\"";
+		}
+
+		/**
+		 * @param status HTTP status sent; values outside 100-599 are counted as 0
+		 * @param startNanos System.nanoTime() when the request arrived
+		 */
+		public void record(int status, long startNanos) {
+			latency.recordSince(startNanos);
+			statuses.incrementAndGet(status >= 100 && status < MAX_STATUS ? status : 0);
+		}
+	}
+
+	/** Calls, time, rows and failures of one DAO method. */
+	public static final class Operation {
+		private final String labels;
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final LongAdder rows = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+
+		private Operation(String name) {
+			this.labels = "method=\"" + escape(name) + "\"";
+		}
+
+		/**
+		 * @param startNanos System.nanoTime() when the call began
+		 * @param rowCount Rows read or written, or a negative value if the call failed
+		 */
+		public void record(long startNanos, int rowCount) {
+			latency.recordSince(startNanos);
+			if (rowCount < 0) {
+				errors.increment();
+			} else {
+				rows.add(rowCount);
+			}
+		}
+	}
+
+	// A value read at scrape time
+	private static final class Sampled {
+		final String type;
+		final String help;
+		final LongSupplier value;
+
+		Sampled(String type, String help, LongSupplier value) {
+			this.type = type;
+			this.help = help;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * @param path Context path, used as the path label
+	 * @return The endpoint's instruments, created on first use
+	 */
+	public static Endpoint endpoint(String path) {
+		return ENDPOINTS.computeIfAbsent(path, Endpoint::new);
+	}
+
+	/**
+	 * @param name Method name, used as the method label
+	 * @return The operation's instruments, created on first use
+	 */
+	public static Operation operation(String name) {
+		return OPERATIONS.computeIfAbsent(name, Operation::new);
+	}
+
+	/**
+	 * Registers a value that can go up and down, replacing any gauge of the same name
+	 * @param name Metric name without the studentgrade_ prefix
+	 */
+	public static void gauge(String name, String help, LongSupplier value) {
+		SAMPLED.put(name, new Sampled("gauge", help, value));
+	}
+
+	/**
+	 * Registers a running total kept elsewhere, replacing any counter of the same name
+	 * @param name Metric name without the studentgrade_ prefix, ending in _total
+	 */
+	public static void counter(String name, String help, LongSupplier value) {
+		SAMPLED.put(name, new Sampled("counter", help, value));
+	}
+
+	/**
+	 * Removes gauges and counters whose names start with a prefix, e.g. when the
+	 * component they read from shuts down
+	 */
+	public static void unregister(String namePrefix) {
+		SAMPLED.keySet().removeIf(name -> name.startsWith(namePrefix));
+	}
+
+	/**
+	 * @return Every metric in the Prometheus text exposition format, version 0.0.4
+	 */
+	public static String writePrometheus() {
+		StringBuilder out = new StringBuilder(16384);
+		Map<String, Endpoint> endpoints = new TreeMap<>(ENDPOINTS);
+		Map<String, Operation> operations = new TreeMap<>(OPERATIONS);
+
+		header(out, "http_requests_total", "counter", "HTTP requests answered, by context path and status code");
+		for (Endpoint e : endpoints.values()) {
+			for (int status = 0; status < MAX_STATUS; status++) {
+				long n = e.statuses.get(status);
+				if (n > 0) {
+					out.append(PREFIX).append("http_requests_total{").append(e.labels)
+					   .append(",code=\"").append(status).append("\"} ").append(n).append('\n');
+				}
+			}
+		}
+		header(out, "http_request_duration_seconds", "histogram", "Time from receiving a request to sending its response");
+		for (Endpoint e : endpoints.values()) {
+			e.latency.writePrometheus(out, PREFIX + "http_request_duration_seconds", e.labels);
+		}
+
+		header(out, "dao_duration_seconds", "histogram", "Time spent in StudentDAO methods, including connection acquisition");
+		for (Operation o : operations.values()) {
+			o.latency.writePrometheus(out, PREFIX + "dao_duration_seconds", o.labels);
+		}
+		header(out, "dao_rows_total", "counter", "Rows read or written by StudentDAO methods");
+		for (Operation o : operations.values()) {
+			out.append(PREFIX).append("dao_rows_total{").append(o.labels).append("} ").append(o.rows.sum()).append('\n');
+		}
+		header(out, "dao_errors_total", "counter", "StudentDAO calls that failed with a database error");
+		for (Operation o : operations.values()) {
+			out.append(PREFIX).append("dao_errors_total{").append(o.labels).append("} ").append(o.errors.sum()).append('\n');
+		}
+
+		header(out, "db_connection_acquire_seconds", "histogram", "Time to obtain a database connection");
+		CONNECTION_ACQUIRE.writePrometheus(out, PREFIX + "db_connection_acquire_seconds", "");
+
+		for (Map.Entry<String, Sampled> entry : new TreeMap<>(SAMPLED).entrySet()) {
+			Sampled s = entry.getValue();
+			long value;
+			try {
+				value = s.value.getAsLong();
+			} catch (RuntimeException e) {
+				continue;
+			}
+			header(out, entry.getKey(), s.type, s.help);
+			out.append(PREFIX).append(entry.getKey()).append(' ').append(value).append('\n');
+		}
+		return out.toString();
+	}
+
+	private static void header(StringBuilder out, String name, String type, String help) {
+		out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+		out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+}
@@ -0,0 +1,195 @@
+package com.wipro.studentgrade.util;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Versioned schema migrations for the student database.
+ *
+ * Applied versions are recorded in the schema_version table and only newer
+ * migrations run. Every step is also idempotent on its own, so databases
+ * created before versioning (no schema_version table yet) are brought up to
+ * date without errors. Supports the SQLite and MySQL/MariaDB dialects.
+ */
+public class SchemaMigrator {
+
+	private interface Step {
+		void apply(Connection conn, Statement stmt, boolean sqlite) throws SQLException;
+	}
+
+	private static final class Migration {
+		final int version;
+		final String description;
+		final Step step;
+
+		Migration(int version, String description, Step step) {
+			this.version = version;
+			this.description = description;
+			this.step = step;
+		}
+	}
+
+	private static final List<Migration> MIGRATIONS = new ArrayList<>();
+
+	static {
+		MIGRATIONS.add(new Migration(1, "Create students table",
+			(conn, stmt, sqlite) -> stmt.execute(createStudentsDDL(sqlite))));
+		MIGRATIONS.add(new Migration(2, "Add students.version for optimistic updates",
+			(conn, stmt, sqlite) -> {
+				if (!hasColumn(conn, "students", "version")) {
+					stmt.execute("ALTER TABLE students ADD COLUMN version INTEGER NOT NULL DEFAULT 0");
+				}
+			}));
+		MIGRATIONS.add(new Migration(3, "Create student_id_sequences table",
+			(conn, stmt, sqlite) -> stmt.execute(createSequenceTableDDL(sqlite))));
+		MIGRATIONS.add(new Migration(4, "Index list, grade filter and sort columns",
+			(conn, stmt, sqlite) -> {
+				// Newest-first list and its keyset cursor
+				createIndexIfMissing(conn, stmt, "idx_students_created_at", "created_at, id");
+				// Grade filter and GROUP BY grade in the statistics aggregate
+				createIndexIfMissing(conn, stmt, "idx_students_grade", "grade, id");
+				// Ranked sorts (?sort=total / ?sort=average)
+				createIndexIfMissing(conn, stmt, "idx_students_total", "total, id");
+				createIndexIfMissing(conn, stmt, "idx_students_average", "average, id");
+			}));
+		MIGRATIONS.add(new Migration(5, "Index student versions for snapshot restore",
+			// Lets the restore's (id, student_id, version) scan read the index alone
+			(conn, stmt, sqlite) -> createIndexIfMissing(conn, stmt, "idx_students_version", "student_id, version, id")));
+	}
+
+	private SchemaMigrator() {}
+
+	/**
+	 * Brings the schema up to the latest version
+	 * @param conn Connection to migrate
+	 * @param sqlite True for SQLite DDL, false for MySQL/MariaDB
+	 * @return Number of migrations applied
+	 * @throws SQLException if a migration fails (earlier migrations stay applied)
+	 */
+	public static int migrate(Connection conn, boolean sqlite) throws SQLException {
+		int applied = 0;
+		try (Statement stmt = conn.createStatement()) {
+			stmt.execute("""
+				CREATE TABLE IF NOT EXISTS schema_version (
+					version INTEGER PRIMARY KEY,
+					description VARCHAR(200) NOT NULL,
+					applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+				)
+				""");
+
+			int current = currentVersion(stmt);
+			for (Migration migration : MIGRATIONS) {
+				if (migration.version <= current) {
+					continue;
+				}
+				migration.step.apply(conn, stmt, sqlite);
+				try (PreparedStatement pstmt = conn.prepareStatement(
+						"INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+					pstmt.setInt(1, migration.version);
+					pstmt.setString(2, migration.description);
+					pstmt.executeUpdate();
+				}
+				System.out.println("Applied schema migration " + migration.version + ": " + migration.description);
+				applied++;
+			}
+		}
+		return applied;
+	}
+
+	/**
+	 * @return Version the latest migration brings the schema to
+	 */
+	public static int latestVersion() {
+		return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+	}
+
+	private static int currentVersion(Statement stmt) throws SQLException {
+		try (ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+	}
+
+	private static boolean hasColumn(Connection conn, String table, String column) throws SQLException {
+		try (ResultSet rs = conn.getMetaData().getColumns(null, null, table, column)) {
+			return rs.next();
+		}
+	}
+
+	// MySQL has no CREATE INDEX IF NOT EXISTS, so check the catalog first
+	private static void createIndexIfMissing(Connection conn, Statement stmt, String name, String columns) throws SQLException {
+		DatabaseMetaData meta = conn.getMetaData();
+		try (ResultSet rs = meta.getIndexInfo(null, null, "students", false, false)) {
+			while (rs.next()) {
+				String existing = rs.getString("INDEX_NAME");
+				if (existing != null && existing.toLowerCase(Locale.ROOT).equals(name)) {
+					return;
+				}
+			}
+		}
+		stmt.execute("CREATE INDEX " + name + " ON students (" + columns + ")");
+	}
+
+	private static String createStudentsDDL(boolean sqlite) {
+		if (sqlite) {
+			return """
+				CREATE TABLE IF NOT EXISTS students (
+					id INTEGER PRIMARY KEY AUTOINCREMENT,
+					student_id VARCHAR(20) UNIQUE NOT NULL,
+					name VARCHAR(100) NOT NULL,
+					mark1 INTEGER NOT NULL,
+					mark2 INTEGER NOT NULL,
+					mark3 INTEGER NOT NULL,
+					mark4 INTEGER NOT NULL,
+					mark5 INTEGER NOT NULL,
+					total INTEGER NOT NULL,
+					average INTEGER NOT NULL,
+					grade VARCHAR(2) NOT NULL,
+					version INTEGER NOT NULL DEFAULT 0,
+					created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+				)
+				""";
+		}
+		// MySQL / MariaDB friendly DDL
+		return """
+			CREATE TABLE IF NOT EXISTS students (
+				id INT AUTO_INCREMENT PRIMARY KEY,
+				student_id VARCHAR(20) UNIQUE NOT NULL,
+				name VARCHAR(100) NOT NULL,
+				mark1 INT NOT NULL,
+				mark2 INT NOT NULL,
+				mark3 INT NOT NULL,
+				mark4 INT NOT NULL,
+				mark5 INT NOT NULL,
+				total INT NOT NULL,
+				average INT NOT NULL,
+				grade VARCHAR(2) NOT NULL,
+				version INT NOT NULL DEFAULT 0,
+				created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+			) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+			""";
+	}
+
+	private static String createSequenceTableDDL(boolean sqlite) {
+		if (sqlite) {
+			return """
+				CREATE TABLE IF NOT EXISTS student_id_sequences (
+					prefix VARCHAR(20) PRIMARY KEY,
+					next_value INTEGER NOT NULL
+				)
+				""";
+		}
+		return """
+			CREATE TABLE IF NOT EXISTS student_id_sequences (
+				prefix VARCHAR(20) PRIMARY KEY,
+				next_value INT NOT NULL
+			) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+			""";
+	}
+}
@@ -0,0 +1,48 @@
+package com.wipro.studentgrade.util;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Web server settings loaded from server.properties in the working directory.
+ * Every setting has a default, so the file is optional.
+ */
+public class ServerConfig {
+	private static final Properties PROPS = new Properties();
+
+	static {
+		try (FileInputStream fis = new FileInputStream("server.properties")) {
+			PROPS.load(fis);
+		} catch (IOException ignored) {
+			// Use defaults if properties file not found
+		}
+	}
+
+	private ServerConfig() {}
+
+	public static String get(String key, String def) {
+		String v = PROPS.getProperty(key);
+		return v == null || v.trim().isEmpty() ? def : v.trim();
+	}
+
+	public static int getInt(String key, int def) {
+		return (int) getLong(key, def);
+	}
+
+	public static long getLong(String key, long def) {
+		String v = get(key, null);
+		if (v == null) return def;
+		try {
+			return Long.parseLong(v);
+		} catch (NumberFormatException e) {
+			System.err.println("Ignoring invalid value for " + key + ": " + v);
+			return def;
+		}
+	}
+
+	public static boolean getBoolean(String key, boolean def) {
+		String v = get(key, null);
+		return v == null ? def : Boolean.parseBoolean(v);
+	}
+}
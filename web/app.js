@@ -37,6 +37,18 @@ let allStudents = [];
 let filteredStudents = [];
 let gradeChart = null;
 
+// Live updates (Server-Sent Events from /api/students/events)
+let liveUpdates = false;
+let listLoading = false;
+let pendingEvents = [];
+let renderScheduled = false;
+
+// Server-side search (/api/students/search), run once typing pauses
+const SEARCH_DELAY_MS = 150;
+const SEARCH_LIMIT = 100;
+let searchTimer = null;
+let searchSeq = 0;
+
 // Utility functions
 function isValidName(name) {
 	return /^[a-zA-Z\s\-']+$/.test(name.trim()) && name.trim().length >= 2;
@@ -57,7 +69,8 @@ function computeGrade(avg) {
 
 function assignGradeClass(grade) {
 	rGrade.className = 'grade-pill';
-	rGrade.classList.add(`grade-${grade}`);
+	// Plus/minus grades (A+, B-) share their letter's colour
+	rGrade.classList.add(`grade-${grade.charAt(0)}`);
 }
 
 // Notification system
@@ -76,24 +89,45 @@ function showNotification(message, type = 'info') {
 
 // Search and filter functions
 function filterStudents() {
-	const searchTerm = searchInput.value.toLowerCase();
-	const gradeFilterValue = gradeFilter.value;
-	
-	filteredStudents = allStudents.filter(student => {
-		const matchesSearch = !searchTerm || 
-			student.name.toLowerCase().includes(searchTerm) ||
-			student.studentId.toLowerCase().includes(searchTerm);
-		
-		const matchesGrade = !gradeFilterValue || student.grade === gradeFilterValue;
-		
-		return matchesSearch && matchesGrade;
-	});
+	const searchTerm = searchInput.value.trim();
+	clearTimeout(searchTimer);
+	if (searchTerm) {
+		searchTimer = setTimeout(() => searchStudents(searchTerm), SEARCH_DELAY_MS);
+		return;
+	}
+	searchSeq++; // A search still in flight no longer applies
 	
+	const gradeFilterValue = gradeFilter.value;
+	filteredStudents = allStudents.filter(student => !gradeFilterValue || student.grade === gradeFilterValue);
 	sortStudents();
 	renderList(filteredStudents);
 	updateStatistics();
 }
 
+// Best matches first, from the server's index; the grade filter applies to what comes back
+async function searchStudents(searchTerm) {
+	const seq = ++searchSeq;
+	let results;
+	try {
+		const params = new URLSearchParams({ q: searchTerm, limit: SEARCH_LIMIT });
+		const res = await fetch(`${API_BASE}/students/search?${params}`);
+		if (!res.ok) throw new Error('Search failed');
+		results = await res.json();
+	} catch (e) {
+		// Server unavailable: match the loaded list instead
+		const term = searchTerm.toLowerCase();
+		results = allStudents.filter(student =>
+			student.name.toLowerCase().includes(term) ||
+			student.studentId.toLowerCase().includes(term));
+	}
+	if (seq !== searchSeq) return; // Typing or filtering moved on meanwhile
+	
+	const gradeFilterValue = gradeFilter.value;
+	filteredStudents = results.filter(student => !gradeFilterValue || student.grade === gradeFilterValue);
+	renderList(filteredStudents);
+	updateStatistics();
+}
+
 function sortStudents() {
 	const sortField = sortBy.value;
 	filteredStudents.sort((a, b) => {
@@ -169,6 +203,20 @@ function updateStatistics() {
 	}
 }
 
+const GRADE_COLORS = { A: '34, 197, 94', B: '59, 130, 246', C: '251, 191, 36', D: '251, 113, 133', F: '168, 85, 247' };
+
+// A-F, with each letter replaced by the plus/minus grades present when the grading scheme uses them
+function chartGrades(gradeCounts) {
+	const suffixOrder = grade => grade.endsWith('+') ? 0 : grade.endsWith('-') ? 2 : 1;
+	const present = Object.keys(gradeCounts);
+	const letters = [...new Set(['A', 'B', 'C', 'D', 'F', ...present.map(g => g.charAt(0))])].sort();
+	return letters.flatMap(letter => {
+		const variants = present.filter(g => g.charAt(0) === letter && g !== letter);
+		if (!variants.length) return [letter];
+		return [...variants, ...(gradeCounts[letter] ? [letter] : [])].sort((a, b) => suffixOrder(a) - suffixOrder(b));
+	});
+}
+
 function updateChart(gradeCounts) {
 	const ctx = document.getElementById('gradeChart').getContext('2d');
 	
@@ -176,8 +224,9 @@ function updateChart(gradeCounts) {
 		gradeChart.destroy();
 	}
 	
-	const grades = ['A', 'B', 'C', 'D', 'F'];
+	const grades = chartGrades(gradeCounts);
 	const counts = grades.map(grade => gradeCounts[grade] || 0);
+	const color = (grade, alpha) => `rgba(${GRADE_COLORS[grade.charAt(0)] || '148, 163, 184'}, ${alpha})`;
 	
 	gradeChart = new Chart(ctx, {
 		type: 'bar',
@@ -186,20 +235,8 @@ function updateChart(gradeCounts) {
 			datasets: [{
 				label: 'Number of Students',
 				data: counts,
-				backgroundColor: [
-					'rgba(34, 197, 94, 0.8)',
-					'rgba(59, 130, 246, 0.8)',
-					'rgba(251, 191, 36, 0.8)',
-					'rgba(251, 113, 133, 0.8)',
-					'rgba(168, 85, 247, 0.8)'
-				],
-				borderColor: [
-					'rgba(34, 197, 94, 1)',
-					'rgba(59, 130, 246, 1)',
-					'rgba(251, 191, 36, 1)',
-					'rgba(251, 113, 133, 1)',
-					'rgba(168, 85, 247, 1)'
-				],
+				backgroundColor: grades.map(grade => color(grade, 0.8)),
+				borderColor: grades.map(grade => color(grade, 1)),
 				borderWidth: 1
 			}]
 		},
@@ -224,7 +261,19 @@ function updateChart(gradeCounts) {
 
 // Export/Import functions
 function exportToCSV() {
-	const students = filteredStudents.length > 0 ? filteredStudents : allStudents;
+	// Without a text search the server streams the file, whatever the size of the gradebook
+	if (!searchInput.value.trim()) {
+		const params = new URLSearchParams({ format: 'csv' });
+		if (gradeFilter.value) params.set('grade', gradeFilter.value);
+		const a = document.createElement('a');
+		a.href = `${API_BASE}/students/export?${params}`;
+		a.download = '';
+		a.click();
+		showNotification('CSV export started', 'success');
+		return;
+	}
+	
+	const students = filteredStudents;
 	const headers = ['Student ID', 'Name', 'Mark 1', 'Mark 2', 'Mark 3', 'Mark 4', 'Mark 5', 'Total', 'Average', 'Grade'];
 	
 	let csv = headers.join(',') + '\n';
@@ -285,20 +334,18 @@ async function bulkDelete() {
 	if (!confirm(`Are you sure you want to delete ${selectedIds.length} selected students?`)) return;
 	
 	try {
-		let successCount = 0;
-		for (const id of selectedIds) {
-			const payload = new URLSearchParams();
-			payload.set('studentId', id);
-			const res = await fetch(`${API_BASE}/students/delete`, {
-				method: 'POST',
-				headers: { 'Content-Type': 'application/x-www-form-urlencoded' },
-				body: payload.toString()
-			});
-			if (res.ok) successCount++;
-		}
+		const payload = new URLSearchParams();
+		payload.set('studentIds', selectedIds.join(','));
+		const res = await fetch(`${API_BASE}/students/bulk-delete`, {
+			method: 'POST',
+			headers: { 'Content-Type': 'application/x-www-form-urlencoded' },
+			body: payload.toString()
+		});
+		if (!res.ok) throw new Error('Bulk delete failed');
+		const result = await res.json();
 		
-		await fetchList();
-		showNotification(`Successfully deleted ${successCount} students`, 'success');
+		await refreshAfterChange();
+		showNotification(`Successfully deleted ${result.deleted} students`, 'success');
 	} catch (e) {
 		showNotification('Error during bulk delete', 'error');
 	}
@@ -323,24 +370,86 @@ function editStudent(studentId) {
 }
 
 // Enhanced fetch function
-async function fetchList() {
+async function fetchList(notify = true) {
+	listLoading = true;
+	pendingEvents = [];
 	try {
 		const res = await fetch(`${API_BASE}/students`);
 		if (!res.ok) throw new Error('Failed to load');
 		allStudents = await res.json();
-		filteredStudents = [...allStudents];
-		renderList(filteredStudents);
-		updateStatistics();
-		showNotification('Student list refreshed', 'success');
+		// Changes that arrived while loading may or may not be in the response; upserts make replaying them safe
+		pendingEvents.forEach(([type, data]) => applyChange(type, data));
+		filterStudents();
+		if (notify) showNotification('Student list refreshed', 'success');
 	} catch (e) {
 		allStudents = [];
 		filteredStudents = [];
 		renderList([]);
 		updateStatistics();
 		showNotification('Failed to load students', 'error');
+	} finally {
+		listLoading = false;
+		pendingEvents = [];
 	}
 }
 
+// Reload only when live updates are not connected
+async function refreshAfterChange() {
+	if (!liveUpdates) await fetchList(false);
+}
+
+function applyChange(type, data) {
+	switch (type) {
+		case 'inserted':
+		case 'updated': {
+			const index = allStudents.findIndex(s => s.studentId === data.studentId);
+			if (index >= 0) {
+				allStudents[index] = data;
+			} else {
+				allStudents.unshift(data);
+			}
+			break;
+		}
+		case 'deleted':
+			allStudents = allStudents.filter(s => s.studentId !== data.studentId);
+			break;
+		case 'cleared':
+			allStudents = [];
+			break;
+	}
+}
+
+// Coalesce bursts of changes (e.g. an import) into one re-render per frame
+function scheduleRender() {
+	if (renderScheduled) return;
+	renderScheduled = true;
+	requestAnimationFrame(() => {
+		renderScheduled = false;
+		filterStudents();
+	});
+}
+
+function connectLiveUpdates() {
+	if (!window.EventSource) return;
+	const source = new EventSource(`${API_BASE}/students/events`);
+	source.addEventListener('open', () => { liveUpdates = true; });
+	// The browser reconnects by itself, resuming from the last event ID
+	source.addEventListener('error', () => { liveUpdates = false; });
+	for (const type of ['inserted', 'updated', 'deleted', 'cleared']) {
+		source.addEventListener(type, (e) => {
+			const data = JSON.parse(e.data);
+			if (listLoading) {
+				pendingEvents.push([type, data]);
+				return;
+			}
+			applyChange(type, data);
+			scheduleRender();
+		});
+	}
+	// Sent when too many changes were missed to replay them
+	source.addEventListener('reset', () => fetchList(false));
+}
+
 // Event listeners
 form.addEventListener('submit', async (e) => {
 	e.preventDefault();
@@ -373,20 +482,24 @@ form.addEventListener('submit', async (e) => {
 	resultCard.classList.remove('hidden');
 
 	try {
-		const payload = new URLSearchParams();
-		payload.set('name', nameEl.value.trim());
-		payload.set('m1', String(marks[0]));
-		payload.set('m2', String(marks[1]));
-		payload.set('m3', String(marks[2]));
-		payload.set('m4', String(marks[3]));
-		payload.set('m5', String(marks[4]));
+		const payload = {
+			name: nameEl.value.trim(),
+			m1: marks[0], m2: marks[1], m3: marks[2], m4: marks[3], m5: marks[4]
+		};
 		const res = await fetch(`${API_BASE}/students`, { 
 			method: 'POST', 
-			headers: { 'Content-Type': 'application/x-www-form-urlencoded' }, 
-			body: payload.toString() 
+			headers: { 'Content-Type': 'application/json' }, 
+			body: JSON.stringify(payload) 
 		});
 		if (res.ok) {
-			await fetchList();
+			// The server's grading policy is authoritative (weights, scale), so show what it stored
+			const saved = await res.json();
+			rTotal.textContent = saved.total;
+			rAvg.textContent = saved.average;
+			rGrade.textContent = saved.grade;
+			assignGradeClass(saved.grade);
+			rNote.textContent = saved.grade === 'F' ? 'Student has failed. Consider remedial actions.' : 'Good job! Keep improving where needed.';
+			await refreshAfterChange();
 			showNotification('Student added successfully!', 'success');
 			form.reset();
 		} else {
@@ -401,39 +514,41 @@ form.addEventListener('submit', async (e) => {
 searchInput.addEventListener('input', filterStudents);
 searchBtn.addEventListener('click', filterStudents);
 gradeFilter.addEventListener('change', filterStudents);
-sortBy.addEventListener('change', filterStudents);
+// Re-sorts what is shown, search results included, without searching again
+sortBy.addEventListener('change', () => {
+	sortStudents();
+	renderList(filteredStudents);
+});
 
 // Export/Import event listeners
 exportBtn.addEventListener('click', exportToCSV);
 importBtn.addEventListener('click', importFromCSV);
 
-fileInput.addEventListener('change', (e) => {
+fileInput.addEventListener('change', async (e) => {
 	const file = e.target.files[0];
 	if (!file) return;
 	
-	const reader = new FileReader();
-	reader.onload = (e) => {
-		try {
-			const csv = e.target.result;
-			const lines = csv.split('\n');
-			const headers = lines[0].split(',');
-			
-			let importedCount = 0;
-			for (let i = 1; i < lines.length; i++) {
-				if (lines[i].trim()) {
-					const values = lines[i].split(',');
-					// Process CSV import here
-					importedCount++;
-				}
-			}
-			
-			showNotification(`Imported ${importedCount} students`, 'success');
-			fetchList();
-		} catch (error) {
-			showNotification('Error importing CSV file', 'error');
+	const isJsonLines = /\.(jsonl|ndjson)$/i.test(file.name);
+	try {
+		const res = await fetch(`${API_BASE}/students/import?format=${isJsonLines ? 'jsonl' : 'csv'}`, {
+			method: 'POST',
+			headers: { 'Content-Type': isJsonLines ? 'application/x-ndjson' : 'text/csv' },
+			body: file
+		});
+		if (!res.ok) throw new Error('Import failed');
+		const result = await res.json();
+		if (result.rejected > 0) {
+			const firstError = result.errors.length ? ` (line ${result.errors[0].line}: ${result.errors[0].reason})` : '';
+			showNotification(`Imported ${result.inserted} students, rejected ${result.rejected}${firstError}`, 'error');
+		} else {
+			showNotification(`Imported ${result.inserted} students`, 'success');
 		}
-	};
-	reader.readAsText(file);
+		await refreshAfterChange();
+	} catch (error) {
+		showNotification('Error importing file', 'error');
+	} finally {
+		fileInput.value = '';
+	}
 });
 
 // Bulk operations event listeners
@@ -441,7 +556,7 @@ selectAll.addEventListener('change', toggleSelectAll);
 bulkDeleteBtn.addEventListener('click', bulkDelete);
 
 // Other event listeners
-refreshBtn.addEventListener('click', fetchList);
+refreshBtn.addEventListener('click', () => fetchList());
 
 // Delete student function
 async function deleteStudent(studentId) {
@@ -457,7 +572,7 @@ async function deleteStudent(studentId) {
 		});
 		
 		if (res.ok) {
-			await fetchList();
+			await refreshAfterChange();
 			showNotification('Student deleted successfully!', 'success');
 		} else {
 			showNotification('Failed to delete student', 'error');
@@ -478,7 +593,7 @@ async function clearAllStudents() {
 		});
 		
 		if (res.ok) {
-			await fetchList();
+			await refreshAfterChange();
 			showNotification('All students deleted successfully!', 'success');
 		} else {
 			showNotification('Failed to clear students', 'error');
@@ -488,5 +603,6 @@ async function clearAllStudents() {
 	}
 }
 
-// Auto load list on startup
+// Subscribe before the first load so no change falls between the two
+connectLiveUpdates();
 fetchList();
\ No newline at end of file